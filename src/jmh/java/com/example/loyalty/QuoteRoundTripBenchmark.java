@@ -0,0 +1,73 @@
+package com.example.loyalty;
+
+import com.example.loyalty.service.FxClient;
+import com.example.loyalty.service.PromoClient;
+import com.example.loyalty.service.PromoResult;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import ch.qos.logback.classic.Level;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full quote round trip over loopback HTTP through the real router, handlers and service, with
+ * in-memory FX and promo clients so upstream latency does not dominate. At {@code logLevel=INFO}
+ * every request also writes its access record through the async appender, as in production.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-jmh.xml")
+@Threads(4)
+@State(Scope.Benchmark)
+public class QuoteRoundTripBenchmark {
+
+  private static final Buffer BODY = Buffer.buffer("""
+      {"fareAmount":1234.50,"currency":"USD","cabinClass":"ECONOMY","customerTier":"SILVER","promoCode":"SUMMER25"}""");
+
+  @Param({"WARN", "INFO"})
+  public String logLevel;
+
+  private Vertx vertx;
+  private WebClient client;
+  private int port;
+
+  @Setup
+  public void setUp() throws Exception {
+    System.setProperty("http.port", "0");
+    ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME))
+        .setLevel(Level.toLevel(logLevel));
+    vertx = Vertx.vertx();
+
+    PromoResult promo = new PromoResult(25, true);
+    FxClient fxClient = currency -> Future.succeededFuture(3.67);
+    PromoClient promoClient = code -> Future.succeededFuture(promo);
+
+    vertx.deployVerticle(new MainVerticle(fxClient, promoClient))
+        .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    port = Integer.parseInt(System.getProperty("http.actualPort"));
+    client = WebClient.create(vertx, new WebClientOptions().setMaxPoolSize(16).setKeepAlive(true));
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public int quote() throws Exception {
+    HttpResponse<Buffer> res = client.post(port, "localhost", "/v1/points/quote")
+        .putHeader("Content-Type", "application/json")
+        .sendBuffer(BODY)
+        .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    return res.statusCode();
+  }
+}
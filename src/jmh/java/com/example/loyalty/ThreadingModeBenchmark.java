@@ -0,0 +1,82 @@
+package com.example.loyalty;
+
+import com.example.loyalty.service.FxClient;
+import com.example.loyalty.service.PromoResult;
+import com.example.loyalty.service.impl.BlockingPromoClient;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quote round trips with a blocking promo store (a sleep of {@code storeMs} standing in for a JDBC
+ * query), with request handling on event loops versus virtual threads. On event loops the store
+ * runs on the worker pool (20 threads), which caps concurrent lookups; on virtual threads each
+ * lookup gets its own virtual thread. Sample mode reports tail percentiles alongside the mean.
+ *
+ * <p>{@code VIRTUAL_THREAD} needs a Java 21 runtime: run the jmh profile with a JDK 21 on the path.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-jmh.xml")
+@Threads(64)
+@State(Scope.Benchmark)
+public class ThreadingModeBenchmark {
+
+  private static final Buffer BODY = Buffer.buffer("""
+      {"fareAmount":1234.50,"currency":"USD","cabinClass":"ECONOMY","customerTier":"SILVER","promoCode":"SUMMER25"}""");
+  private static final PromoResult PROMO = new PromoResult(25, true);
+
+  @Param({"EVENT_LOOP", "VIRTUAL_THREAD"})
+  public ThreadingModel threading;
+
+  @Param({"20"})
+  public long storeMs;
+
+  private Vertx vertx;
+  private WebClient client;
+  private int port;
+
+  @Setup
+  public void setUp() throws Exception {
+    // negative port: all instances share one randomly chosen port
+    System.setProperty("http.port", "-1");
+    // Without the caches every quote reaches the blocking store.
+    System.setProperty("promo.cache.maxSize", "0");
+    System.setProperty("responseCache.ttlMs", "0");
+    vertx = Vertx.vertx();
+
+    FxClient fxClient = currency -> Future.succeededFuture(3.67);
+    DeploymentOptions options = new DeploymentOptions().setInstances(4).setThreadingModel(threading);
+    vertx.deployVerticle(() -> new MainVerticle(fxClient, new BlockingPromoClient(vertx, code -> {
+          Thread.sleep(storeMs);
+          return PROMO;
+        }, 1_000)), options)
+        .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    port = Integer.parseInt(System.getProperty("http.actualPort"));
+    client = WebClient.create(vertx, new WebClientOptions().setMaxPoolSize(64).setKeepAlive(true));
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    vertx.close().toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+  }
+
+  @Benchmark
+  public int quote() throws Exception {
+    HttpResponse<Buffer> res = client.post(port, "localhost", "/v1/points/quote")
+        .putHeader("Content-Type", "application/json")
+        .sendBuffer(BODY)
+        .toCompletionStage().toCompletableFuture().get(10, TimeUnit.SECONDS);
+    return res.statusCode();
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.loyalty.handler;
+
+import com.example.loyalty.model.BatchQuoteItem;
+import com.example.loyalty.model.ErrorResponse;
+import com.example.loyalty.model.QuoteResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * CPU per response for gzip at each {@code http.compression.level}, on a single quote and on
+ * batches. Like the server's encoder, every response gets a fresh deflater, so the fixed setup cost
+ * that makes small bodies not worth compressing is included. Setup prints the bytes on the wire for
+ * each combination, the other side of the trade-off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-jmh.xml")
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+  // gzip header and trailer, written around the raw deflate stream
+  private static final int GZIP_OVERHEAD = 18;
+
+  @Param({"quote", "batch10", "batch100"})
+  public String payload;
+
+  @Param({"1", "6", "9"})
+  public int level;
+
+  private byte[] body;
+  private byte[] out;
+  private long checksum;
+
+  @Setup
+  public void setUp() {
+    Random random = new Random(42);
+    if (payload.equals("quote")) {
+      body = QuoteJsonCodec.encode(quote(random)).getBytes();
+    } else {
+      int size = Integer.parseInt(payload.substring("batch".length()));
+      List<BatchQuoteItem> items = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        items.add(i % 10 == 9
+            ? BatchQuoteItem.failed(ErrorResponse.of("Validation Error", "Invalid currency: ZZZ", 400,
+                "/v1/points/quotes", "5f0c6a4e-8d0b-4c1e-9f59-2f3c7d0e1a22"))
+            : BatchQuoteItem.ok(quote(random)));
+      }
+      body = QuoteJsonCodec.encode(items).getBytes();
+    }
+    out = new byte[body.length + 1024];
+    System.out.printf("%n%s at level %d: %d bytes -> %d bytes gzipped%n", payload, level, body.length, gzip());
+  }
+
+  /** Compressed size, including the gzip framing; the work the server's encoder does per response. */
+  @Benchmark
+  public int gzip() {
+    Deflater deflater = new Deflater(level, true);
+    try {
+      deflater.setInput(body);
+      deflater.finish();
+      int length = 0;
+      while (!deflater.finished()) length += deflater.deflate(out, length, out.length - length);
+      CRC32 crc = new CRC32();
+      crc.update(body);
+      checksum = crc.getValue();
+      return length + GZIP_OVERHEAD;
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private static QuoteResponse quote(Random random) {
+    QuoteResponse res = new QuoteResponse();
+    res.basePoints = 50 + random.nextInt(5000);
+    res.tierBonus = res.basePoints * 15 / 100;
+    res.promoBonus = random.nextBoolean() ? res.basePoints / 4 : 0;
+    res.totalPoints = res.basePoints + res.tierBonus + res.promoBonus;
+    res.effectiveFxRate = 3.67;
+    res.warnings = res.promoBonus > 0 ? List.of("PROMO_EXPIRES_SOON") : List.of();
+    return res;
+  }
+}
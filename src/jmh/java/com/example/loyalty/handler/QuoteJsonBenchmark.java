@@ -0,0 +1,82 @@
+package com.example.loyalty.handler;
+
+import com.example.loyalty.model.ErrorResponse;
+import com.example.loyalty.model.QuoteRequest;
+import com.example.loyalty.model.QuoteResponse;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON costs paid by {@link PointsHandler} per request: body binding and response encoding, with
+ * databind ({@code Json}) side by side with {@link QuoteJsonCodec}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-jmh.xml")
+@State(Scope.Benchmark)
+public class QuoteJsonBenchmark {
+
+  private Buffer requestBody;
+  private QuoteResponse response;
+  private ErrorResponse error;
+
+  @Setup
+  public void setUp() {
+    requestBody = Buffer.buffer("""
+        {"fareAmount":1234.50,"currency":"USD","cabinClass":"ECONOMY","customerTier":"SILVER","promoCode":"SUMMER25"}""");
+
+    response = new QuoteResponse();
+    response.basePoints = 1234;
+    response.tierBonus = 185;
+    response.promoBonus = 308;
+    response.totalPoints = 1727;
+    response.effectiveFxRate = 3.67;
+    response.warnings = List.of("PROMO_EXPIRES_SOON");
+
+    error = ErrorResponse.of("Validation Error", "Invalid tier", 400, "/v1/points/quote",
+        "5f0c6a4e-8d0b-4c1e-9f59-2f3c7d0e1a22");
+  }
+
+  @Benchmark
+  public QuoteRequest decodeRequest() {
+    // what ctx.body().asPojo(QuoteRequest.class) does
+    return Json.CODEC.fromBuffer(requestBody, QuoteRequest.class);
+  }
+
+  @Benchmark
+  public String encodeResponse() {
+    return Json.encode(response);
+  }
+
+  @Benchmark
+  public String encodeError() {
+    return Json.encode(error);
+  }
+
+  @Benchmark
+  public QuoteRequest decodeRequest_codec() {
+    return QuoteJsonCodec.tryDecodeRequest(requestBody);
+  }
+
+  @Benchmark
+  public Buffer encodeResponse_toBuffer() {
+    // databind path as the handler used it: String, then UTF-8 bytes for the wire
+    return Buffer.buffer(Json.encode(response));
+  }
+
+  @Benchmark
+  public Buffer encodeResponse_codec() {
+    return QuoteJsonCodec.encode(response);
+  }
+
+  @Benchmark
+  public Buffer encodeError_codec() {
+    return QuoteJsonCodec.encode(error);
+  }
+}
@@ -0,0 +1,105 @@
+package com.example.loyalty.service;
+
+import com.example.loyalty.exception.ValidationException;
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.model.CabinClass;
+import com.example.loyalty.model.CurrencyCode;
+import com.example.loyalty.model.QuoteRequest;
+import com.example.loyalty.model.QuoteResponse;
+import com.example.loyalty.model.Tier;
+import com.example.loyalty.model.ValidatedQuote;
+import com.example.loyalty.rules.RuleTable;
+import com.example.loyalty.service.impl.CachingFxClient;
+import com.example.loyalty.service.impl.CachingPromoClient;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quote pricing in process. Run with {@code -prof gc}: a successful quote should allocate only its
+ * validated request, the {@link QuoteResponse} and the futures carrying it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Dlogback.configurationFile=logback-jmh.xml")
+@State(Scope.Benchmark)
+public class PointsServiceBenchmark {
+
+  private final PromoResult promo = new PromoResult(25, true);
+  private PointsService service;
+  private PointsService cachedService;
+  private QuoteRequest valid;
+  private QuoteRequest invalidTier;
+  private final RuleTable rules = RuleTable.compile(new JsonObject()
+      .put("cabins", new JsonObject().put("BUSINESS", 1.5))
+      .put("currencies", new JsonObject().put("INR", 0.5))
+      .put("routes", new JsonObject().put("BOM-DXB", 1.25)), 50_000);
+
+  @Setup
+  public void setUp() {
+    // Upstreams answer with completed futures built once, as the caches do on a hit.
+    Future<Double> rate = Future.succeededFuture(3.67);
+    Future<PromoResult> promoFuture = Future.succeededFuture(promo);
+    FxClient fxClient = currency -> rate;
+    PromoClient promoClient = code -> promoFuture;
+    service = new PointsService(fxClient, promoClient);
+
+    ServiceConfig config = ServiceConfig.fromSystemProperties();
+    cachedService = new PointsService(new CachingFxClient(currency -> Future.succeededFuture(3.67), config),
+        new CachingPromoClient(code -> Future.succeededFuture(promo), config));
+
+    valid = new QuoteRequest();
+    valid.fareAmount = 1234.50;
+    valid.currency = "USD";
+    valid.cabinClass = "ECONOMY";
+    valid.customerTier = "SILVER";
+    valid.promoCode = "SUMMER25";
+
+    invalidTier = new QuoteRequest();
+    invalidTier.fareAmount = 1234.50;
+    invalidTier.currency = "USD";
+    invalidTier.cabinClass = "ECONOMY";
+    invalidTier.customerTier = "DIAMOND";
+  }
+
+  @Benchmark
+  public ValidatedQuote validate_valid() {
+    return service.validate(valid);
+  }
+
+  @Benchmark
+  public Object validate_invalidTier() {
+    try {
+      return service.validate(invalidTier);
+    } catch (ValidationException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public QuoteResponse computePoints() {
+    return service.build(1234, 185, 50_000, promo, 3.67);
+  }
+
+  /** Base points, tier bonus and cap from a compiled rule table; -prof gc should show 0 B/op. */
+  @Benchmark
+  public int evaluateRules() {
+    int base = rules.basePoints(1234.50, CurrencyCode.INR, CabinClass.BUSINESS, "BOM-DXB");
+    return Math.min(rules.cap(Tier.GOLD), base + rules.tierBonus(base, Tier.GOLD));
+  }
+
+  @Benchmark
+  public QuoteResponse quote_stubbedUpstreams() {
+    return service.quote(valid).result();
+  }
+
+  /** Through the FX and promo caches, every lookup a hit after the first call. */
+  @Benchmark
+  public QuoteResponse quote_cachedUpstreams() {
+    return cachedService.quote(valid).result();
+  }
+}
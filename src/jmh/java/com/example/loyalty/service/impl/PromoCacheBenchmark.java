@@ -0,0 +1,62 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.PromoResult;
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Promo cache lookups against a million resident codes, on heap (Caffeine) and off heap. Run with
+ * {@code -prof gc}; setup also prints the heap each cache retains, which is what off-heap storage
+ * is meant to shrink.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Dlogback.configurationFile=logback-jmh.xml", "-XX:MaxDirectMemorySize=512m"})
+@Threads(4)
+@State(Scope.Benchmark)
+public class PromoCacheBenchmark {
+  private static final int ENTRIES = 1_000_000;
+
+  @Param({"heap", "offheap"})
+  public String store;
+
+  private PromoCache cache;
+  private String[] codes;
+
+  @Setup
+  public void setUp() {
+    codes = new String[ENTRIES];
+    for (int i = 0; i < ENTRIES; i++) codes[i] = "PROMO" + i;
+    long before = usedHeapAfterGc();
+    cache = store.equals("offheap")
+        ? CachingPromoClient.newOffHeapCache(ENTRIES, 600_000, 600_000, Ticker.systemTicker())
+        : CachingPromoClient.newCache(ENTRIES, 600_000, 600_000, Ticker.systemTicker());
+    for (int i = 0; i < ENTRIES; i++) cache.put(codes[i], new PromoResult(i % 50, false));
+    cache.cleanUp();
+    System.out.printf("%n%s promo cache: %d entries, %.1f MB retained heap%n",
+        store, cache.estimatedSize(), (usedHeapAfterGc() - before) / (1024.0 * 1024.0));
+  }
+
+  /** 90% reads of resident codes, 10% rewrites. */
+  @Benchmark
+  public PromoResult getPut() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    String code = codes[random.nextInt(ENTRIES)];
+    if (random.nextInt(10) == 0) {
+      cache.put(code, PromoResult.NONE);
+      return null;
+    }
+    return cache.getIfPresent(code);
+  }
+
+  private static long usedHeapAfterGc() {
+    for (int i = 0; i < 3; i++) System.gc();
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,54 @@
+package com.example.loyalty.load;
+
+import java.util.Random;
+
+/**
+ * Response-time distribution for an upstream stand-in, parsed from a short spec:
+ *
+ * <ul>
+ *   <li>{@code fixed:5} - always 5ms</li>
+ *   <li>{@code uniform:2-10} - uniform between 2 and 10ms</li>
+ *   <li>{@code exp:5} - exponential with a 5ms mean</li>
+ *   <li>{@code lognormal:5,50} - log-normal with a 5ms median and a 50ms p99, for a long tail</li>
+ * </ul>
+ */
+interface LatencyModel {
+
+  /** Next delay in milliseconds; never negative. */
+  double nextMs(Random random);
+
+  static LatencyModel parse(String spec) {
+    int colon = spec.indexOf(':');
+    String kind = colon < 0 ? spec : spec.substring(0, colon);
+    String args = colon < 0 ? "" : spec.substring(colon + 1);
+    try {
+      switch (kind) {
+        case "fixed" -> {
+          double ms = Double.parseDouble(args);
+          return random -> ms;
+        }
+        case "uniform" -> {
+          String[] range = args.split("-");
+          double min = Double.parseDouble(range[0]);
+          double max = Double.parseDouble(range[1]);
+          return random -> min + random.nextDouble() * (max - min);
+        }
+        case "exp" -> {
+          double mean = Double.parseDouble(args);
+          return random -> -mean * Math.log(1 - random.nextDouble());
+        }
+        case "lognormal" -> {
+          String[] params = args.split(",");
+          double mu = Math.log(Double.parseDouble(params[0]));
+          // 2.326 is the standard normal's 99th percentile.
+          double sigma = (Math.log(Double.parseDouble(params[1])) - mu) / 2.326;
+          return random -> Math.exp(mu + sigma * random.nextGaussian());
+        }
+        default -> throw new IllegalArgumentException("Unknown latency model: " + spec);
+      }
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException("Invalid latency spec '" + spec
+          + "', expected fixed:MS, uniform:MIN-MAX, exp:MEAN or lognormal:MEDIAN,P99", e);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package com.example.loyalty.load;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Throughput and latency percentiles per run, as a console table and as JSON for release gates.
+ * Percentiles are coordinated-omission corrected (measured from each request's due time). The p99
+ * measured from the actual send is shown next to them; a gap between the two means the driver
+ * itself fell behind schedule, which a closed-loop tool would silently hide.
+ */
+final class LoadReport {
+  private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+  private static final String[] QUANTILE_NAMES = {"p50", "p90", "p99", "p99.9"};
+
+  private final List<Phase> phases = new ArrayList<>();
+
+  void add(int instances, OpenLoopDriver.Result result) {
+    phases.add(new Phase(instances, result));
+  }
+
+  void print(PrintStream out) {
+    out.printf("%n%9s %10s %10s %8s %8s %8s %8s %8s %8s %9s  %s%n", "instances", "offered/s", "ok/s", "p50 ms",
+        "p90 ms", "p99 ms", "p99.9 ms", "max ms", "err %", "p99 unc.", "statuses");
+    double baseline = phases.isEmpty() ? 0 : phases.get(0).result.throughput();
+    for (Phase phase : phases) {
+      OpenLoopDriver.Result r = phase.result;
+      out.printf("%9d %10.0f %10.0f", phase.instances, r.offeredPerSec, r.throughput());
+      for (double q : QUANTILES) out.printf(" %8.2f", r.latencyMs(q));
+      out.printf(" %8.2f %8.2f %9.2f  %s", r.maxNanos / 1e6, r.errorPercent(), r.serviceTimeMs(0.99), r.statuses);
+      if (phases.size() > 1 && baseline > 0) out.printf("  scaling x%.2f", r.throughput() / baseline);
+      out.println();
+    }
+  }
+
+  JsonObject toJson() {
+    JsonArray runs = new JsonArray();
+    for (Phase phase : phases) {
+      OpenLoopDriver.Result r = phase.result;
+      JsonObject latency = new JsonObject();
+      for (int i = 0; i < QUANTILES.length; i++) latency.put(QUANTILE_NAMES[i], r.latencyMs(QUANTILES[i]));
+      latency.put("max", r.maxNanos / 1e6);
+      runs.add(new JsonObject()
+          .put("instances", phase.instances)
+          .put("offeredPerSec", r.offeredPerSec)
+          .put("okPerSec", r.throughput())
+          .put("sent", r.sent)
+          .put("errorPercent", r.errorPercent())
+          .put("statuses", new JsonObject(new LinkedHashMap<String, Object>(r.statuses)))
+          .put("latencyMs", latency)
+          .put("uncorrectedP99Ms", r.serviceTimeMs(0.99)));
+    }
+    return new JsonObject().put("runs", runs);
+  }
+
+  /** Gate violations, empty if every run is within both limits; a negative limit is not checked. */
+  List<String> violations(double maxP99Ms, double maxErrorPercent) {
+    List<String> violations = new ArrayList<>();
+    for (Phase phase : phases) {
+      double p99 = phase.result.latencyMs(0.99);
+      if (maxP99Ms >= 0 && p99 > maxP99Ms) {
+        violations.add(String.format("instances=%d: p99 %.2fms > %.2fms", phase.instances, p99, maxP99Ms));
+      }
+      double errors = phase.result.errorPercent();
+      if (maxErrorPercent >= 0 && errors > maxErrorPercent) {
+        violations.add(String.format("instances=%d: errors %.2f%% > %.2f%%", phase.instances, errors, maxErrorPercent));
+      }
+    }
+    return violations;
+  }
+
+  private record Phase(int instances, OpenLoopDriver.Result result) {
+  }
+}
@@ -0,0 +1,141 @@
+package com.example.loyalty.load;
+
+import com.example.loyalty.MainApp;
+import com.example.loyalty.MainVerticle;
+import com.example.loyalty.config.ServiceConfig;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.VertxOptions;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sustained-load test: starts in-process FX and promo stand-ins, then for each instance count in
+ * {@code instances} starts the service with that many verticle instances, drives open-loop traffic
+ * at {@code rate} (after a discarded warm-up) and reports throughput and latency percentiles.
+ * Exits with status 1 if {@code maxP99Ms} or {@code maxErrorPercent} is exceeded, so it can gate
+ * a release.
+ *
+ * <p>Arguments are {@code key=value} pairs. Keys containing a dot are service settings and are
+ * passed through as system properties (e.g. {@code promo.cache.maxSize=0}); the rest are:
+ *
+ * <pre>
+ * rate=500              offered quotes per second
+ * arrivals=poisson      or uniform
+ * warmupSec=5           per instance count, not reported
+ * durationSec=20        measured, per instance count
+ * instances=1           comma-separated, e.g. 1,2,4 for a scaling run
+ * connections=64        client connection pool size
+ * fxLatency=lognormal:5,40     see LatencyModel
+ * fxErrors=0            fraction of FX calls answered with 500
+ * promoLatency=lognormal:3,30
+ * promoErrors=0
+ * requests=             recorded request mix (JSON lines); synthetic when empty
+ * mixSize=10000         synthetic requests generated before cycling
+ * record=               write the request mix to this file for later replay
+ * seed=42               request mix, arrivals and stand-in randomness
+ * report=target/load-report.json
+ * maxP99Ms=-1           gate on corrected p99; negative disables
+ * maxErrorPercent=-1    gate on non-200 responses; negative disables
+ * </pre>
+ */
+public final class LoadTest {
+
+  public static void main(String[] args) throws Exception {
+    Properties settings = new Properties();
+    for (String arg : args) {
+      int eq = arg.indexOf('=');
+      if (eq <= 0) throw new IllegalArgumentException("Expected key=value, got: " + arg);
+      String key = arg.substring(0, eq);
+      if (key.contains(".")) {
+        System.setProperty(key, arg.substring(eq + 1));
+      } else {
+        settings.setProperty(key, arg.substring(eq + 1));
+      }
+    }
+    double rate = Double.parseDouble(settings.getProperty("rate", "500"));
+    boolean poisson = !settings.getProperty("arrivals", "poisson").equals("uniform");
+    long warmupMs = TimeUnit.SECONDS.toMillis(Long.parseLong(settings.getProperty("warmupSec", "5")));
+    long durationMs = TimeUnit.SECONDS.toMillis(Long.parseLong(settings.getProperty("durationSec", "20")));
+    int connections = Integer.parseInt(settings.getProperty("connections", "64"));
+    long seed = Long.parseLong(settings.getProperty("seed", "42"));
+    String requests = settings.getProperty("requests", "");
+    RequestMix mix = requests.isEmpty()
+        ? RequestMix.synthetic(Integer.parseInt(settings.getProperty("mixSize", "10000")), seed)
+        : RequestMix.recorded(Path.of(requests));
+    String record = settings.getProperty("record", "");
+    if (!record.isEmpty()) mix.record(Path.of(record));
+
+    Vertx upstreamVertx = Vertx.vertx();
+    Vertx clientVertx = Vertx.vertx(new VertxOptions().setEventLoopPoolSize(1));
+    LoadReport report = new LoadReport();
+    try {
+      UpstreamStandIns standIns = new UpstreamStandIns(upstreamVertx,
+          LatencyModel.parse(settings.getProperty("fxLatency", "lognormal:5,40")),
+          Double.parseDouble(settings.getProperty("fxErrors", "0")),
+          LatencyModel.parse(settings.getProperty("promoLatency", "lognormal:3,30")),
+          Double.parseDouble(settings.getProperty("promoErrors", "0")), seed);
+      await(standIns.start());
+      System.setProperty("fx.host", "localhost");
+      System.setProperty("fx.port", String.valueOf(standIns.fxPort()));
+      System.setProperty("promo.host", "localhost");
+      System.setProperty("promo.port", String.valueOf(standIns.promoPort()));
+      // negative port: all instances share one randomly chosen port
+      System.setProperty("http.port", "-1");
+      System.out.printf("Request mix: %d requests (%s); offered %.0f/s, %s arrivals, warm-up %ds, measured %ds%n",
+          mix.size(), requests.isEmpty() ? "synthetic, seed " + seed : requests, rate,
+          poisson ? "poisson" : "uniform", warmupMs / 1000, durationMs / 1000);
+
+      for (int instances : instanceCounts(settings.getProperty("instances", "1"))) {
+        // A fresh Vert.x per run, so caches, breakers and limiter start cold for every instance count.
+        Vertx serverVertx = Vertx.vertx();
+        WebClient client = WebClient.create(clientVertx,
+            new WebClientOptions().setMaxPoolSize(connections).setKeepAlive(true));
+        try {
+          ServiceConfig config = ServiceConfig.fromSystemProperties();
+          await(serverVertx.deployVerticle(MainVerticle::new, MainApp.deploymentOptions(config).setInstances(instances)));
+          int port = Integer.parseInt(System.getProperty("http.actualPort"));
+          OpenLoopDriver driver = new OpenLoopDriver(clientVertx, client, port, mix, seed);
+          if (warmupMs > 0) await(driver.run(rate, warmupMs, poisson));
+          report.add(instances, await(driver.run(rate, durationMs, poisson)));
+        } finally {
+          client.close();
+          await(serverVertx.close());
+        }
+      }
+    } finally {
+      await(clientVertx.close());
+      await(upstreamVertx.close());
+    }
+
+    report.print(System.out);
+    Path reportPath = Path.of(settings.getProperty("report", "target/load-report.json"));
+    if (reportPath.getParent() != null) Files.createDirectories(reportPath.getParent());
+    Files.writeString(reportPath, report.toJson().encodePrettily());
+    System.out.println("Report written to " + reportPath);
+
+    List<String> violations = report.violations(Double.parseDouble(settings.getProperty("maxP99Ms", "-1")),
+        Double.parseDouble(settings.getProperty("maxErrorPercent", "-1")));
+    if (!violations.isEmpty()) {
+      violations.forEach(v -> System.out.println("GATE FAILED: " + v));
+      System.exit(1);
+    }
+  }
+
+  private static List<Integer> instanceCounts(String spec) {
+    List<Integer> counts = new ArrayList<>();
+    for (String count : spec.split(",")) counts.add(Integer.parseInt(count.trim()));
+    return counts;
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    return future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.MINUTES);
+  }
+}
@@ -0,0 +1,142 @@
+package com.example.loyalty.load;
+
+import com.example.loyalty.metrics.LatencyHistogram;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.client.WebClient;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends quote requests on a fixed schedule, whatever the service's response times: request
+ * {@code i} is due at {@code start + arrival(i)} and is sent then even if earlier ones are still
+ * outstanding. Latency is measured from the due time, not from when the request actually left, so
+ * time a request spent waiting behind a stalled service or a full connection pool is counted
+ * (coordinated-omission correction). Time from the actual send is recorded alongside for
+ * comparison.
+ *
+ * <p>Runs on one event loop of the client {@link Vertx}; a 1ms timer releases every request that
+ * has come due.
+ */
+final class OpenLoopDriver {
+  private static final long REQUEST_TIMEOUT_MS = 10_000;
+
+  private final Vertx vertx;
+  private final WebClient client;
+  private final int port;
+  private final RequestMix mix;
+  private final Random random;
+
+  OpenLoopDriver(Vertx vertx, WebClient client, int port, RequestMix mix, long seed) {
+    this.vertx = vertx;
+    this.client = client;
+    this.port = port;
+    this.mix = mix;
+    this.random = new Random(seed);
+  }
+
+  /**
+   * Offers {@code ratePerSec} quotes per second for {@code durationMs}, with Poisson arrivals (or
+   * evenly spaced ones), and completes once every request sent has been answered or timed out.
+   */
+  Future<Result> run(double ratePerSec, long durationMs, boolean poisson) {
+    Promise<Result> done = Promise.promise();
+    vertx.runOnContext(v -> {
+      Result result = new Result(ratePerSec);
+      double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSec;
+      long start = System.nanoTime();
+      result.startNanos = start;
+      long end = start + TimeUnit.MILLISECONDS.toNanos(durationMs);
+      long[] due = {start};
+
+      vertx.setPeriodic(1, id -> {
+        long now = System.nanoTime();
+        while (due[0] <= now && due[0] < end) {
+          send(due[0], result, done);
+          double gap = poisson ? -meanGapNanos * Math.log(1 - random.nextDouble()) : meanGapNanos;
+          due[0] += Math.max(1, (long) gap);
+        }
+        if (due[0] >= end) {
+          vertx.cancelTimer(id);
+          result.elapsedNanos = now - start;
+          result.scheduleDone = true;
+          completeIfDrained(result, done);
+        }
+      });
+    });
+    return done.future();
+  }
+
+  private void send(long dueNanos, Result result, Promise<Result> done) {
+    long sentNanos = System.nanoTime();
+    result.sent++;
+    result.outstanding++;
+    client.post(port, "localhost", "/v1/points/quote")
+        .putHeader("Content-Type", "application/json")
+        .timeout(REQUEST_TIMEOUT_MS)
+        .sendBuffer(mix.next(), ar -> {
+          long now = System.nanoTime();
+          result.outstanding--;
+          long latency = now - dueNanos;
+          result.latency.recordNanos(latency);
+          result.serviceTime.recordNanos(now - sentNanos);
+          result.maxNanos = Math.max(result.maxNanos, latency);
+          result.lastCompletionNanos = now;
+          result.statuses.merge(ar.succeeded() ? String.valueOf(ar.result().statusCode()) : "error", 1L, Long::sum);
+          completeIfDrained(result, done);
+        });
+  }
+
+  private static void completeIfDrained(Result result, Promise<Result> done) {
+    if (result.scheduleDone && result.outstanding == 0) done.tryComplete(result);
+  }
+
+  /** One run's outcome; written only on the driver's event loop. */
+  static final class Result {
+    final double offeredPerSec;
+    final LatencyHistogram latency = new LatencyHistogram();
+    final LatencyHistogram serviceTime = new LatencyHistogram();
+    final Map<String, Long> statuses = new TreeMap<>();
+    long sent;
+    long outstanding;
+    long maxNanos;
+    long startNanos;
+    long elapsedNanos;
+    long lastCompletionNanos;
+    boolean scheduleDone;
+
+    Result(double offeredPerSec) {
+      this.offeredPerSec = offeredPerSec;
+    }
+
+    long ok() {
+      return statuses.getOrDefault("200", 0L);
+    }
+
+    /**
+     * Successful quotes per second, until the schedule ended or the last response arrived,
+     * whichever is later: a service that falls behind is not credited with the offered rate.
+     */
+    double throughput() {
+      return ok() / (Math.max(elapsedNanos, lastCompletionNanos - startNanos) / 1e9);
+    }
+
+    /** Latency at {@code quantile} in milliseconds, from the due time; at most the observed maximum. */
+    double latencyMs(double quantile) {
+      return Math.min(latency.percentile(quantile) / 1000.0, maxNanos / 1e6);
+    }
+
+    /** As {@link #latencyMs}, but from when the request was handed to the client (uncorrected). */
+    double serviceTimeMs(double quantile) {
+      return Math.min(serviceTime.percentile(quantile) / 1000.0, maxNanos / 1e6);
+    }
+
+    double errorPercent() {
+      return sent == 0 ? 0 : 100.0 * (sent - ok()) / sent;
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.loyalty.load;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Quote request bodies replayed in a fixed order, either generated from a seed or read from a
+ * recording (one JSON quote request per line). Bodies are encoded once up front, so the driver
+ * spends nothing on request generation. The same seed or file always yields the same sequence.
+ */
+final class RequestMix {
+  /** Promo codes {@code HOT0..HOT99} known to the stand-in; low indexes are requested most. */
+  static final int HOT_CODES = 100;
+
+  private static final String[] ROUTES = {"BOM-DXB", "DXB-LHR", "LHR-JFK", "DEL-SIN"};
+
+  private final List<Buffer> bodies;
+  private int next;
+
+  private RequestMix(List<Buffer> bodies) {
+    if (bodies.isEmpty()) throw new IllegalArgumentException("Request mix is empty");
+    this.bodies = bodies;
+  }
+
+  /**
+   * A synthetic mix shaped like production traffic: mostly USD, mostly economy, 40% without a promo
+   * code, hot codes skewed towards a few favourites, and a trickle of unknown codes.
+   */
+  static RequestMix synthetic(int size, long seed) {
+    Random random = new Random(seed);
+    List<Buffer> bodies = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      double r = random.nextDouble();
+      JsonObject req = new JsonObject()
+          // log-uniform between 50 and 5000
+          .put("fareAmount", Math.round(50 * Math.pow(100, random.nextDouble()) * 100) / 100.0)
+          .put("currency", r < 0.6 ? "USD" : r < 0.85 ? "EUR" : "INR")
+          .put("cabinClass", pick(random, 0.75, 0.95, "ECONOMY", "BUSINESS", "FIRST"))
+          .put("customerTier", pick(random, 0.4, 0.75, "NONE", "SILVER", random.nextBoolean() ? "GOLD" : "PLATINUM"));
+      double p = random.nextDouble();
+      if (p >= 0.4 && p < 0.85) {
+        req.put("promoCode", "HOT" + (int) (HOT_CODES * Math.pow(random.nextDouble(), 3)));
+      } else if (p >= 0.85 && p < 0.95) {
+        req.put("promoCode", random.nextBoolean() ? "SUMMER25" : "WINTER10");
+      } else if (p >= 0.95) {
+        req.put("promoCode", "JUNK" + random.nextInt(1_000_000));
+      }
+      if (random.nextDouble() < 0.3) {
+        req.put("route", ROUTES[random.nextInt(ROUTES.length)]);
+      }
+      bodies.add(req.toBuffer());
+    }
+    return new RequestMix(bodies);
+  }
+
+  static RequestMix recorded(Path file) throws IOException {
+    List<Buffer> bodies = new ArrayList<>();
+    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      if (!line.isBlank()) bodies.add(new JsonObject(line).toBuffer());
+    }
+    return new RequestMix(bodies);
+  }
+
+  /** Writes the mix as a recording that {@link #recorded} replays. */
+  void record(Path file) throws IOException {
+    List<String> lines = new ArrayList<>(bodies.size());
+    for (Buffer body : bodies) lines.add(body.toString(StandardCharsets.UTF_8));
+    Files.write(file, lines, StandardCharsets.UTF_8);
+  }
+
+  /** Next body, wrapping around at the end; call from one thread. */
+  Buffer next() {
+    Buffer body = bodies.get(next);
+    next = next + 1 == bodies.size() ? 0 : next + 1;
+    return body;
+  }
+
+  int size() {
+    return bodies.size();
+  }
+
+  private static String pick(Random random, double first, double second, String a, String b, String c) {
+    double r = random.nextDouble();
+    return r < first ? a : r < second ? b : c;
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.loyalty.load;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpServer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * In-process FX and promo services speaking the same HTTP contract as the real ones, with a
+ * configurable latency distribution and error rate each. Responses are delayed with timers, so a
+ * slow stand-in never blocks its event loop, and the service under test sees real sockets,
+ * connection pools and timeouts.
+ */
+final class UpstreamStandIns {
+  static final Map<String, Double> RATES = Map.of("USD", 3.67, "EUR", 4.02, "INR", 0.044);
+  static final Map<String, JsonObject> PROMOS = new HashMap<>();
+
+  static {
+    PROMOS.put("SUMMER25", new JsonObject().put("bonusPercent", 25).put("expiresSoon", true));
+    PROMOS.put("WINTER10", new JsonObject().put("bonusPercent", 10).put("expiresSoon", false));
+    for (int i = 0; i < RequestMix.HOT_CODES; i++) {
+      PROMOS.put("HOT" + i, new JsonObject().put("bonusPercent", 5 + i % 20).put("expiresSoon", i % 7 == 0));
+    }
+  }
+
+  private final Vertx vertx;
+  private final Random random;
+  private final Upstream fx;
+  private final Upstream promo;
+  private HttpServer fxServer;
+  private HttpServer promoServer;
+
+  UpstreamStandIns(Vertx vertx, LatencyModel fxLatency, double fxErrorRate, LatencyModel promoLatency,
+                   double promoErrorRate, long seed) {
+    this.vertx = vertx;
+    this.random = new Random(seed);
+    this.fx = new Upstream(fxLatency, fxErrorRate);
+    this.promo = new Upstream(promoLatency, promoErrorRate);
+  }
+
+  Future<Void> start() {
+    Future<HttpServer> fxStarted = vertx.createHttpServer().requestHandler(this::handleFx).listen(0);
+    Future<HttpServer> promoStarted = vertx.createHttpServer().requestHandler(this::handlePromo).listen(0);
+    return Future.all(fxStarted, promoStarted).map(v -> {
+      fxServer = fxStarted.result();
+      promoServer = promoStarted.result();
+      return null;
+    });
+  }
+
+  int fxPort() {
+    return fxServer.actualPort();
+  }
+
+  int promoPort() {
+    return promoServer.actualPort();
+  }
+
+  private void handleFx(HttpServerRequest req) {
+    String currency = req.path().substring(req.path().lastIndexOf('/') + 1);
+    Double rate = RATES.get(currency);
+    respond(req, fx, rate == null ? 404 : 200, rate == null ? null : new JsonObject().put("rate", rate));
+  }
+
+  private void handlePromo(HttpServerRequest req) {
+    if (req.path().equals("/promo/batch")) {
+      req.body().onSuccess(body -> {
+        JsonObject found = new JsonObject();
+        for (Object code : body.toJsonObject().getJsonArray("codes", new JsonArray())) {
+          JsonObject promo = PROMOS.get((String) code);
+          if (promo != null) found.put((String) code, promo);
+        }
+        respond(req, promo, 200, new JsonObject().put("promos", found));
+      });
+      return;
+    }
+    JsonObject result = PROMOS.get(req.path().substring(req.path().lastIndexOf('/') + 1));
+    respond(req, promo, result == null ? 404 : 200, result);
+  }
+
+  private void respond(HttpServerRequest req, Upstream upstream, int status, JsonObject body) {
+    boolean fail = random.nextDouble() < upstream.errorRate;
+    long delayMs = Math.round(upstream.latency.nextMs(random));
+    Runnable send = () -> {
+      if (fail) {
+        req.response().setStatusCode(500).end();
+      } else if (body == null) {
+        req.response().setStatusCode(status).end();
+      } else {
+        req.response().setStatusCode(status).putHeader("Content-Type", "application/json").end(body.toBuffer());
+      }
+    };
+    if (delayMs <= 0) {
+      send.run();
+    } else {
+      vertx.setTimer(delayMs, id -> send.run());
+    }
+  }
+
+  private record Upstream(LatencyModel latency, double errorRate) {
+  }
+}
@@ -1,9 +1,29 @@
 package com.example.loyalty;
 
+import com.example.loyalty.config.ServiceConfig;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public final class MainApp {
+  private static final Logger log = LoggerFactory.getLogger(MainApp.class);
+
   public static void main(String[] args) {
-    Vertx.vertx().deployVerticle(new MainVerticle());
+    ServiceConfig config = ServiceConfig.fromSystemProperties();
+    Vertx vertx = Vertx.vertx();
+    vertx.deployVerticle(MainVerticle::new, deploymentOptions(config))
+        .onFailure(err -> {
+          log.error("Failed to start", err);
+          vertx.close();
+        });
+  }
+
+  /** With {@code quote.virtualThreads}, request handling runs on virtual threads (needs Java 21). */
+  public static DeploymentOptions deploymentOptions(ServiceConfig config) {
+    return new DeploymentOptions()
+        .setInstances(config.verticleInstances())
+        .setThreadingModel(config.virtualThreads() ? ThreadingModel.VIRTUAL_THREAD : ThreadingModel.EVENT_LOOP);
   }
 }
@@ -1,13 +1,27 @@
 package com.example.loyalty;
 
+import com.example.loyalty.config.LiveConfig;
 import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.handler.CompressionThresholdHandler;
+import com.example.loyalty.handler.LoadSheddingHandler;
 import com.example.loyalty.handler.LoggingHandler;
+import com.example.loyalty.handler.MetricsHandler;
 import com.example.loyalty.handler.PointsHandler;
+import com.example.loyalty.service.FxClient;
 import com.example.loyalty.service.PointsService;
+import com.example.loyalty.service.PromoClient;
+import com.example.loyalty.service.impl.CachingFxClient;
+import com.example.loyalty.service.impl.CachingPromoClient;
+import com.example.loyalty.service.impl.CoalescingFxClient;
+import com.example.loyalty.service.impl.CoalescingPromoClient;
 import com.example.loyalty.service.impl.HttpFxClient;
 import com.example.loyalty.service.impl.HttpPromoClient;
+import com.example.loyalty.service.impl.PromoPrefetcher;
+import io.netty.handler.codec.compression.Brotli;
+import io.netty.handler.codec.compression.StandardCompressionOptions;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Promise;
+import io.vertx.core.http.HttpServerOptions;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.handler.BodyHandler;
 import org.slf4j.Logger;
@@ -16,27 +30,93 @@ import org.slf4j.LoggerFactory;
 public class MainVerticle extends AbstractVerticle {
   private static final Logger log = LoggerFactory.getLogger(MainVerticle.class);
 
+  private final FxClient fxClient;
+  private final PromoClient promoClient;
+  private SharedResources shared;
+  private LiveConfig.Listener configListener;
+  private long prefetchTimer = -1;
+
+  public MainVerticle() {
+    this(null, null);
+  }
+
+  /** Serves quotes from the given clients instead of the HTTP upstreams (benchmarks). */
+  MainVerticle(FxClient fxClient, PromoClient promoClient) {
+    this.fxClient = fxClient;
+    this.promoClient = promoClient;
+  }
+
   @Override
   public void start(Promise<Void> startPromise) {
-    ServiceConfig config = ServiceConfig.fromSystemProperties();
-    log.info("Starting with config: fxHost={}, fxPort={}, promoHost={}, promoPort={}, httpPort={}",
-        config.fxHost(), config.fxPort(), config.promoHost(), config.promoPort(), config.httpPort());
+    SharedResources shared = SharedResources.acquire(vertx, ServiceConfig.fromSystemProperties());
+    this.shared = shared;
+    // A failed start is not followed by stop, so give the shared resources back here.
+    startPromise.future().onFailure(err -> releaseShared());
+    ServiceConfig config = shared.liveConfig().current();
+    log.info("Starting with config: fxHost={}, fxPort={}, promoHost={}, promoPort={}, httpPort={}, instances={}",
+        config.fxHost(), config.fxPort(), config.promoHost(), config.promoPort(), config.httpPort(),
+        config.verticleInstances());
 
-    var fxClient = new HttpFxClient(vertx, config);
-    var promoClient = new HttpPromoClient(vertx, config);
-    var service = new PointsService(fxClient, promoClient, config.pointsCap());
-    var handler = new PointsHandler(service);
-    var loggingHandler = new LoggingHandler();
+    HttpFxClient httpFx = this.fxClient == null
+        ? new HttpFxClient(vertx, config, shared.fxBreakers(), shared.metrics(), shared.fxHedge())
+        : null;
+    HttpPromoClient httpPromo = this.promoClient == null ? new HttpPromoClient(vertx, config, shared.metrics()) : null;
+    FxClient fxClient = httpFx != null ? decorateFx(httpFx, config, shared) : this.fxClient;
+    PromoClient promoClient = httpPromo != null ? decoratePromo(httpPromo, shared) : this.promoClient;
+    var service = new PointsService(fxClient, promoClient, shared.rules(), shared.metrics());
+    var handler = new PointsHandler(service, config.batchMaxSize(), shared.responseCache());
+    var loggingHandler = new LoggingHandler(config.accessLogSampleRate());
+    var metricsHandler = new MetricsHandler(shared.metrics());
 
     Router router = Router.router(vertx);
     router.route().handler(loggingHandler::handle);
+    router.route().handler(metricsHandler::countResponses);
+    if (config.httpCompressionEnabled() && config.httpCompressionMinBytes() > 0) {
+      var compressionHandler = new CompressionThresholdHandler(config.httpCompressionMinBytes());
+      router.route().handler(compressionHandler::handle);
+    }
     router.route().handler(BodyHandler.create());
 
-    router.post("/v1/points/quote").handler(handler::handle);
+    var quoteRoute = router.post("/v1/points/quote").handler(metricsHandler::timeQuote);
+    if (shared.quoteLimiter() != null) {
+      var sheddingHandler = new LoadSheddingHandler(shared.quoteLimiter(), config.limiterRetryAfterSec());
+      quoteRoute.handler(sheddingHandler::handle);
+    }
+    quoteRoute.handler(handler::handle);
+    router.post("/v1/points/quotes").handler(handler::handleBatch);
     router.get("/health/live").handler(ctx -> ctx.response().end("OK"));
     router.get("/health/ready").handler(ctx -> ctx.response().end("READY"));
+    router.get("/metrics").handler(metricsHandler::scrape);
+
+    // Reloaded client settings are applied on this instance's event loop, where its clients run.
+    this.configListener = (previous, next) -> context.runOnContext(v -> {
+      if (httpFx != null) httpFx.reconfigure(next.fxRetryDelayMs(), next.cbTimeoutMs());
+      if (httpPromo != null) httpPromo.reconfigure(next.promoTimeoutMs());
+    });
+    shared.liveConfig().subscribe(configListener);
 
-    vertx.createHttpServer()
+    // One instance at a time refreshes hot promo codes for the whole process, below the cache it
+    // fills; every instance asks for the claim, so another takes over when the owner stops.
+    PromoPrefetcher prefetcher = shared.promoPrefetcher();
+    if (httpPromo != null && prefetcher != null) {
+      PromoClient upstream = new CoalescingPromoClient(httpPromo, shared.promoFlights());
+      prefetchTimer = vertx.setPeriodic(config.promoPrefetchIntervalMs(), id -> {
+        if (prefetcher.claim(this)) prefetcher.prefetch(upstream);
+      });
+    }
+
+    // The ready future is shared by every instance; listen from this instance's own context.
+    shared.ready().onComplete(ready -> context.runOnContext(v -> {
+      if (ready.succeeded()) {
+        listen(config, router, startPromise);
+      } else {
+        startPromise.fail(ready.cause());
+      }
+    }));
+  }
+
+  private void listen(ServiceConfig config, Router router, Promise<Void> startPromise) {
+    vertx.createHttpServer(serverOptions(config))
       .requestHandler(router)
       .listen(config.httpPort())
       .onSuccess(server -> {
@@ -49,4 +129,52 @@ public class MainVerticle extends AbstractVerticle {
         startPromise.fail(err);
       });
   }
+
+  /**
+   * Response compression, negotiated from {@code Accept-Encoding}: gzip and deflate at
+   * {@code http.compression.level}, plus brotli when brotli4j is on the classpath.
+   */
+  static HttpServerOptions serverOptions(ServiceConfig config) {
+    HttpServerOptions options = new HttpServerOptions();
+    if (!config.httpCompressionEnabled()) return options;
+    int level = config.httpCompressionLevel();
+    options.setCompressionSupported(true)
+      .setCompressionLevel(level)
+      .addCompressor(StandardCompressionOptions.gzip(level, 15, 8))
+      .addCompressor(StandardCompressionOptions.deflate(level, 15, 8));
+    if (Brotli.isAvailable()) options.addCompressor(StandardCompressionOptions.brotli());
+    return options;
+  }
+
+  @Override
+  public void stop() {
+    releaseShared();
+  }
+
+  private void releaseShared() {
+    if (shared == null) return;
+    if (prefetchTimer >= 0) vertx.cancelTimer(prefetchTimer);
+    if (shared.promoPrefetcher() != null) shared.promoPrefetcher().release(this);
+    if (configListener != null) shared.liveConfig().unsubscribe(configListener);
+    SharedResources.release(vertx, shared);
+    shared = null;
+  }
+
+  private FxClient decorateFx(FxClient fxClient, ServiceConfig config, SharedResources shared) {
+    if (shared.fxRates() != null) {
+      fxClient = new CachingFxClient(fxClient, shared.fxRates(), config);
+    } else {
+      fxClient = new CoalescingFxClient(fxClient, shared.fxFlights());
+    }
+    return fxClient;
+  }
+
+  private PromoClient decoratePromo(PromoClient promoClient, SharedResources shared) {
+    promoClient = new CoalescingPromoClient(promoClient, shared.promoFlights(), vertx,
+        () -> shared.liveConfig().current().promoTimeoutMs());
+    if (shared.promoCache() != null) {
+      promoClient = new CachingPromoClient(promoClient, shared.promoCache());
+    }
+    return promoClient;
+  }
 }
@@ -0,0 +1,295 @@
+package com.example.loyalty;
+
+import com.example.loyalty.config.ConfigFileLoader;
+import com.example.loyalty.config.LiveConfig;
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.handler.QuoteResponseCache;
+import com.example.loyalty.limit.AdaptiveLimiter;
+import com.example.loyalty.logging.DroppingAsyncAppender;
+import com.example.loyalty.metrics.Metrics;
+import com.example.loyalty.rules.RuleTable;
+import com.example.loyalty.rules.RulesEngine;
+import com.example.loyalty.rules.RulesFileLoader;
+import com.example.loyalty.service.PromoResult;
+import com.example.loyalty.service.impl.CachingFxClient;
+import com.example.loyalty.service.impl.CachingPromoClient;
+import com.example.loyalty.service.impl.FxBreakers;
+import com.example.loyalty.service.impl.HedgePolicy;
+import com.example.loyalty.service.impl.PromoCache;
+import com.example.loyalty.service.impl.PromoPrefetcher;
+import com.example.loyalty.service.impl.SingleFlight;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Upstream state that must be shared by every {@link MainVerticle} instance in a Vert.x instance:
+ * the per-currency FX circuit breakers and bulkheads (so they reflect real FX health, not one event
+ * loop's view) and the FX and
+ * promo caches and in-flight lookups (so traffic is not multiplied by the instance count), plus the
+ * metrics registry. When {@code snapshot.path} is set the caches are restored from the snapshot
+ * before any instance starts serving, and saved back periodically. The points rules live here too,
+ * so a reload of {@code rules.path} reaches every instance at once, as does the {@link LiveConfig}
+ * fed by {@code config.path}.
+ * WebClients and handlers stay per instance, on their own event loop. Instances {@link #acquire} and
+ * {@link #release} it; when the last one stops, its timers are cancelled and it is dropped, so a
+ * redeployment in the same Vert.x instance starts from fresh config and state.
+ */
+final class SharedResources implements Shareable {
+  private static final Logger log = LoggerFactory.getLogger(SharedResources.class);
+  private static final String MAP_NAME = "loyalty.shared";
+  private static final String KEY = "resources";
+
+  private final Vertx vertx;
+  private final Metrics metrics = new Metrics();
+  private final LiveConfig liveConfig;
+  private final FxBreakers fxBreakers;
+  private final HedgePolicy fxHedge;
+  private final CachingFxClient.RateStore fxRates;
+  private final SingleFlight<String, Double> fxFlights;
+  private final PromoCache promoCache;
+  private final SingleFlight<String, PromoResult> promoFlights = new SingleFlight<>();
+  private final Future<Integer> warmStart;
+  private final AdaptiveLimiter quoteLimiter;
+  private final RulesEngine rules;
+  private final QuoteResponseCache responseCache;
+  private final PromoPrefetcher promoPrefetcher;
+  private final RulesFileLoader rulesLoader;
+  private final Future<Void> ready;
+  // Changed only inside the local map's compute, which is atomic for the key.
+  private int users;
+  // Periodic timers (snapshot, rules and config watches), guarded by this.
+  private final List<Long> timers = new ArrayList<>();
+  private boolean closed;
+
+  private SharedResources(Vertx vertx, ServiceConfig config) {
+    this.vertx = vertx;
+    this.fxBreakers = new FxBreakers(vertx, config, metrics);
+    this.fxHedge = config.fxHedgeEnabled() ? new HedgePolicy(config) : null;
+    this.fxRates = config.fxCacheTtlMs() > 0 ? new CachingFxClient.RateStore() : null;
+    this.fxFlights = fxRates != null ? fxRates.flights() : new SingleFlight<>();
+    this.promoCache = config.promoCacheMaxSize() > 0 ? CachingPromoClient.newCache(config) : null;
+
+    if (!config.snapshotPath().isBlank() && (fxRates != null || promoCache != null)) {
+      var snapshot = new WarmStartSnapshot(vertx, config.snapshotPath(), fxRates, promoCache,
+          config.snapshotPromoEntries(), config.fxCacheMaxStaleMs(), config.promoCacheNegativeTtlMs(),
+          System::currentTimeMillis);
+      this.warmStart = snapshot.load();
+      warmStart.onComplete(v -> track(vertx.setPeriodic(config.snapshotIntervalMs(), id -> snapshot.save())));
+    } else {
+      this.warmStart = Future.succeededFuture(0);
+    }
+
+    this.rules = new RulesEngine(RuleTable.defaults(config.pointsCap()));
+    Future<?> rulesLoaded = Future.succeededFuture();
+    if (!config.rulesPath().isBlank()) {
+      this.rulesLoader = new RulesFileLoader(vertx, config.rulesPath(), config.pointsCap(), rules);
+      rulesLoaded = rulesLoader.load();
+      rulesLoaded.onSuccess(v -> track(rulesLoader.watch(config.rulesReloadIntervalMs())));
+    } else {
+      this.rulesLoader = null;
+    }
+
+    if (config.responseCacheTtlMs() > 0 && (fxRates == null || promoCache == null)) {
+      log.warn("Quote response cache disabled: it needs the FX and promo caches to detect data changes");
+    }
+    this.responseCache = config.responseCacheTtlMs() > 0 && fxRates != null && promoCache != null
+        ? new QuoteResponseCache(config.responseCacheTtlMs(), config.responseCacheMaxBytes(),
+            config.fxCacheTtlMs() - Math.min(config.fxCacheRefreshAheadMs(), config.fxCacheTtlMs()),
+            fxRates, promoCache, rules)
+        : null;
+
+    // Entries due to expire before the run after next are refreshed, so a hot code never lapses.
+    this.promoPrefetcher = config.promoPrefetchTopN() > 0 && promoCache != null
+        ? new PromoPrefetcher(vertx, promoCache, config.promoPrefetchTopN(), 2 * config.promoPrefetchIntervalMs())
+        : null;
+
+    this.liveConfig = new LiveConfig(config);
+    liveConfig.subscribe((previous, next) -> applyShared(previous, next));
+    Future<?> configLoaded = rulesLoaded;
+    if (!config.configPath().isBlank()) {
+      var loader = new ConfigFileLoader(vertx, config.configPath(), liveConfig);
+      configLoaded = rulesLoaded.compose(v -> loader.load());
+      configLoaded.onSuccess(v -> track(loader.watch(config.configReloadIntervalMs())));
+    }
+    this.ready = Future.all(warmStart, configLoaded).mapEmpty();
+
+    this.quoteLimiter = config.limiterEnabled()
+        ? new AdaptiveLimiter(config.limiterInitialLimit(), config.limiterMinLimit(), config.limiterMaxLimit(),
+            TimeUnit.MILLISECONDS.toNanos(config.limiterLatencyTargetMs()), config.limiterBackoffRatio())
+        : null;
+
+    if (fxHedge != null) {
+      metrics.registerCounter("loyalty_fx_hedges_total", "", "Hedge requests sent for slow FX calls", fxHedge::hedged);
+      metrics.registerCounter("loyalty_fx_hedge_wins_total", "", "FX calls answered first by the hedge request",
+          fxHedge::won);
+    }
+    if (quoteLimiter != null) {
+      metrics.registerGauge("loyalty_quote_concurrency_limit", "", "Adaptive concurrency limit for single quotes",
+          quoteLimiter::limit);
+      metrics.registerGauge("loyalty_quotes_in_flight", "", "Single quotes admitted and not yet answered",
+          quoteLimiter::inFlight);
+      metrics.registerCounter("loyalty_quotes_shed_total", "", "Single quotes rejected with 503 by the limiter",
+          quoteLimiter::rejected);
+    }
+    metrics.registerCounter("loyalty_rules_reloads_total", "result=\"ok\"", "Points rules files applied",
+        rules::reloads);
+    metrics.registerCounter("loyalty_rules_reloads_total", "result=\"rejected\"",
+        "Points rules files rejected; the previous rules stayed in force", rules::reloadFailures);
+    metrics.registerCounter("loyalty_config_reloads_total", "result=\"ok\"", "Config files applied",
+        liveConfig::reloads);
+    metrics.registerCounter("loyalty_config_reloads_total", "result=\"rejected\"",
+        "Config files rejected; the previous config stayed in force", liveConfig::rejectedReloads);
+    metrics.registerCounter("loyalty_log_events_dropped_total", "", "Log events dropped because the async queue was full",
+        DroppingAsyncAppender::droppedCount);
+    metrics.registerCounter("loyalty_upstream_coalesced_total", "upstream=\"fx\"",
+        "Upstream lookups served by joining an identical in-flight call", fxFlights::joined);
+    metrics.registerCounter("loyalty_upstream_coalesced_total", "upstream=\"promo\"",
+        "Upstream lookups served by joining an identical in-flight call", promoFlights::joined);
+    if (promoCache != null) {
+      metrics.registerCounter("loyalty_promo_cache_requests_total", "result=\"hit\"", "Promo cache lookups",
+          () -> promoCache.stats().hitCount());
+      metrics.registerCounter("loyalty_promo_cache_requests_total", "result=\"miss\"", "Promo cache lookups",
+          () -> promoCache.stats().missCount());
+      metrics.registerCounter("loyalty_promo_cache_evictions_total", "", "Promo cache evictions",
+          () -> promoCache.stats().evictionCount());
+      metrics.registerGauge("loyalty_promo_cache_size", "", "Estimated promo cache entries",
+          promoCache::estimatedSize);
+    }
+    if (promoPrefetcher != null) {
+      metrics.registerCounter("loyalty_promo_prefetched_total", "", "Hot promo codes refreshed by the prefetcher",
+          promoPrefetcher::prefetched);
+    }
+    if (responseCache != null) {
+      metrics.registerCounter("loyalty_quote_response_cache_requests_total", "result=\"hit\"",
+          "Quote response cache lookups", () -> responseCache.stats().hitCount());
+      metrics.registerCounter("loyalty_quote_response_cache_requests_total", "result=\"miss\"",
+          "Quote response cache lookups", () -> responseCache.stats().missCount());
+      metrics.registerGauge("loyalty_quote_response_cache_bytes", "",
+          "Quote response cache size, bodies plus estimated overhead", responseCache::weightedSize);
+    }
+  }
+
+  // Shared half of a config reload; each instance then reconfigures its own clients.
+  private void applyShared(ServiceConfig previous, ServiceConfig next) {
+    fxBreakers.reconfigure(next);
+    if (previous.pointsCap() != next.pointsCap()) {
+      if (rulesLoader != null) {
+        rulesLoader.reconfigure(next.pointsCap());
+      } else {
+        rules.swap(RuleTable.defaults(next.pointsCap()));
+      }
+    }
+  }
+
+  /** The process's shared resources, created from {@code config} by the first caller; pair with {@link #release}. */
+  static SharedResources acquire(Vertx vertx, ServiceConfig config) {
+    return map(vertx).compute(KEY, (k, shared) -> {
+      SharedResources resources = shared != null ? shared : new SharedResources(vertx, config);
+      resources.users++;
+      return resources;
+    });
+  }
+
+  /** Gives back one {@link #acquire}; the last release cancels the timers and drops the resources. */
+  static void release(Vertx vertx, SharedResources resources) {
+    map(vertx).computeIfPresent(KEY, (k, shared) -> {
+      if (shared != resources || --shared.users > 0) return shared;
+      shared.close();
+      return null;
+    });
+  }
+
+  /** The resources currently shared, or null if no instance holds them. */
+  static SharedResources current(Vertx vertx) {
+    return map(vertx).get(KEY);
+  }
+
+  private static LocalMap<String, SharedResources> map(Vertx vertx) {
+    return vertx.sharedData().getLocalMap(MAP_NAME);
+  }
+
+  // A timer started after close (a load that completed late) is cancelled at once.
+  private synchronized void track(long timerId) {
+    if (closed) {
+      vertx.cancelTimer(timerId);
+    } else {
+      timers.add(timerId);
+    }
+  }
+
+  private synchronized void close() {
+    closed = true;
+    timers.forEach(vertx::cancelTimer);
+    timers.clear();
+    fxBreakers.close();
+    log.info("Shared resources released by the last instance");
+  }
+
+  /**
+   * Completes once snapshot data, if any, has been restored and the rules file, if any, loaded;
+   * instances listen only after this. Fails if the rules file cannot be used at startup.
+   */
+  Future<Void> ready() {
+    return ready;
+  }
+
+  /** Null unless {@code promo.prefetch.topN > 0} and the promo cache is enabled. */
+  PromoPrefetcher promoPrefetcher() {
+    return promoPrefetcher;
+  }
+
+  /** Null unless {@code responseCache.ttlMs > 0} and both upstream caches are enabled. */
+  QuoteResponseCache responseCache() {
+    return responseCache;
+  }
+
+  LiveConfig liveConfig() {
+    return liveConfig;
+  }
+
+  RulesEngine rules() {
+    return rules;
+  }
+
+  /** Null when {@code limiter.enabled=false}. */
+  AdaptiveLimiter quoteLimiter() {
+    return quoteLimiter;
+  }
+
+  Metrics metrics() {
+    return metrics;
+  }
+
+  FxBreakers fxBreakers() {
+    return fxBreakers;
+  }
+
+  /** Null unless {@code fx.hedge.enabled=true}. */
+  HedgePolicy fxHedge() {
+    return fxHedge;
+  }
+
+  CachingFxClient.RateStore fxRates() {
+    return fxRates;
+  }
+
+  SingleFlight<String, Double> fxFlights() {
+    return fxFlights;
+  }
+
+  PromoCache promoCache() {
+    return promoCache;
+  }
+
+  SingleFlight<String, PromoResult> promoFlights() {
+    return promoFlights;
+  }
+}
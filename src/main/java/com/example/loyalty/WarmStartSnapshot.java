@@ -0,0 +1,142 @@
+package com.example.loyalty;
+
+import com.example.loyalty.service.PromoResult;
+import com.example.loyalty.service.impl.CachingFxClient;
+import com.example.loyalty.service.impl.PromoCache;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.file.CopyOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.LongSupplier;
+
+/**
+ * Persists FX rates and the hottest promo entries to a small binary file so a restarted process
+ * does not meet its first wave of quotes with empty caches. Writes go to a temp file that is then
+ * atomically renamed, so a crash mid-write never leaves a torn snapshot. Everything restored is
+ * treated as stale: FX rates only until the first background refresh, and never past
+ * {@code fx.cache.maxStaleMs}; promo entries for at most the negative TTL. Encoding scans the promo
+ * cache, so it runs on a worker thread rather than an event loop.
+ */
+final class WarmStartSnapshot {
+  private static final Logger log = LoggerFactory.getLogger(WarmStartSnapshot.class);
+  private static final int MAGIC = 0x4C505331; // "LPS1"
+
+  private final Vertx vertx;
+  private final String path;
+  private final CachingFxClient.RateStore rates;
+  private final PromoCache promos;
+  private final int maxPromos;
+  private final long fxMaxAgeMs;
+  private final long promoWarmTtlMs;
+  private final LongSupplier clock;
+
+  WarmStartSnapshot(Vertx vertx, String path, CachingFxClient.RateStore rates, PromoCache promos,
+                    int maxPromos, long fxMaxAgeMs, long promoWarmTtlMs, LongSupplier clock) {
+    this.vertx = vertx;
+    this.path = path;
+    this.rates = rates;
+    this.promos = promos;
+    this.maxPromos = maxPromos;
+    this.fxMaxAgeMs = fxMaxAgeMs;
+    this.promoWarmTtlMs = promoWarmTtlMs;
+    this.clock = clock;
+  }
+
+  /** Restores the snapshot, if any, and returns the number of entries restored. Never fails. */
+  Future<Integer> load() {
+    return vertx.fileSystem().exists(path)
+        .compose(exists -> exists ? vertx.fileSystem().readFile(path).map(this::restore) : Future.succeededFuture(0))
+        .onSuccess(restored -> log.info("Warm start: restored {} entries from {}", restored, path))
+        .recover(err -> {
+          log.warn("Warm start skipped, could not read snapshot {}: {}", path, err.toString());
+          return Future.succeededFuture(0);
+        });
+  }
+
+  Future<Void> save() {
+    String tmp = path + ".tmp";
+    return vertx.executeBlocking(this::encode, false)
+        .compose(snapshot -> vertx.fileSystem().writeFile(tmp, snapshot))
+        .compose(v -> vertx.fileSystem().move(tmp, path, new CopyOptions().setReplaceExisting(true).setAtomicMove(true)))
+        .onFailure(err -> log.warn("Could not write snapshot {}: {}", path, err.toString()));
+  }
+
+  Buffer encode() {
+    long now = clock.getAsLong();
+    Buffer fx = Buffer.buffer();
+    int[] fxCount = {0};
+    if (rates != null) {
+      rates.forEachRate((currency, rate, fetchedAt) -> {
+        appendString(fx, currency);
+        fx.appendDouble(rate).appendLong(fetchedAt);
+        fxCount[0]++;
+      });
+    }
+
+    Buffer promo = Buffer.buffer();
+    int[] promoCount = {0};
+    if (promos != null && maxPromos > 0) {
+      promos.forEachHottest(maxPromos, (code, result, remaining) -> {
+        appendString(promo, code);
+        promo.appendInt(result.bonusPercent).appendByte((byte) (result.expiresSoon ? 1 : 0))
+            .appendLong(now + remaining);
+        promoCount[0]++;
+      });
+    }
+
+    return Buffer.buffer(16 + fx.length() + promo.length())
+        .appendInt(MAGIC).appendLong(now)
+        .appendInt(fxCount[0]).appendBuffer(fx)
+        .appendInt(promoCount[0]).appendBuffer(promo);
+  }
+
+  int restore(Buffer snapshot) {
+    if (snapshot.length() < 12 || snapshot.getInt(0) != MAGIC) {
+      throw new IllegalArgumentException("not a snapshot file");
+    }
+    long now = clock.getAsLong();
+    int[] pos = {12};
+    int restored = 0;
+
+    int fxCount = snapshot.getInt(pos[0]);
+    pos[0] += 4;
+    for (int i = 0; i < fxCount; i++) {
+      String currency = readString(snapshot, pos);
+      double rate = snapshot.getDouble(pos[0]);
+      long fetchedAt = snapshot.getLong(pos[0] + 8);
+      pos[0] += 16;
+      if (rates != null && now - fetchedAt < fxMaxAgeMs && rates.warm(currency, rate, fetchedAt)) restored++;
+    }
+
+    int promoCount = snapshot.getInt(pos[0]);
+    pos[0] += 4;
+    for (int i = 0; i < promoCount; i++) {
+      String code = readString(snapshot, pos);
+      int bonusPercent = snapshot.getInt(pos[0]);
+      boolean expiresSoon = snapshot.getByte(pos[0] + 4) != 0;
+      long expiresAt = snapshot.getLong(pos[0] + 5);
+      pos[0] += 13;
+      long ttl = Math.min(expiresAt - now, promoWarmTtlMs);
+      if (promos != null && ttl > 0 && promos.putIfAbsent(code, new PromoResult(bonusPercent, expiresSoon), ttl)) {
+        restored++;
+      }
+    }
+    return restored;
+  }
+
+  private static void appendString(Buffer buffer, String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    buffer.appendShort((short) bytes.length).appendBytes(bytes);
+  }
+
+  private static String readString(Buffer buffer, int[] pos) {
+    int length = buffer.getShort(pos[0]) & 0xFFFF;
+    String value = buffer.getString(pos[0] + 2, pos[0] + 2 + length, "UTF-8");
+    pos[0] += 2 + length;
+    return value;
+  }
+}
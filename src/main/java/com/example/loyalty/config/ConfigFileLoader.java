@@ -0,0 +1,131 @@
+package com.example.loyalty.config;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Applies a local properties file on top of the system properties and publishes the result to a
+ * {@link LiveConfig}, reloading whenever the file's modification time or size changes. Only
+ * {@link ServiceConfig#RELOADABLE_KEYS} may appear in the file. A file with other keys, unparsable
+ * numbers or values failing {@link ServiceConfig#validate()} is logged and counted, and the config
+ * already in force is kept. So is a file that no longer sets a key the applied file set: that is
+ * what an empty or truncated file looks like, and applying it would silently revert those settings
+ * to their defaults. To go back to a default, set the key to it. When watching, a change is loaded
+ * only once the modification time and size are the same on two polls in a row, so a file still
+ * being written is not read. Reads use the async file system and parsing runs on a worker. Loads and
+ * polls are expected to run on one context; a poll is skipped while the previous one is still running.
+ */
+public final class ConfigFileLoader {
+  private static final Logger log = LoggerFactory.getLogger(ConfigFileLoader.class);
+
+  private final Vertx vertx;
+  private final String path;
+  private final LiveConfig live;
+
+  private long lastModified = -1;
+  private long lastSize = -1;
+  private long pendingModified = -1;
+  private long pendingSize = -1;
+  private Set<String> appliedKeys = Set.of();
+  private boolean polling;
+
+  public ConfigFileLoader(Vertx vertx, String path, LiveConfig live) {
+    this.vertx = vertx;
+    this.path = path;
+    this.live = live;
+  }
+
+  public Future<ServiceConfig> load() {
+    return vertx.fileSystem().props(path)
+        .compose(props -> {
+          lastModified = props.lastModifiedTime();
+          lastSize = props.size();
+          return vertx.fileSystem().readFile(path);
+        })
+        .compose(content -> {
+          Set<String> required = appliedKeys;
+          return vertx.executeBlocking(() -> parseFile(content.toString(), required), false);
+        })
+        .map(parsed -> {
+          appliedKeys = parsed.keys();
+          return parsed.config();
+        })
+        .onSuccess(next -> {
+          ServiceConfig previous = live.current();
+          live.update(next);
+          log.info("Config reloaded from {}: promoTimeout={}ms, pointsCap={}, cbMaxFailures={}, cbTimeout={}ms, "
+                  + "cbResetTimeout={}ms, fxRetryDelay={}ms (was {}ms, {}, {}, {}ms, {}ms, {}ms)",
+              path, next.promoTimeoutMs(), next.pointsCap(), next.cbMaxFailures(), next.cbTimeoutMs(),
+              next.cbResetTimeoutMs(), next.fxRetryDelayMs(), previous.promoTimeoutMs(), previous.pointsCap(),
+              previous.cbMaxFailures(), previous.cbTimeoutMs(), previous.cbResetTimeoutMs(), previous.fxRetryDelayMs());
+        })
+        .onFailure(err -> {
+          live.rejected();
+          log.warn("Config file {} rejected, keeping current config: {}", path, err.toString());
+        });
+  }
+
+  /**
+   * Polls the file every {@code intervalMs} and reloads it once a change has settled, one poll
+   * after it was first seen. Returns the timer id.
+   */
+  public long watch(long intervalMs) {
+    return vertx.setPeriodic(intervalMs, id -> {
+      // An overlapping poll would see the same change before load() records it, and apply it twice.
+      if (polling) return;
+      polling = true;
+      vertx.fileSystem().props(path)
+          .compose(props -> poll(props.lastModifiedTime(), props.size())
+              ? load().<Void>mapEmpty()
+              : Future.<Void>succeededFuture())
+          .onComplete(ar -> polling = false);
+    });
+  }
+
+  // True when the file changed and looked the same on the previous poll.
+  private boolean poll(long modified, long size) {
+    if (modified == lastModified && size == lastSize) return false;
+    boolean settled = modified == pendingModified && size == pendingSize;
+    pendingModified = modified;
+    pendingSize = size;
+    return settled;
+  }
+
+  static ServiceConfig parse(String content) {
+    return parseFile(content, Set.of()).config();
+  }
+
+  private static Parsed parseFile(String content, Set<String> required) {
+    Properties overrides = new Properties();
+    try {
+      overrides.load(new StringReader(content));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    Set<String> keys = overrides.stringPropertyNames();
+    TreeSet<String> unsupported = new TreeSet<>(keys);
+    unsupported.removeAll(ServiceConfig.RELOADABLE_KEYS);
+    if (!unsupported.isEmpty()) {
+      throw new IllegalArgumentException("Not reloadable without a restart: " + unsupported);
+    }
+    TreeSet<String> missing = new TreeSet<>(required);
+    missing.removeAll(keys);
+    if (!missing.isEmpty()) {
+      throw new IllegalArgumentException("Keys set by the applied file are missing (empty or truncated file?): "
+          + missing);
+    }
+    return new Parsed(ServiceConfig.fromSystemProperties(overrides).validate(), keys);
+  }
+
+  private record Parsed(ServiceConfig config, Set<String> keys) {
+  }
+}
@@ -0,0 +1,66 @@
+package com.example.loyalty.config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The {@link ServiceConfig} currently in force. A reload publishes a whole new config with one
+ * volatile write and then notifies subscribers, so nothing ever sees a mix of old and new values.
+ * Subscribers run on the reloading thread and are expected to hop to their own context.
+ */
+public final class LiveConfig {
+
+  /** Receives the config before and after a change; both are the current config on subscribe. */
+  public interface Listener {
+    void changed(ServiceConfig previous, ServiceConfig next);
+  }
+
+  private volatile ServiceConfig current;
+  private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+  private final LongAdder reloads = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  public LiveConfig(ServiceConfig initial) {
+    this.current = initial;
+  }
+
+  public ServiceConfig current() {
+    return current;
+  }
+
+  /**
+   * Adds a listener and immediately calls it with the current config, so a subscriber that read
+   * {@link #current()} just before a concurrent reload still ends up with the latest values.
+   */
+  public void subscribe(Listener listener) {
+    listeners.add(listener);
+    ServiceConfig now = current;
+    listener.changed(now, now);
+  }
+
+  public void unsubscribe(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  public synchronized void update(ServiceConfig next) {
+    ServiceConfig previous = current;
+    current = next;
+    reloads.increment();
+    for (Listener listener : listeners) {
+      listener.changed(previous, next);
+    }
+  }
+
+  void rejected() {
+    rejected.increment();
+  }
+
+  public long reloads() {
+    return reloads.sum();
+  }
+
+  public long rejectedReloads() {
+    return rejected.sum();
+  }
+}
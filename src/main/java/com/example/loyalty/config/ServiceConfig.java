@@ -1,5 +1,9 @@
 package com.example.loyalty.config;
 
+import java.util.Properties;
+import java.util.Set;
+import java.util.function.BinaryOperator;
+
 public record ServiceConfig(
     String fxHost,
     int fxPort,
@@ -11,21 +15,145 @@ public record ServiceConfig(
     int cbMaxFailures,
     long cbTimeoutMs,
     long cbResetTimeoutMs,
-    long fxRetryDelayMs
+    long fxRetryDelayMs,
+    long fxCacheTtlMs,
+    long fxCacheRefreshAheadMs,
+    long fxCacheMaxStaleMs,
+    int promoCacheMaxSize,
+    long promoCacheTtlMs,
+    long promoCacheNegativeTtlMs,
+    int batchMaxSize,
+    int verticleInstances,
+    int accessLogSampleRate,
+    int upstreamPoolSize,
+    boolean upstreamKeepAlive,
+    int upstreamKeepAliveTimeoutSec,
+    boolean upstreamPipelining,
+    int upstreamPipeliningLimit,
+    boolean upstreamHttp2,
+    int upstreamHttp2MultiplexingLimit,
+    int upstreamConnectTimeoutMs,
+    int upstreamIdleTimeoutSec,
+    String snapshotPath,
+    long snapshotIntervalMs,
+    int snapshotPromoEntries,
+    boolean limiterEnabled,
+    int limiterInitialLimit,
+    int limiterMinLimit,
+    int limiterMaxLimit,
+    long limiterLatencyTargetMs,
+    double limiterBackoffRatio,
+    int limiterRetryAfterSec,
+    boolean fxHedgeEnabled,
+    double fxHedgePercentile,
+    long fxHedgeMinDelayMs,
+    long fxHedgeInitialDelayMs,
+    double fxHedgeBudgetPercent,
+    String rulesPath,
+    long rulesReloadIntervalMs,
+    String configPath,
+    long configReloadIntervalMs,
+    long responseCacheTtlMs,
+    long responseCacheMaxBytes,
+    boolean promoCacheOffHeap,
+    int promoBatchMaxCodes,
+    int promoPrefetchTopN,
+    long promoPrefetchIntervalMs,
+    boolean virtualThreads,
+    int fxBulkheadMaxConcurrent,
+    boolean httpCompressionEnabled,
+    int httpCompressionLevel,
+    int httpCompressionMinBytes
 ) {
+  /** Settings that {@link ConfigFileLoader} may change while the service runs. */
+  public static final Set<String> RELOADABLE_KEYS = Set.of(
+      "promo.timeoutMs", "points.cap", "cb.maxFailures", "cb.timeoutMs", "cb.resetTimeoutMs", "fx.retryDelayMs",
+      "fx.bulkhead.maxConcurrent");
+
   public static ServiceConfig fromSystemProperties() {
+    return fromSystemProperties(new Properties());
+  }
+
+  /** System properties, with {@code overrides} taking precedence. */
+  public static ServiceConfig fromSystemProperties(Properties overrides) {
+    BinaryOperator<String> prop = (key, defaultValue) -> overrides.getProperty(key, System.getProperty(key, defaultValue));
     return new ServiceConfig(
-        System.getProperty("fx.host", "localhost"),
-        Integer.parseInt(System.getProperty("fx.port", "8081")),
-        System.getProperty("promo.host", "localhost"),
-        Integer.parseInt(System.getProperty("promo.port", "8082")),
-        Long.parseLong(System.getProperty("promo.timeoutMs", "300")),
-        Integer.parseInt(System.getProperty("http.port", "8080")),
-        Integer.parseInt(System.getProperty("points.cap", "50000")),
-        Integer.parseInt(System.getProperty("cb.maxFailures", "2")),
-        Long.parseLong(System.getProperty("cb.timeoutMs", "800")),
-        Long.parseLong(System.getProperty("cb.resetTimeoutMs", "3000")),
-        Long.parseLong(System.getProperty("fx.retryDelayMs", "100"))
+        prop.apply("fx.host", "localhost"),
+        Integer.parseInt(prop.apply("fx.port", "8081")),
+        prop.apply("promo.host", "localhost"),
+        Integer.parseInt(prop.apply("promo.port", "8082")),
+        Long.parseLong(prop.apply("promo.timeoutMs", "300")),
+        Integer.parseInt(prop.apply("http.port", "8080")),
+        Integer.parseInt(prop.apply("points.cap", "50000")),
+        Integer.parseInt(prop.apply("cb.maxFailures", "2")),
+        Long.parseLong(prop.apply("cb.timeoutMs", "800")),
+        Long.parseLong(prop.apply("cb.resetTimeoutMs", "3000")),
+        Long.parseLong(prop.apply("fx.retryDelayMs", "100")),
+        Long.parseLong(prop.apply("fx.cache.ttlMs", "5000")),
+        Long.parseLong(prop.apply("fx.cache.refreshAheadMs", "1000")),
+        Long.parseLong(prop.apply("fx.cache.maxStaleMs", "60000")),
+        Integer.parseInt(prop.apply("promo.cache.maxSize", "10000")),
+        Long.parseLong(prop.apply("promo.cache.ttlMs", "60000")),
+        Long.parseLong(prop.apply("promo.cache.negativeTtlMs", "10000")),
+        Integer.parseInt(prop.apply("batch.maxSize", "100")),
+        Integer.parseInt(prop.apply("verticle.instances",
+            String.valueOf(Runtime.getRuntime().availableProcessors()))),
+        Integer.parseInt(prop.apply("accesslog.sampleRate", "1")),
+        Integer.parseInt(prop.apply("upstream.http.poolSize", "32")),
+        Boolean.parseBoolean(prop.apply("upstream.http.keepAlive", "true")),
+        Integer.parseInt(prop.apply("upstream.http.keepAliveTimeoutSec", "60")),
+        Boolean.parseBoolean(prop.apply("upstream.http.pipelining", "false")),
+        Integer.parseInt(prop.apply("upstream.http.pipeliningLimit", "10")),
+        Boolean.parseBoolean(prop.apply("upstream.http.http2", "false")),
+        Integer.parseInt(prop.apply("upstream.http.http2MultiplexingLimit", "100")),
+        Integer.parseInt(prop.apply("upstream.http.connectTimeoutMs", "1000")),
+        Integer.parseInt(prop.apply("upstream.http.idleTimeoutSec", "120")),
+        prop.apply("snapshot.path", ""),
+        Long.parseLong(prop.apply("snapshot.intervalMs", "30000")),
+        Integer.parseInt(prop.apply("snapshot.promoEntries", "1000")),
+        Boolean.parseBoolean(prop.apply("limiter.enabled", "true")),
+        Integer.parseInt(prop.apply("limiter.initialLimit", "100")),
+        Integer.parseInt(prop.apply("limiter.minLimit", "10")),
+        Integer.parseInt(prop.apply("limiter.maxLimit", "1000")),
+        Long.parseLong(prop.apply("limiter.latencyTargetMs", "400")),
+        Double.parseDouble(prop.apply("limiter.backoffRatio", "0.9")),
+        Integer.parseInt(prop.apply("limiter.retryAfterSec", "1")),
+        Boolean.parseBoolean(prop.apply("fx.hedge.enabled", "false")),
+        Double.parseDouble(prop.apply("fx.hedge.percentile", "0.95")),
+        Long.parseLong(prop.apply("fx.hedge.minDelayMs", "10")),
+        Long.parseLong(prop.apply("fx.hedge.initialDelayMs", "100")),
+        Double.parseDouble(prop.apply("fx.hedge.budgetPercent", "5")),
+        prop.apply("rules.path", ""),
+        Long.parseLong(prop.apply("rules.reloadIntervalMs", "5000")),
+        prop.apply("config.path", ""),
+        Long.parseLong(prop.apply("config.reloadIntervalMs", "5000")),
+        Long.parseLong(prop.apply("responseCache.ttlMs", "0")),
+        Long.parseLong(prop.apply("responseCache.maxBytes", "16777216")),
+        Boolean.parseBoolean(prop.apply("promo.cache.offHeap", "false")),
+        Integer.parseInt(prop.apply("promo.batch.maxCodes", "0")),
+        Integer.parseInt(prop.apply("promo.prefetch.topN", "0")),
+        Long.parseLong(prop.apply("promo.prefetch.intervalMs", "10000")),
+        Boolean.parseBoolean(prop.apply("quote.virtualThreads", "false")),
+        Integer.parseInt(prop.apply("fx.bulkhead.maxConcurrent", "16")),
+        Boolean.parseBoolean(prop.apply("http.compression.enabled", "false")),
+        Integer.parseInt(prop.apply("http.compression.level", "6")),
+        Integer.parseInt(prop.apply("http.compression.minBytes", "1024"))
     );
   }
+
+  /** Rejects values that would break a running service; used before a reload is applied. */
+  public ServiceConfig validate() {
+    require(promoTimeoutMs > 0, "promo.timeoutMs must be > 0");
+    require(pointsCap > 0, "points.cap must be > 0");
+    require(cbMaxFailures > 0, "cb.maxFailures must be > 0");
+    require(cbTimeoutMs > 0, "cb.timeoutMs must be > 0");
+    require(cbResetTimeoutMs > 0, "cb.resetTimeoutMs must be > 0");
+    require(fxRetryDelayMs >= 0, "fx.retryDelayMs must be >= 0");
+    require(fxBulkheadMaxConcurrent > 0, "fx.bulkhead.maxConcurrent must be > 0");
+    return this;
+  }
+
+  private static void require(boolean valid, String message) {
+    if (!valid) throw new IllegalArgumentException(message);
+  }
 }
@@ -8,6 +8,12 @@ public abstract class LoyaltyException extends RuntimeException {
     this.httpStatus = httpStatus;
   }
 
+  /** For client errors raised at request rate, where a stack trace would cost more than it tells. */
+  protected LoyaltyException(String message, int httpStatus, boolean writableStackTrace) {
+    super(message, null, false, writableStackTrace);
+    this.httpStatus = httpStatus;
+  }
+
   protected LoyaltyException(String message, int httpStatus, Throwable cause) {
     super(message, cause);
     this.httpStatus = httpStatus;
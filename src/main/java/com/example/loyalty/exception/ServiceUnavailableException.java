@@ -3,6 +3,6 @@ package com.example.loyalty.exception;
 public class ServiceUnavailableException extends LoyaltyException {
 
   public ServiceUnavailableException(String message) {
-    super(message, 503);
+    super(message, 503, false);
   }
 }
@@ -0,0 +1,9 @@
+package com.example.loyalty.exception;
+
+/** An upstream call that gave no answer within its timeout. */
+public class UpstreamTimeoutException extends UpstreamServiceException {
+
+  public UpstreamTimeoutException(String serviceName, String message) {
+    super(serviceName, message, null);
+  }
+}
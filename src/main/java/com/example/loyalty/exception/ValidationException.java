@@ -3,6 +3,6 @@ package com.example.loyalty.exception;
 public class ValidationException extends LoyaltyException {
 
   public ValidationException(String message) {
-    super(message, 400);
+    super(message, 400, false);
   }
 }
@@ -0,0 +1,31 @@
+package com.example.loyalty.handler;
+
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Keeps small responses out of the server's gzip/deflate encoder. A body shorter than
+ * {@code minBytes} is marked {@code Content-Encoding: identity}, which the encoder passes through
+ * untouched (and strips before the response is written): below about a kilobyte the compressed
+ * form saves a few dozen bytes at most, for a fresh deflater per response.
+ */
+public class CompressionThresholdHandler {
+  private final int minBytes;
+
+  public CompressionThresholdHandler(int minBytes) {
+    this.minBytes = minBytes;
+  }
+
+  public void handle(RoutingContext ctx) {
+    ctx.addHeadersEndHandler(v -> {
+      HttpServerResponse response = ctx.response();
+      // set by end(Buffer) before the headers are written; chunked responses have none and stay compressible
+      String length = response.headers().get(HttpHeaders.CONTENT_LENGTH);
+      if (length != null && Long.parseLong(length) < minBytes) {
+        response.putHeader(HttpHeaders.CONTENT_ENCODING, HttpHeaders.IDENTITY);
+      }
+    });
+    ctx.next();
+  }
+}
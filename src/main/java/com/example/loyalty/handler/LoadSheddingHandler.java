@@ -0,0 +1,34 @@
+package com.example.loyalty.handler;
+
+import com.example.loyalty.exception.ServiceUnavailableException;
+import com.example.loyalty.limit.AdaptiveLimiter;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * Admits quotes up to the adaptive concurrency limit and sheds the rest with 503 and
+ * {@code Retry-After}. Shedding is cheap on purpose: no upstream call, no timer, and a shared
+ * exception without a stack trace.
+ */
+public class LoadSheddingHandler {
+  private static final ServiceUnavailableException OVERLOADED =
+      new ServiceUnavailableException("Too many concurrent quotes, retry later");
+
+  private final AdaptiveLimiter limiter;
+  private final String retryAfterSec;
+
+  public LoadSheddingHandler(AdaptiveLimiter limiter, int retryAfterSec) {
+    this.limiter = limiter;
+    this.retryAfterSec = String.valueOf(retryAfterSec);
+  }
+
+  public void handle(RoutingContext ctx) {
+    if (!limiter.tryAcquire()) {
+      ctx.response().putHeader("Retry-After", retryAfterSec);
+      PointsHandler.handleError(ctx, OVERLOADED);
+      return;
+    }
+    long start = System.nanoTime();
+    ctx.addEndHandler(v -> limiter.release(System.nanoTime() - start));
+    ctx.next();
+  }
+}
@@ -7,10 +7,26 @@ import org.slf4j.MDC;
 
 import java.util.UUID;
 
+/**
+ * Correlation ID plus one access-log record per request, written when the response ends. With a
+ * sample rate of N only every Nth successful request is logged; responses of 400 and above are
+ * always logged. One instance per verticle, so the sampling counter is confined to its event loop.
+ */
 public class LoggingHandler {
   private static final Logger log = LoggerFactory.getLogger(LoggingHandler.class);
   private static final String CORRELATION_HEADER = "X-Correlation-ID";
 
+  private final int sampleRate;
+  private long successes;
+
+  public LoggingHandler() {
+    this(1);
+  }
+
+  public LoggingHandler(int sampleRate) {
+    this.sampleRate = Math.max(1, sampleRate);
+  }
+
   public void handle(RoutingContext ctx) {
     String correlationId = ctx.request().getHeader(CORRELATION_HEADER);
     if (correlationId == null || correlationId.isBlank()) {
@@ -21,19 +37,20 @@ public class LoggingHandler {
     ctx.put("correlationId", correlationId);
     ctx.response().putHeader(CORRELATION_HEADER, correlationId);
 
-    long start = System.currentTimeMillis();
-    String method = ctx.request().method().name();
-    String path = ctx.request().path();
-
-    log.info("Request started: {} {}", method, path);
-
+    long start = System.nanoTime();
     ctx.addEndHandler(v -> {
-      long duration = System.currentTimeMillis() - start;
       int status = ctx.response().getStatusCode();
-      log.info("Request completed: {} {} status={} duration={}ms", method, path, status, duration);
+      if (log.isInfoEnabled() && shouldLog(status)) {
+        log.info("Request completed: {} {} status={} durationUs={}", ctx.request().method().name(),
+            ctx.request().path(), status, (System.nanoTime() - start) / 1_000);
+      }
       MDC.remove("correlationId");
     });
 
     ctx.next();
   }
+
+  boolean shouldLog(int status) {
+    return status >= 400 || ++successes % sampleRate == 0;
+  }
 }
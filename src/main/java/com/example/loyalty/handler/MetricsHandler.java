@@ -0,0 +1,32 @@
+package com.example.loyalty.handler;
+
+import com.example.loyalty.metrics.Metrics;
+import io.vertx.ext.web.RoutingContext;
+
+public class MetricsHandler {
+  private final Metrics metrics;
+
+  public MetricsHandler(Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /** Counts every response by status code. */
+  public void countResponses(RoutingContext ctx) {
+    ctx.addEndHandler(v -> metrics.recordResponse(ctx.response().getStatusCode()));
+    ctx.next();
+  }
+
+  /** Records the quote latency histogram; runs on the quote route ahead of the quote handler. */
+  public void timeQuote(RoutingContext ctx) {
+    long start = System.nanoTime();
+    ctx.addEndHandler(v -> metrics.quoteLatency().recordSince(start));
+    ctx.next();
+  }
+
+  public void scrape(RoutingContext ctx) {
+    ctx.response()
+      .putHeader("Content-Type", "text/plain; version=0.0.4; charset=utf-8")
+      .putHeader("Cache-Control", "no-store")
+      .end(metrics.scrape());
+  }
+}
@@ -2,38 +2,140 @@ package com.example.loyalty.handler;
 
 import com.example.loyalty.exception.LoyaltyException;
 import com.example.loyalty.exception.ValidationException;
+import com.example.loyalty.model.BatchQuoteItem;
 import com.example.loyalty.model.ErrorResponse;
 import com.example.loyalty.model.QuoteRequest;
+import com.example.loyalty.model.QuoteResponse;
 import com.example.loyalty.service.PointsService;
-import io.vertx.core.json.Json;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.RoutingContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class PointsHandler {
   private static final Logger log = LoggerFactory.getLogger(PointsHandler.class);
   private final PointsService service;
+  private final int batchMaxSize;
+  private final QuoteResponseCache responseCache;
 
   public PointsHandler(PointsService service) {
+    this(service, 100);
+  }
+
+  public PointsHandler(PointsService service, int batchMaxSize) {
+    this(service, batchMaxSize, null);
+  }
+
+  /** With a non-null {@code responseCache}, repeated single quotes are answered from it. */
+  public PointsHandler(PointsService service, int batchMaxSize, QuoteResponseCache responseCache) {
     this.service = service;
+    this.batchMaxSize = batchMaxSize;
+    this.responseCache = responseCache;
   }
 
   public void handle(RoutingContext ctx) {
     try {
-      QuoteRequest req = ctx.body().asPojo(QuoteRequest.class);
+      QuoteRequest req = readRequest(ctx);
+      QuoteResponseCache.Key key = responseCache != null ? responseCache.keyFor(req) : null;
+      Buffer cached = key != null ? responseCache.get(key) : null;
+      if (cached != null) {
+        sendQuote(ctx, cached);
+        return;
+      }
       service.quote(req)
-        .onSuccess(res -> ctx.response()
+        .onSuccess(res -> {
+          Buffer body = QuoteJsonCodec.encode(res);
+          if (key != null) responseCache.put(key, req, body);
+          sendQuote(ctx, body);
+        })
+        .onFailure(err -> handleError(ctx, err));
+    } catch (Exception e) {
+      handleError(ctx, e);
+    }
+  }
+
+  private static void sendQuote(RoutingContext ctx, Buffer body) {
+    ctx.response()
+      .putHeader("Content-Type", "application/json")
+      .putHeader("Cache-Control", "no-store")
+      .setStatusCode(200)
+      .end(body);
+  }
+
+  public void handleBatch(RoutingContext ctx) {
+    try {
+      JsonArray body = parseBatch(ctx);
+      if (body == null || body.isEmpty()) throw new ValidationException("Empty batch");
+      if (body.size() > batchMaxSize) throw new ValidationException("Batch too large, max " + batchMaxSize);
+
+      List<QuoteRequest> reqs = new ArrayList<>(body.size());
+      Throwable[] itemErrors = new Throwable[body.size()];
+      for (int i = 0; i < body.size(); i++) {
+        QuoteRequest req = null;
+        try {
+          if (body.getValue(i) instanceof JsonObject json) req = json.mapTo(QuoteRequest.class);
+        } catch (IllegalArgumentException e) {
+          log.debug("Unreadable batch item at index={}: {}", i, e.getMessage());
+        }
+        if (req == null) itemErrors[i] = new ValidationException("Invalid batch item");
+        reqs.add(req);
+      }
+
+      List<Future<QuoteResponse>> quotes = service.quoteBatch(reqs);
+      Future.join(quotes).onComplete(done -> {
+        List<BatchQuoteItem> items = new ArrayList<>(quotes.size());
+        for (int i = 0; i < quotes.size(); i++) {
+          Future<QuoteResponse> quote = quotes.get(i);
+          if (itemErrors[i] != null) {
+            items.add(BatchQuoteItem.failed(toErrorResponse(ctx, itemErrors[i])));
+          } else if (quote.succeeded()) {
+            items.add(BatchQuoteItem.ok(quote.result()));
+          } else {
+            items.add(BatchQuoteItem.failed(toErrorResponse(ctx, quote.cause())));
+          }
+        }
+        ctx.response()
           .putHeader("Content-Type", "application/json")
           .putHeader("Cache-Control", "no-store")
           .setStatusCode(200)
-          .end(Json.encode(res)))
-        .onFailure(err -> handleError(ctx, err));
+          .end(QuoteJsonCodec.encode(items));
+      });
     } catch (Exception e) {
       handleError(ctx, e);
     }
   }
 
-  private void handleError(RoutingContext ctx, Throwable err) {
+  private QuoteRequest readRequest(RoutingContext ctx) {
+    Buffer body = ctx.body().buffer();
+    QuoteRequest req = body == null ? null : QuoteJsonCodec.tryDecodeRequest(body);
+    return req != null ? req : ctx.body().asPojo(QuoteRequest.class);
+  }
+
+  private JsonArray parseBatch(RoutingContext ctx) {
+    try {
+      return ctx.body().asJsonArray();
+    } catch (DecodeException | ClassCastException e) {
+      throw new ValidationException("Batch body must be a JSON array");
+    }
+  }
+
+  static void handleError(RoutingContext ctx, Throwable err) {
+    ErrorResponse errorResponse = toErrorResponse(ctx, err);
+
+    ctx.response()
+      .setStatusCode(errorResponse.status())
+      .putHeader("Content-Type", "application/json")
+      .end(QuoteJsonCodec.encode(errorResponse));
+  }
+
+  private static ErrorResponse toErrorResponse(RoutingContext ctx, Throwable err) {
     int status;
     String error;
 
@@ -55,11 +157,6 @@ public class PointsHandler {
 
     String correlationId = ctx.get("correlationId");
     String path = ctx.request().path();
-    ErrorResponse errorResponse = ErrorResponse.of(error, err.getMessage(), status, path, correlationId);
-
-    ctx.response()
-      .setStatusCode(status)
-      .putHeader("Content-Type", "application/json")
-      .end(Json.encode(errorResponse));
+    return ErrorResponse.of(error, err.getMessage(), status, path, correlationId);
   }
 }
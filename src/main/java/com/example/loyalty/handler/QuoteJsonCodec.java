@@ -0,0 +1,407 @@
+package com.example.loyalty.handler;
+
+import com.example.loyalty.model.BatchQuoteItem;
+import com.example.loyalty.model.ErrorResponse;
+import com.example.loyalty.model.QuoteRequest;
+import com.example.loyalty.model.QuoteResponse;
+import io.vertx.core.buffer.Buffer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Reflection-free JSON for the quote endpoints. Responses are written straight into a pre-sized
+ * {@link Buffer} and are byte-identical to {@code Json.encode}. Requests are parsed straight from the
+ * body buffer when they have the plain shape clients send; for anything else (escapes, unknown fields,
+ * non-ASCII, malformed input) {@link #tryDecodeRequest} returns null and the caller falls back to
+ * databind, so error behaviour is unchanged.
+ */
+public final class QuoteJsonCodec {
+
+  static final int RESPONSE_SIZE_HINT = 160;
+  static final int ERROR_SIZE_HINT = 256;
+
+  private static final byte[] NULL = ascii("null");
+  private static final byte[] BASE_POINTS = ascii("{\"basePoints\":");
+  private static final byte[] TIER_BONUS = ascii(",\"tierBonus\":");
+  private static final byte[] PROMO_BONUS = ascii(",\"promoBonus\":");
+  private static final byte[] TOTAL_POINTS = ascii(",\"totalPoints\":");
+  private static final byte[] EFFECTIVE_FX_RATE = ascii(",\"effectiveFxRate\":");
+  private static final byte[] WARNINGS = ascii(",\"warnings\":");
+  private static final byte[] ERROR = ascii("{\"error\":");
+  private static final byte[] MESSAGE = ascii(",\"message\":");
+  private static final byte[] STATUS = ascii(",\"status\":");
+  private static final byte[] PATH = ascii(",\"path\":");
+  private static final byte[] TIMESTAMP = ascii(",\"timestamp\":");
+  private static final byte[] CORRELATION_ID = ascii(",\"correlationId\":");
+  private static final byte[] ITEM_STATUS = ascii("{\"status\":");
+  private static final byte[] ITEM_QUOTE = ascii(",\"quote\":");
+  private static final byte[] ITEM_ERROR = ascii(",\"error\":");
+
+  private static final byte[] HEX = ascii("0123456789ABCDEF");
+  private static final int[] INT_POW10 = {
+      1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000};
+  private static final double[] DOUBLE_POW10 = {
+      1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+      1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+  private static final byte[][] FIELD_NAMES = {
+      ascii("fareAmount"), ascii("currency"), ascii("cabinClass"), ascii("customerTier"), ascii("promoCode"),
+      ascii("route")};
+  private static final int FARE_AMOUNT = 0;
+  private static final int CURRENCY = 1;
+  private static final int CABIN_CLASS = 2;
+  private static final int CUSTOMER_TIER = 3;
+  private static final int PROMO_CODE = 4;
+  private static final int ROUTE = 5;
+
+  private QuoteJsonCodec() {
+  }
+
+  // ---------------------------------------------------------------- encoding
+
+  public static Buffer encode(QuoteResponse res) {
+    Buffer buf = Buffer.buffer(RESPONSE_SIZE_HINT);
+    writeResponse(buf, res);
+    return buf;
+  }
+
+  public static Buffer encode(ErrorResponse err) {
+    Buffer buf = Buffer.buffer(ERROR_SIZE_HINT);
+    writeError(buf, err);
+    return buf;
+  }
+
+  public static Buffer encode(List<BatchQuoteItem> items) {
+    Buffer buf = Buffer.buffer(2 + items.size() * (RESPONSE_SIZE_HINT + 40));
+    buf.appendByte((byte) '[');
+    for (int i = 0; i < items.size(); i++) {
+      if (i > 0) buf.appendByte((byte) ',');
+      BatchQuoteItem item = items.get(i);
+      buf.appendBytes(ITEM_STATUS);
+      writeInt(buf, item.status());
+      buf.appendBytes(ITEM_QUOTE);
+      if (item.quote() == null) buf.appendBytes(NULL); else writeResponse(buf, item.quote());
+      buf.appendBytes(ITEM_ERROR);
+      if (item.error() == null) buf.appendBytes(NULL); else writeError(buf, item.error());
+      buf.appendByte((byte) '}');
+    }
+    buf.appendByte((byte) ']');
+    return buf;
+  }
+
+  private static void writeResponse(Buffer buf, QuoteResponse res) {
+    buf.appendBytes(BASE_POINTS);
+    writeInt(buf, res.basePoints);
+    buf.appendBytes(TIER_BONUS);
+    writeInt(buf, res.tierBonus);
+    buf.appendBytes(PROMO_BONUS);
+    writeInt(buf, res.promoBonus);
+    buf.appendBytes(TOTAL_POINTS);
+    writeInt(buf, res.totalPoints);
+    buf.appendBytes(EFFECTIVE_FX_RATE);
+    writeDouble(buf, res.effectiveFxRate);
+    buf.appendBytes(WARNINGS);
+    writeStrings(buf, res.warnings);
+    buf.appendByte((byte) '}');
+  }
+
+  private static void writeError(Buffer buf, ErrorResponse err) {
+    buf.appendBytes(ERROR);
+    writeString(buf, err.error());
+    buf.appendBytes(MESSAGE);
+    writeString(buf, err.message());
+    buf.appendBytes(STATUS);
+    writeInt(buf, err.status());
+    buf.appendBytes(PATH);
+    writeString(buf, err.path());
+    buf.appendBytes(TIMESTAMP);
+    writeString(buf, err.timestamp());
+    buf.appendBytes(CORRELATION_ID);
+    writeString(buf, err.correlationId());
+    buf.appendByte((byte) '}');
+  }
+
+  private static void writeInt(Buffer buf, int value) {
+    if (value == Integer.MIN_VALUE) {
+      writeAscii(buf, "-2147483648");
+      return;
+    }
+    if (value < 0) {
+      buf.appendByte((byte) '-');
+      value = -value;
+    }
+    int digits = 1;
+    while (digits < INT_POW10.length && value >= INT_POW10[digits]) digits++;
+    for (int d = digits - 1; d >= 0; d--) {
+      buf.appendByte((byte) ('0' + (value / INT_POW10[d]) % 10));
+    }
+  }
+
+  private static void writeDouble(Buffer buf, double value) {
+    // Jackson's defaults: Double.toString formatting, non-finite values written as strings
+    if (Double.isFinite(value)) {
+      writeAscii(buf, Double.toString(value));
+    } else {
+      buf.appendByte((byte) '"');
+      writeAscii(buf, Double.toString(value));
+      buf.appendByte((byte) '"');
+    }
+  }
+
+  private static void writeStrings(Buffer buf, List<String> values) {
+    if (values == null) {
+      buf.appendBytes(NULL);
+      return;
+    }
+    buf.appendByte((byte) '[');
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) buf.appendByte((byte) ',');
+      writeString(buf, values.get(i));
+    }
+    buf.appendByte((byte) ']');
+  }
+
+  private static void writeString(Buffer buf, String s) {
+    if (s == null) {
+      buf.appendBytes(NULL);
+      return;
+    }
+    buf.appendByte((byte) '"');
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        writeAsciiChar(buf, c);
+      } else if (c < 0x800) {
+        buf.appendByte((byte) (0xC0 | (c >> 6)));
+        buf.appendByte((byte) (0x80 | (c & 0x3F)));
+      } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, s.charAt(++i));
+        buf.appendByte((byte) (0xF0 | (cp >> 18)));
+        buf.appendByte((byte) (0x80 | ((cp >> 12) & 0x3F)));
+        buf.appendByte((byte) (0x80 | ((cp >> 6) & 0x3F)));
+        buf.appendByte((byte) (0x80 | (cp & 0x3F)));
+      } else {
+        buf.appendByte((byte) (0xE0 | (c >> 12)));
+        buf.appendByte((byte) (0x80 | ((c >> 6) & 0x3F)));
+        buf.appendByte((byte) (0x80 | (c & 0x3F)));
+      }
+    }
+    buf.appendByte((byte) '"');
+  }
+
+  private static void writeAsciiChar(Buffer buf, char c) {
+    switch (c) {
+      case '"' -> buf.appendByte((byte) '\\').appendByte((byte) '"');
+      case '\\' -> buf.appendByte((byte) '\\').appendByte((byte) '\\');
+      case '\b' -> buf.appendByte((byte) '\\').appendByte((byte) 'b');
+      case '\f' -> buf.appendByte((byte) '\\').appendByte((byte) 'f');
+      case '\n' -> buf.appendByte((byte) '\\').appendByte((byte) 'n');
+      case '\r' -> buf.appendByte((byte) '\\').appendByte((byte) 'r');
+      case '\t' -> buf.appendByte((byte) '\\').appendByte((byte) 't');
+      default -> {
+        if (c < 0x20) {
+          buf.appendByte((byte) '\\').appendByte((byte) 'u').appendByte((byte) '0').appendByte((byte) '0')
+              .appendByte(HEX[c >> 4]).appendByte(HEX[c & 0xF]);
+        } else {
+          buf.appendByte((byte) c);
+        }
+      }
+    }
+  }
+
+  private static void writeAscii(Buffer buf, String s) {
+    for (int i = 0; i < s.length(); i++) {
+      buf.appendByte((byte) s.charAt(i));
+    }
+  }
+
+  private static byte[] ascii(String s) {
+    return s.getBytes(StandardCharsets.US_ASCII);
+  }
+
+  // ---------------------------------------------------------------- decoding
+
+  /** Parses a plain quote request body, or returns null if the body needs the full JSON parser. */
+  public static QuoteRequest tryDecodeRequest(Buffer body) {
+    return new RequestReader(body).read();
+  }
+
+  private static final class RequestReader {
+    private final Buffer buf;
+    private final int len;
+    private int pos;
+
+    RequestReader(Buffer buf) {
+      this.buf = buf;
+      this.len = buf.length();
+    }
+
+    QuoteRequest read() {
+      QuoteRequest req = new QuoteRequest();
+      skipWhitespace();
+      if (!consume('{')) return null;
+      skipWhitespace();
+      if (!consume('}')) {
+        while (true) {
+          int field = readFieldName();
+          if (field < 0) return null;
+          skipWhitespace();
+          if (!consume(':')) return null;
+          skipWhitespace();
+          if (!readValue(req, field)) return null;
+          skipWhitespace();
+          if (consume(',')) {
+            skipWhitespace();
+          } else if (consume('}')) {
+            break;
+          } else {
+            return null;
+          }
+        }
+      }
+      skipWhitespace();
+      return pos == len ? req : null;
+    }
+
+    private boolean readValue(QuoteRequest req, int field) {
+      if (field == FARE_AMOUNT) {
+        if (consumeNull()) {
+          req.fareAmount = 0; // databind maps null to the primitive default
+          return true;
+        }
+        double fare = readNumber();
+        if (Double.isNaN(fare)) return false;
+        req.fareAmount = fare;
+        return true;
+      }
+
+      String value;
+      if (consumeNull()) {
+        value = null;
+      } else {
+        value = readString();
+        if (value == null) return false;
+      }
+      switch (field) {
+        case CURRENCY -> req.currency = value;
+        case CABIN_CLASS -> req.cabinClass = value;
+        case CUSTOMER_TIER -> req.customerTier = value;
+        case PROMO_CODE -> req.promoCode = value;
+        default -> req.route = value;
+      }
+      return true;
+    }
+
+    private int readFieldName() {
+      if (!consume('"')) return -1;
+      int start = pos;
+      while (pos < len && buf.getByte(pos) != '"') pos++;
+      if (pos == len) return -1;
+      int end = pos++;
+
+      for (int f = 0; f < FIELD_NAMES.length; f++) {
+        byte[] name = FIELD_NAMES[f];
+        if (name.length == end - start && matches(start, name)) return f;
+      }
+      return -1;
+    }
+
+    private boolean matches(int start, byte[] name) {
+      for (int i = 0; i < name.length; i++) {
+        if (buf.getByte(start + i) != name[i]) return false;
+      }
+      return true;
+    }
+
+    /** Plain printable-ASCII strings only; anything with escapes or multi-byte characters is left to databind. */
+    private String readString() {
+      if (!consume('"')) return null;
+      int start = pos;
+      while (pos < len) {
+        byte b = buf.getByte(pos);
+        if (b == '"') {
+          String value = buf.getString(start, pos, "US-ASCII");
+          pos++;
+          return value;
+        }
+        if (b == '\\' || b < 0x20) return null;
+        pos++;
+      }
+      return null;
+    }
+
+    /** Returns NaN if the input is not a JSON number. */
+    private double readNumber() {
+      int start = pos;
+      boolean negative = consume('-');
+      int intStart = pos;
+      long mantissa = 0;
+      int digits = 0;
+      while (pos < len && isDigit(buf.getByte(pos))) {
+        mantissa = mantissa * 10 + (buf.getByte(pos++) - '0');
+        digits++;
+      }
+      int intDigits = pos - intStart;
+      if (intDigits == 0 || (intDigits > 1 && buf.getByte(intStart) == '0')) return Double.NaN;
+
+      int scale = 0;
+      if (consume('.')) {
+        int fracStart = pos;
+        while (pos < len && isDigit(buf.getByte(pos))) {
+          mantissa = mantissa * 10 + (buf.getByte(pos++) - '0');
+          digits++;
+        }
+        scale = pos - fracStart;
+        if (scale == 0) return Double.NaN;
+      }
+
+      boolean exponent = false;
+      if (pos < len && (buf.getByte(pos) == 'e' || buf.getByte(pos) == 'E')) {
+        exponent = true;
+        pos++;
+        if (!consume('+')) consume('-');
+        int expStart = pos;
+        while (pos < len && isDigit(buf.getByte(pos))) pos++;
+        if (pos == expStart) return Double.NaN;
+      }
+
+      // Exact fast path: mantissa and power of ten are both exactly representable, so the division
+      // is correctly rounded. Everything else goes through the JDK parser.
+      if (!exponent && digits <= 15 && scale < DOUBLE_POW10.length) {
+        double value = mantissa / DOUBLE_POW10[scale];
+        return negative ? -value : value;
+      }
+      return Double.parseDouble(buf.getString(start, pos, "US-ASCII"));
+    }
+
+    private boolean consumeNull() {
+      if (pos + 4 <= len && buf.getByte(pos) == 'n' && buf.getByte(pos + 1) == 'u'
+          && buf.getByte(pos + 2) == 'l' && buf.getByte(pos + 3) == 'l') {
+        pos += 4;
+        return true;
+      }
+      return false;
+    }
+
+    private boolean consume(char c) {
+      if (pos < len && buf.getByte(pos) == c) {
+        pos++;
+        return true;
+      }
+      return false;
+    }
+
+    private void skipWhitespace() {
+      while (pos < len) {
+        byte b = buf.getByte(pos);
+        if (b != ' ' && b != '\n' && b != '\r' && b != '\t') return;
+        pos++;
+      }
+    }
+
+    private static boolean isDigit(byte b) {
+      return b >= '0' && b <= '9';
+    }
+  }
+}
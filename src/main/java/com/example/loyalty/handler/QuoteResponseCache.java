@@ -0,0 +1,118 @@
+package com.example.loyalty.handler;
+
+import com.example.loyalty.model.QuoteRequest;
+import com.example.loyalty.rules.RuleTable;
+import com.example.loyalty.rules.RulesEngine;
+import com.example.loyalty.service.PromoResult;
+import com.example.loyalty.service.impl.CachingFxClient;
+import com.example.loyalty.service.impl.PromoCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.vertx.core.buffer.Buffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-TTL cache of encoded single-quote responses, so a repeated request is answered without
+ * validation, upstream lookups, computation or encoding. The key is the request's fields plus every
+ * input the answer depends on, read from the FX and promo caches without fetching: the FX rate, the
+ * promo's values and the live {@link RuleTable}. A new rate, promo value or rule set therefore makes
+ * old entries unreachable at once; they then age out. Requests whose inputs are not cached, or whose
+ * FX rate is old enough that the FX cache would refresh it, are not cacheable (hits skip the FX
+ * lookup, so they must not outlive a rate); a response is stored only if its inputs did not change
+ * while it was computed. Promos are read with {@link PromoCache#peek}, so building keys does not
+ * count as promo lookups or keep codes hot.
+ * Bounded by total bytes; thread-safe, shared by all verticle instances.
+ */
+public final class QuoteResponseCache {
+  private static final Logger log = LoggerFactory.getLogger(QuoteResponseCache.class);
+
+  // Rough per-entry cost beyond the body: key record, strings and cache node.
+  static final int ENTRY_OVERHEAD_BYTES = 200;
+  static final int MAX_KEY_STRING_LENGTH = 64;
+
+  private final Cache<Key, Buffer> cache;
+  private final CachingFxClient.RateStore rates;
+  private final long fxFreshMs;
+  private final LongSupplier clock;
+  private final PromoCache promos;
+  private final RulesEngine rules;
+
+  /** {@code fxFreshMs}: how long after a fetch the FX cache serves a rate without refreshing it. */
+  public QuoteResponseCache(long ttlMs, long maxBytes, long fxFreshMs, CachingFxClient.RateStore rates,
+                            PromoCache promos, RulesEngine rules) {
+    this(ttlMs, maxBytes, fxFreshMs, rates, promos, rules, Ticker.systemTicker(), System::currentTimeMillis);
+  }
+
+  QuoteResponseCache(long ttlMs, long maxBytes, long fxFreshMs, CachingFxClient.RateStore rates,
+                     PromoCache promos, RulesEngine rules, Ticker ticker, LongSupplier clock) {
+    this.rates = rates;
+    this.fxFreshMs = fxFreshMs;
+    this.clock = clock;
+    this.promos = promos;
+    this.rules = rules;
+    this.cache = Caffeine.newBuilder()
+        .maximumWeight(maxBytes)
+        .<Key, Buffer>weigher((key, body) -> body.length() + ENTRY_OVERHEAD_BYTES)
+        .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+        .ticker(ticker)
+        .recordStats()
+        .build();
+    log.info("Quote response cache initialized: ttl={}ms, maxBytes={}", ttlMs, maxBytes);
+  }
+
+  /** The cache key for {@code req} as of now, or null if the request cannot be cached right now. */
+  public Key keyFor(QuoteRequest req) {
+    if (req == null || req.currency == null || tooLong(req.promoCode) || tooLong(req.route)) return null;
+    double rate = rates.freshRate(req.currency, fxFreshMs, clock.getAsLong());
+    if (Double.isNaN(rate)) return null;
+    PromoResult promo = req.promoCode == null || req.promoCode.isBlank()
+        ? PromoResult.NONE
+        : promos.peek(req.promoCode);
+    if (promo == null) return null;
+    return new Key(Double.doubleToLongBits(req.fareAmount), req.currency, req.cabinClass, req.customerTier,
+        req.promoCode, req.route, Double.doubleToLongBits(rate), promo.bonusPercent, promo.expiresSoon,
+        rules.current());
+  }
+
+  public Buffer get(Key key) {
+    return cache.getIfPresent(key);
+  }
+
+  /**
+   * Stores a successful response computed for {@code req}, provided the inputs captured in {@code key}
+   * are still current; otherwise the response may reflect newer data than its key and is dropped.
+   */
+  public void put(Key key, QuoteRequest req, Buffer body) {
+    if (key.equals(keyFor(req))) {
+      cache.put(key, body);
+    }
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /** Weighted size in bytes (bodies plus estimated overhead). */
+  public long weightedSize() {
+    return cache.policy().eviction().map(e -> e.weightedSize().orElse(0L)).orElse(0L);
+  }
+
+  void cleanUp() {
+    cache.cleanUp();
+  }
+
+  private static boolean tooLong(String value) {
+    return value != null && value.length() > MAX_KEY_STRING_LENGTH;
+  }
+
+  /** Canonical request fields plus the data version they were priced against. */
+  public record Key(long fareBits, String currency, String cabinClass, String customerTier, String promoCode,
+                    String route, long rateBits, int promoBonusPercent, boolean promoExpiresSoon, RuleTable rules) {
+  }
+}
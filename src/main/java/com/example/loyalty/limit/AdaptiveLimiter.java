@@ -0,0 +1,72 @@
+package com.example.loyalty.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * AIMD concurrency limit driven by observed latency. Each request that completes within the latency
+ * target while the limit is at least half used grows the limit by {@code 1/limit}, so roughly one
+ * per limit's worth of requests. Each request slower than the target multiplies the limit by
+ * {@code backoffRatio}. Requests beyond the limit are rejected up front instead of queueing behind
+ * a slow upstream. Lock-free and shared by every verticle instance.
+ */
+public final class AdaptiveLimiter {
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyTargetNanos;
+  private final double backoffRatio;
+
+  private final AtomicLong limitBits;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+
+  public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, long latencyTargetNanos, double backoffRatio) {
+    this.minLimit = Math.max(1, minLimit);
+    this.maxLimit = Math.max(this.minLimit, maxLimit);
+    this.latencyTargetNanos = latencyTargetNanos;
+    this.backoffRatio = backoffRatio;
+    this.limitBits = new AtomicLong(Double.doubleToRawLongBits(
+        Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit))));
+  }
+
+  /** Takes a slot, or returns false (and counts a rejection) if the limit is reached. */
+  public boolean tryAcquire() {
+    if (inFlight.incrementAndGet() > limit()) {
+      inFlight.decrementAndGet();
+      rejected.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /** Returns a slot taken by {@link #tryAcquire} and adjusts the limit from the request's latency. */
+  public void release(long latencyNanos) {
+    int inFlightBefore = inFlight.getAndDecrement();
+    long bits;
+    double next;
+    do {
+      bits = limitBits.get();
+      double current = Double.longBitsToDouble(bits);
+      if (latencyNanos > latencyTargetNanos) {
+        next = Math.max(minLimit, current * backoffRatio);
+      } else if (inFlightBefore * 2 >= current) {
+        next = Math.min(maxLimit, current + 1 / current);
+      } else {
+        return;
+      }
+    } while (!limitBits.compareAndSet(bits, Double.doubleToRawLongBits(next)));
+  }
+
+  public int limit() {
+    return (int) Double.longBitsToDouble(limitBits.get());
+  }
+
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  public long rejected() {
+    return rejected.sum();
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.loyalty.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed cap on concurrent calls: calls beyond {@code maxConcurrent} are rejected up front rather
+ * than queued, so one slow dependency cannot hold more than its share of connections and callers.
+ * The cap may be changed while calls are in flight. Lock-free and shared by every verticle instance.
+ */
+public final class Bulkhead {
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+  private volatile int maxConcurrent;
+
+  public Bulkhead(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  /** Takes a slot, or returns false (and counts a rejection) if all slots are taken. */
+  public boolean tryAcquire() {
+    if (inFlight.incrementAndGet() > maxConcurrent) {
+      inFlight.decrementAndGet();
+      rejected.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Takes a slot for optional extra work, such as a hedge request, that is simply skipped when the
+   * bulkhead is full; a refusal is not counted as a rejected call.
+   */
+  public boolean tryAcquireSpare() {
+    if (inFlight.incrementAndGet() > maxConcurrent) {
+      inFlight.decrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  /** Returns a slot taken by {@link #tryAcquire} or {@link #tryAcquireSpare}. */
+  public void release() {
+    inFlight.decrementAndGet();
+  }
+
+  /** Applies to calls admitted from now on; calls already in flight are not cut short. */
+  public void setMaxConcurrent(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+  }
+
+  public int maxConcurrent() {
+    return maxConcurrent;
+  }
+
+  public int inFlight() {
+    return inFlight.get();
+  }
+
+  public long rejected() {
+    return rejected.sum();
+  }
+}
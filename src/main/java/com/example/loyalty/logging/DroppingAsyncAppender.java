@@ -0,0 +1,36 @@
+package com.example.loyalty.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded async appender that never blocks the caller: when the queue is full the event is dropped
+ * and counted instead of stalling an event loop. Unlike the stock {@link AsyncAppender} it does not
+ * start shedding INFO events early; every level is kept until the queue is actually full.
+ */
+public class DroppingAsyncAppender extends AsyncAppender {
+  private static final LongAdder DROPPED = new LongAdder();
+
+  public DroppingAsyncAppender() {
+    setNeverBlock(true);
+    setDiscardingThreshold(0);
+  }
+
+  /** Events dropped by every instance of this appender since startup. */
+  public static long droppedCount() {
+    return DROPPED.sum();
+  }
+
+  @Override
+  protected void append(ILoggingEvent event) {
+    // Checked up front so drops are counted; an event that loses a race for the last free slot is
+    // still dropped by the non-blocking offer underneath, just not counted.
+    if (isStarted() && getRemainingCapacity() == 0) {
+      DROPPED.increment();
+      return;
+    }
+    super.append(event);
+  }
+}
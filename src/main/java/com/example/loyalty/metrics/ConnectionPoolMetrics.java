@@ -0,0 +1,52 @@
+package com.example.loyalty.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection and request counts for one upstream, summed over the HTTP clients of every verticle
+ * instance. At steady state {@code opened} should stop growing; if it keeps climbing the pool is
+ * churning connections.
+ */
+public final class ConnectionPoolMetrics {
+  private final LongAdder opened = new LongAdder();
+  private final LongAdder closed = new LongAdder();
+  private final LongAdder inFlight = new LongAdder();
+  private final LongAdder capacity = new LongAdder();
+
+  /** Called once per HTTP client created for this upstream, with that client's pool size. */
+  public void clientCreated(int maxConnections) {
+    capacity.add(maxConnections);
+  }
+
+  public void connectionOpened() {
+    opened.increment();
+  }
+
+  public void connectionClosed() {
+    closed.increment();
+  }
+
+  public void requestStarted() {
+    inFlight.increment();
+  }
+
+  public void requestEnded() {
+    inFlight.decrement();
+  }
+
+  public long opened() {
+    return opened.sum();
+  }
+
+  public long open() {
+    return opened.sum() - closed.sum();
+  }
+
+  public long inFlight() {
+    return inFlight.sum();
+  }
+
+  public long capacity() {
+    return capacity.sum();
+  }
+}
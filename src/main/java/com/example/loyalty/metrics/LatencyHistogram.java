@@ -0,0 +1,78 @@
+package com.example.loyalty.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HDR-style latency histogram in microseconds: every power of two is split into 16 linear
+ * sub-buckets, so any recorded value is known to within 6.25% from 1us up to ~2 minutes.
+ * {@link #record} is a couple of shifts plus one atomic increment: no locks, no allocation.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_MAGNITUDE = 27; // 2^27us ~ 134s; larger values land in the last bucket
+  static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder sumMicros = new LongAdder();
+
+  public void recordNanos(long nanos) {
+    record(nanos / 1_000);
+  }
+
+  public void recordSince(long startNanos) {
+    recordNanos(System.nanoTime() - startNanos);
+  }
+
+  public void record(long micros) {
+    counts.incrementAndGet(indexOf(micros));
+    sumMicros.add(Math.max(0, micros));
+  }
+
+  public long count() {
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+    return total;
+  }
+
+  public long sumMicros() {
+    return sumMicros.sum();
+  }
+
+  /** Number of recorded values below {@code micros}; exact when micros is a bucket lower bound. */
+  public long countBelow(long micros) {
+    int end = indexOf(micros);
+    long total = 0;
+    for (int i = 0; i < end; i++) total += counts.get(i);
+    return total;
+  }
+
+  /** Upper bound, in microseconds, of the bucket holding the given quantile (0..1); 0 if empty. */
+  public long percentile(double quantile) {
+    long total = count();
+    if (total == 0) return 0;
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) return lowerBound(i + 1) - 1;
+    }
+    return lowerBound(BUCKETS) - 1;
+  }
+
+  static int indexOf(long micros) {
+    if (micros < SUB_BUCKETS) return (int) Math.max(0, micros);
+    int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+    int sub = (int) (micros >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    int index = (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    return Math.min(index, BUCKETS - 1);
+  }
+
+  static long lowerBound(int index) {
+    if (index < SUB_BUCKETS) return index;
+    int major = index / SUB_BUCKETS;
+    int sub = index % SUB_BUCKETS;
+    return (long) (SUB_BUCKETS + sub) << (major - 1);
+  }
+}
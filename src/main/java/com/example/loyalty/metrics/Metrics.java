@@ -0,0 +1,234 @@
+package com.example.loyalty.metrics;
+
+import io.vertx.circuitbreaker.CircuitBreaker;
+import io.vertx.circuitbreaker.CircuitBreakerState;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Process-wide metrics, rendered in the Prometheus text format by {@link #scrape()}. Hot-path
+ * recording goes through fixed fields (histograms, {@link LongAdder}s, a status-code array) so it
+ * never locks or allocates; state owned elsewhere, such as cache statistics, is registered once as
+ * a supplier and only read at scrape time.
+ */
+public final class Metrics {
+  // Histogram buckets exposed to Prometheus: powers of two from 128us to ~33.5s, which are exact
+  // bucket boundaries of LatencyHistogram.
+  private static final long[] LE_MICROS = new long[19];
+  private static final String[] LE_LABELS = new String[LE_MICROS.length];
+
+  static {
+    for (int i = 0; i < LE_MICROS.length; i++) {
+      LE_MICROS[i] = 1L << (i + 7);
+      LE_LABELS[i] = BigDecimal.valueOf(LE_MICROS[i], 6).stripTrailingZeros().toPlainString();
+    }
+  }
+
+  private final LatencyHistogram quoteLatency = new LatencyHistogram();
+  private final LatencyHistogram fxLatency = new LatencyHistogram();
+  private final LatencyHistogram promoLatency = new LatencyHistogram();
+  private final LatencyHistogram computeLatency = new LatencyHistogram();
+
+  private final AtomicLongArray responsesByStatus = new AtomicLongArray(600);
+  private final LongAdder promoFallbacks = new LongAdder();
+  private final LongAdder pointsCapped = new LongAdder();
+  private final LongAdder fxRetries = new LongAdder();
+  private final ConnectionPoolMetrics fxConnections = new ConnectionPoolMetrics();
+  private final ConnectionPoolMetrics promoConnections = new ConnectionPoolMetrics();
+
+  private final List<Sample> registered = new CopyOnWriteArrayList<>();
+  private final Map<String, BreakerMonitor> breakers = new ConcurrentHashMap<>();
+  // last scrape's length plus headroom; series only get added, so the builder rarely has to grow
+  private volatile int scrapeSizeHint = 8192;
+
+  public LatencyHistogram quoteLatency() {
+    return quoteLatency;
+  }
+
+  public LatencyHistogram fxLatency() {
+    return fxLatency;
+  }
+
+  public LatencyHistogram promoLatency() {
+    return promoLatency;
+  }
+
+  public LatencyHistogram computeLatency() {
+    return computeLatency;
+  }
+
+  public ConnectionPoolMetrics fxConnections() {
+    return fxConnections;
+  }
+
+  public ConnectionPoolMetrics promoConnections() {
+    return promoConnections;
+  }
+
+  public void recordResponse(int status) {
+    responsesByStatus.incrementAndGet(status >= 0 && status < 600 ? status : 0);
+  }
+
+  public void promoFallback() {
+    promoFallbacks.increment();
+  }
+
+  public void pointsCapped() {
+    pointsCapped.increment();
+  }
+
+  public void fxRetry() {
+    fxRetries.increment();
+  }
+
+  /**
+   * Counts the breaker's state transitions and exposes its current state. Takes over the breaker's
+   * open/half-open/close handlers. Monitoring a new breaker with the name of one already monitored
+   * (a breaker replaced by a config reload) moves the existing series over to it.
+   */
+  public void monitor(CircuitBreaker breaker) {
+    monitor(breaker, "breaker=\"" + breaker.name() + "\"");
+  }
+
+  /** As {@link #monitor(CircuitBreaker)}, with series identified by {@code labels} rather than the name alone. */
+  public void monitor(CircuitBreaker breaker, String labels) {
+    breakers.computeIfAbsent(labels, this::registerBreaker).attach(breaker);
+  }
+
+  private BreakerMonitor registerBreaker(String labels) {
+    BreakerMonitor monitor = new BreakerMonitor();
+    String help = "Circuit breaker state transitions";
+    registerCounter("loyalty_circuit_breaker_transitions_total", labels + ",state=\"open\"", help,
+        monitor.opened::sum);
+    registerCounter("loyalty_circuit_breaker_transitions_total", labels + ",state=\"half_open\"", help,
+        monitor.halfOpened::sum);
+    registerCounter("loyalty_circuit_breaker_transitions_total", labels + ",state=\"closed\"", help,
+        monitor.closed::sum);
+    registerGauge("loyalty_circuit_breaker_state", labels,
+        "Current circuit breaker state (0 closed, 1 half-open, 2 open)", () -> stateValue(monitor.breaker.state()));
+    return monitor;
+  }
+
+  private static final class BreakerMonitor {
+    final LongAdder opened = new LongAdder();
+    final LongAdder halfOpened = new LongAdder();
+    final LongAdder closed = new LongAdder();
+    volatile CircuitBreaker breaker;
+
+    void attach(CircuitBreaker breaker) {
+      breaker.openHandler(v -> opened.increment());
+      breaker.halfOpenHandler(v -> halfOpened.increment());
+      breaker.closeHandler(v -> closed.increment());
+      this.breaker = breaker;
+    }
+  }
+
+  /** Registers a monotonically increasing value owned elsewhere; {@code labels} may be empty. */
+  public void registerCounter(String name, String labels, String help, LongSupplier value) {
+    registered.add(new Sample(name, labels, help, "counter", value::getAsLong));
+  }
+
+  public void registerGauge(String name, String labels, String help, DoubleSupplier value) {
+    registered.add(new Sample(name, labels, help, "gauge", value));
+  }
+
+  public String scrape() {
+    StringBuilder out = new StringBuilder(scrapeSizeHint);
+    histogram(out, "loyalty_quote_duration_seconds", "Single quote latency, request to response", quoteLatency);
+    histogram(out, "loyalty_fx_call_duration_seconds", "FX service call latency, per attempt", fxLatency);
+    histogram(out, "loyalty_promo_call_duration_seconds", "Promo service call latency", promoLatency);
+    histogram(out, "loyalty_compute_duration_seconds", "Points computation latency", computeLatency);
+
+    header(out, "loyalty_http_responses_total", "HTTP responses by status code", "counter");
+    for (int status = 0; status < responsesByStatus.length(); status++) {
+      long count = responsesByStatus.get(status);
+      if (count > 0) {
+        out.append("loyalty_http_responses_total{status=\"").append(status == 0 ? "other" : status)
+            .append("\"} ").append(count).append('\n');
+      }
+    }
+
+    counter(out, "loyalty_promo_fallbacks_total", "Quotes priced without a promo after a promo lookup failure",
+        promoFallbacks.sum());
+    counter(out, "loyalty_points_capped_total", "Quotes whose total hit the points cap", pointsCapped.sum());
+    counter(out, "loyalty_fx_retries_total", "FX calls retried after a failed first attempt", fxRetries.sum());
+
+    header(out, "loyalty_upstream_connections_opened_total", "Upstream connections opened", "counter");
+    pool(out, "loyalty_upstream_connections_opened_total", ConnectionPoolMetrics::opened);
+    header(out, "loyalty_upstream_connections", "Upstream connections currently open", "gauge");
+    pool(out, "loyalty_upstream_connections", ConnectionPoolMetrics::open);
+    header(out, "loyalty_upstream_pool_max_connections", "Upstream connection pool capacity, all instances", "gauge");
+    pool(out, "loyalty_upstream_pool_max_connections", ConnectionPoolMetrics::capacity);
+    header(out, "loyalty_upstream_requests_in_flight", "Upstream requests awaiting a response", "gauge");
+    pool(out, "loyalty_upstream_requests_in_flight", ConnectionPoolMetrics::inFlight);
+
+    Map<String, List<Sample>> families = new LinkedHashMap<>();
+    for (Sample sample : registered) {
+      families.computeIfAbsent(sample.name, n -> new ArrayList<>()).add(sample);
+    }
+    for (List<Sample> family : families.values()) {
+      Sample first = family.get(0);
+      header(out, first.name, first.help, first.type);
+      for (Sample sample : family) {
+        out.append(sample.name);
+        if (!sample.labels.isEmpty()) out.append('{').append(sample.labels).append('}');
+        out.append(' ').append(format(sample.value.getAsDouble())).append('\n');
+      }
+    }
+    if (out.length() > scrapeSizeHint - 1024) scrapeSizeHint = out.length() + 2048;
+    return out.toString();
+  }
+
+  private static void histogram(StringBuilder out, String name, String help, LatencyHistogram histogram) {
+    header(out, name, help, "histogram");
+    for (int i = 0; i < LE_MICROS.length; i++) {
+      out.append(name).append("_bucket{le=\"").append(LE_LABELS[i]).append("\"} ")
+          .append(histogram.countBelow(LE_MICROS[i])).append('\n');
+    }
+    long count = histogram.count();
+    out.append(name).append("_bucket{le=\"+Inf\"} ").append(count).append('\n');
+    out.append(name).append("_sum ").append(format(histogram.sumMicros() / 1e6)).append('\n');
+    out.append(name).append("_count ").append(count).append('\n');
+  }
+
+  private void pool(StringBuilder out, String name, ToLongFunction<ConnectionPoolMetrics> value) {
+    out.append(name).append("{upstream=\"fx\"} ").append(value.applyAsLong(fxConnections)).append('\n');
+    out.append(name).append("{upstream=\"promo\"} ").append(value.applyAsLong(promoConnections)).append('\n');
+  }
+
+  private static void counter(StringBuilder out, String name, String help, long value) {
+    header(out, name, help, "counter");
+    out.append(name).append(' ').append(value).append('\n');
+  }
+
+  private static void header(StringBuilder out, String name, String help, String type) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  private static String format(double value) {
+    return value == Math.rint(value) && Math.abs(value) < 1e15 ? Long.toString((long) value) : Double.toString(value);
+  }
+
+  private static double stateValue(CircuitBreakerState state) {
+    return switch (state) {
+      case CLOSED -> 0;
+      case HALF_OPEN -> 1;
+      case OPEN -> 2;
+    };
+  }
+
+  private record Sample(String name, String labels, String help, String type, DoubleSupplier value) {
+  }
+}
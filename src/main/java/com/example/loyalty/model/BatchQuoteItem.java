@@ -0,0 +1,15 @@
+package com.example.loyalty.model;
+
+public record BatchQuoteItem(
+    int status,
+    QuoteResponse quote,
+    ErrorResponse error
+) {
+  public static BatchQuoteItem ok(QuoteResponse quote) {
+    return new BatchQuoteItem(200, quote, null);
+  }
+
+  public static BatchQuoteItem failed(ErrorResponse error) {
+    return new BatchQuoteItem(error.status(), null, error);
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.loyalty.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum CabinClass {
+  ECONOMY,
+  BUSINESS,
+  FIRST;
+
+  private static final Map<String, CabinClass> BY_NAME = new HashMap<>();
+
+  static {
+    for (CabinClass c : values()) BY_NAME.put(c.name(), c);
+  }
+
+  /** Returns the cabin class for {@code name}, or null if unknown. */
+  public static CabinClass parse(String name) {
+    return name == null ? null : BY_NAME.get(name);
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.loyalty.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public enum CurrencyCode {
+  USD,
+  EUR,
+  INR;
+
+  private static final Map<String, CurrencyCode> BY_NAME = new HashMap<>();
+
+  static {
+    for (CurrencyCode c : values()) BY_NAME.put(c.name(), c);
+  }
+
+  /** Returns the currency for {@code code}, or null if unsupported. */
+  public static CurrencyCode parse(String code) {
+    return code == null ? null : BY_NAME.get(code);
+  }
+}
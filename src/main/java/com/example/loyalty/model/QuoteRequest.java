@@ -6,4 +6,5 @@ public class QuoteRequest {
   public String cabinClass;
   public String customerTier;
   public String promoCode;
+  public String route;
 }
@@ -1,14 +1,28 @@
 package com.example.loyalty.model;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum Tier {
   NONE(0.0),
   SILVER(0.15),
   GOLD(0.30),
   PLATINUM(0.50);
 
+  private static final Map<String, Tier> BY_NAME = new HashMap<>();
+
+  static {
+    for (Tier t : values()) BY_NAME.put(t.name(), t);
+  }
+
   public final double bonusRate;
 
   Tier(double bonusRate) {
     this.bonusRate = bonusRate;
   }
+
+  /** Returns the tier for {@code name}, or null if unknown; unlike valueOf, never throws. */
+  public static Tier parse(String name) {
+    return name == null ? null : BY_NAME.get(name);
+  }
 }
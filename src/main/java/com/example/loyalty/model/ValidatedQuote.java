@@ -0,0 +1,12 @@
+package com.example.loyalty.model;
+
+/** A {@link QuoteRequest} that passed validation, with its enum fields resolved once. */
+public record ValidatedQuote(
+    double fareAmount,
+    CurrencyCode currency,
+    CabinClass cabinClass,
+    Tier tier,
+    String promoCode,
+    String route
+) {
+}
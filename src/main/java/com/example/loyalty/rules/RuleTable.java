@@ -0,0 +1,160 @@
+package com.example.loyalty.rules;
+
+import com.example.loyalty.model.CabinClass;
+import com.example.loyalty.model.CurrencyCode;
+import com.example.loyalty.model.Tier;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Points rules compiled into flat arrays indexed by enum ordinal, so pricing a quote is a handful of
+ * array reads and never allocates. Cabin multiplier and currency earn rate are folded into one
+ * {@code earnRate} cell per (currency, cabin). Tables are immutable; {@link RulesEngine} swaps them whole.
+ *
+ * <p>Rules file shape (every section optional; anything not listed keeps the built-in default):
+ * <pre>
+ * {
+ *   "cap": 50000,
+ *   "tiers":      { "GOLD": { "bonusRate": 0.30, "cap": 80000 } },
+ *   "cabins":     { "BUSINESS": 1.5, "FIRST": 2.0 },
+ *   "currencies": { "INR": 0.5 },
+ *   "routes":     { "BOM-DXB": 1.25 }
+ * }
+ * </pre>
+ */
+public final class RuleTable {
+  private static final Tier[] TIERS = Tier.values();
+  private static final CabinClass[] CABINS = CabinClass.values();
+  private static final CurrencyCode[] CURRENCIES = CurrencyCode.values();
+
+  private final double[] tierBonusRate;
+  private final int[] tierCap;
+  private final double[] earnRate;
+  private final Map<String, Double> routeRates;
+
+  private RuleTable(double[] tierBonusRate, int[] tierCap, double[] earnRate, Map<String, Double> routeRates) {
+    this.tierBonusRate = tierBonusRate;
+    this.tierCap = tierCap;
+    this.earnRate = earnRate;
+    this.routeRates = routeRates;
+  }
+
+  /** The rules the service has always applied: tier rates from {@link Tier}, one global cap, flat earn. */
+  public static RuleTable defaults(int cap) {
+    return compile(new JsonObject(), cap);
+  }
+
+  /**
+   * Compiles a rules document; entries it leaves out take the defaults, with {@code defaultCap} as the
+   * global cap. Unknown tiers, cabins or currencies and negative values are rejected.
+   */
+  public static RuleTable compile(JsonObject rules, int defaultCap) {
+    int cap = intValue(rules, "cap", defaultCap, "cap");
+
+    double[] tierBonusRate = new double[TIERS.length];
+    int[] tierCap = new int[TIERS.length];
+    JsonObject tiers = section(rules, "tiers");
+    for (Tier tier : TIERS) {
+      tierBonusRate[tier.ordinal()] = tier.bonusRate;
+      tierCap[tier.ordinal()] = cap;
+    }
+    for (String name : tiers.fieldNames()) {
+      Tier tier = Tier.parse(name);
+      if (tier == null) throw new IllegalArgumentException("Unknown tier in rules: " + name);
+      JsonObject tierRules = section(tiers, name);
+      tierBonusRate[tier.ordinal()] = doubleValue(tierRules, "bonusRate", tier.bonusRate, "tiers." + name);
+      tierCap[tier.ordinal()] = intValue(tierRules, "cap", cap, "tiers." + name);
+    }
+
+    double[] cabinMultiplier = rates(section(rules, "cabins"), CABINS.length, name -> {
+      CabinClass cabin = CabinClass.parse(name);
+      return cabin == null ? -1 : cabin.ordinal();
+    }, "cabin");
+    double[] currencyRate = rates(section(rules, "currencies"), CURRENCIES.length, name -> {
+      CurrencyCode currency = CurrencyCode.parse(name);
+      return currency == null ? -1 : currency.ordinal();
+    }, "currency");
+    double[] earnRate = new double[CURRENCIES.length * CABINS.length];
+    for (int c = 0; c < CURRENCIES.length; c++) {
+      for (int k = 0; k < CABINS.length; k++) {
+        earnRate[c * CABINS.length + k] = currencyRate[c] * cabinMultiplier[k];
+      }
+    }
+
+    JsonObject routes = section(rules, "routes");
+    Map<String, Double> routeRates = new HashMap<>();
+    for (String route : routes.fieldNames()) {
+      routeRates.put(route, doubleValue(routes, route, 1.0, "routes"));
+    }
+
+    return new RuleTable(tierBonusRate, tierCap, earnRate, Map.copyOf(routeRates));
+  }
+
+  /** {@code floor(fare * earn rate)}, where the earn rate combines currency, cabin and (if known) route. */
+  public int basePoints(double fareAmount, CurrencyCode currency, CabinClass cabin, String route) {
+    double rate = earnRate[currency.ordinal() * CABINS.length + cabin.ordinal()];
+    if (route != null && !routeRates.isEmpty()) {
+      Double routeRate = routeRates.get(route);
+      if (routeRate != null) rate *= routeRate;
+    }
+    return (int) Math.floor(fareAmount * rate);
+  }
+
+  public int tierBonus(int basePoints, Tier tier) {
+    return (int) Math.floor(basePoints * tierBonusRate[tier.ordinal()]);
+  }
+
+  public int cap(Tier tier) {
+    return tierCap[tier.ordinal()];
+  }
+
+  public int routeCount() {
+    return routeRates.size();
+  }
+
+  private interface OrdinalLookup {
+    int ordinalOf(String name);
+  }
+
+  private static double[] rates(JsonObject section, int size, OrdinalLookup lookup, String kind) {
+    double[] rates = new double[size];
+    Arrays.fill(rates, 1.0);
+    for (String name : section.fieldNames()) {
+      int ordinal = lookup.ordinalOf(name);
+      if (ordinal < 0) throw new IllegalArgumentException("Unknown " + kind + " in rules: " + name);
+      rates[ordinal] = doubleValue(section, name, 1.0, kind);
+    }
+    return rates;
+  }
+
+  private static JsonObject section(JsonObject parent, String key) {
+    Object value = parent.getValue(key);
+    if (value == null) return new JsonObject();
+    if (!(value instanceof JsonObject section)) {
+      throw new IllegalArgumentException("Rules entry '" + key + "' must be an object");
+    }
+    return section;
+  }
+
+  private static double doubleValue(JsonObject parent, String key, double defaultValue, String where) {
+    Object value = parent.getValue(key);
+    if (value == null) return defaultValue;
+    if (!(value instanceof Number number) || !(number.doubleValue() >= 0) || Double.isInfinite(number.doubleValue())) {
+      throw new IllegalArgumentException("Invalid rules value " + where + "." + key + ": " + value);
+    }
+    return number.doubleValue();
+  }
+
+  private static int intValue(JsonObject parent, String key, int defaultValue, String where) {
+    Object value = parent.getValue(key);
+    if (value == null) return defaultValue;
+    if (!(value instanceof Integer || value instanceof Long)
+        || ((Number) value).longValue() < 0 || ((Number) value).longValue() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Invalid rules value " + where + "." + key + ": " + value);
+    }
+    return ((Number) value).intValue();
+  }
+}
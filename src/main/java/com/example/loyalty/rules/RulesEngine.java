@@ -0,0 +1,40 @@
+package com.example.loyalty.rules;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Holds the live {@link RuleTable}. Readers take {@link #current()} once per quote and price the whole
+ * quote against that table; a reload publishes a new table with a single volatile write, so readers
+ * never block and never see a half-applied rule set. Shared by every verticle instance.
+ */
+public final class RulesEngine {
+  private volatile RuleTable current;
+  private final LongAdder reloads = new LongAdder();
+  private final LongAdder reloadFailures = new LongAdder();
+
+  public RulesEngine(RuleTable initial) {
+    this.current = initial;
+  }
+
+  public RuleTable current() {
+    return current;
+  }
+
+  public void swap(RuleTable table) {
+    current = table;
+    reloads.increment();
+  }
+
+  /** Records a reload that was rejected; the current table stays in place. */
+  void reloadFailed() {
+    reloadFailures.increment();
+  }
+
+  public long reloads() {
+    return reloads.sum();
+  }
+
+  public long reloadFailures() {
+    return reloadFailures.sum();
+  }
+}
@@ -0,0 +1,89 @@
+package com.example.loyalty.rules;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Loads a JSON rules file into a {@link RulesEngine} and, when watching, reloads it whenever its
+ * modification time or size changes. The file is read with the async file system and compiled on a
+ * worker thread, so neither step runs on an event loop. A file that fails to parse or compile is
+ * logged and counted, and the rules already in force are kept. Loads run one after another, so
+ * the rules in force always come from the load started last, with the cap it started with. Loads,
+ * polls and {@link #reconfigure} are expected to run on one context; a poll is skipped while the
+ * previous one is still running.
+ */
+public final class RulesFileLoader {
+  private static final Logger log = LoggerFactory.getLogger(RulesFileLoader.class);
+
+  private final Vertx vertx;
+  private final String path;
+  private int defaultCap;
+  private final RulesEngine engine;
+
+  private long lastModified = -1;
+  private long lastSize = -1;
+  private Future<RuleTable> lastLoad = Future.succeededFuture();
+  private boolean polling;
+
+  public RulesFileLoader(Vertx vertx, String path, int defaultCap, RulesEngine engine) {
+    this.vertx = vertx;
+    this.path = path;
+    this.defaultCap = defaultCap;
+    this.engine = engine;
+  }
+
+  /**
+   * Reads, compiles and swaps in the rules file once any earlier load has finished; on failure the
+   * current rules stay in force.
+   */
+  public Future<RuleTable> load() {
+    Future<RuleTable> next = lastLoad.transform(previous -> read());
+    lastLoad = next;
+    return next;
+  }
+
+  private Future<RuleTable> read() {
+    int cap = defaultCap;
+    return vertx.fileSystem().props(path)
+        .compose(props -> {
+          lastModified = props.lastModifiedTime();
+          lastSize = props.size();
+          return vertx.fileSystem().readFile(path);
+        })
+        .compose(content -> vertx.executeBlocking(() -> RuleTable.compile(new JsonObject(content), cap), false))
+        .onSuccess(table -> {
+          engine.swap(table);
+          log.info("Points rules loaded from {} ({} route rates)", path, table.routeCount());
+        })
+        .onFailure(err -> {
+          engine.reloadFailed();
+          log.warn("Points rules in {} rejected, keeping current rules: {}", path, err.toString());
+        });
+  }
+
+  /**
+   * Recompiles the file with a new global cap default (from a config reload), after any load in
+   * flight, so a load that started with the old cap cannot land last.
+   */
+  public Future<RuleTable> reconfigure(int defaultCap) {
+    this.defaultCap = defaultCap;
+    return load();
+  }
+
+  /** Polls the file every {@code intervalMs} and reloads it when it changes. Returns the timer id. */
+  public long watch(long intervalMs) {
+    return vertx.setPeriodic(intervalMs, id -> {
+      // An overlapping poll would see the same change before load() records it, and load it twice.
+      if (polling) return;
+      polling = true;
+      vertx.fileSystem().props(path)
+          .compose(props -> props.lastModifiedTime() != lastModified || props.size() != lastSize
+              ? load().<Void>mapEmpty()
+              : Future.<Void>succeededFuture())
+          .onComplete(ar -> polling = false);
+    });
+  }
+}
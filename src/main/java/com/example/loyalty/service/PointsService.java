@@ -1,59 +1,172 @@
 package com.example.loyalty.service;
 
 import com.example.loyalty.exception.ValidationException;
+import com.example.loyalty.metrics.Metrics;
 import com.example.loyalty.model.*;
+import com.example.loyalty.rules.RuleTable;
+import com.example.loyalty.rules.RulesEngine;
 import io.vertx.core.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public class PointsService {
   private static final Logger log = LoggerFactory.getLogger(PointsService.class);
-  private final int cap;
+  // Immutable, so shared by every quote rather than allocated per request.
+  private static final Future<PromoResult> NO_PROMO = Future.succeededFuture(PromoResult.NONE);
+  private static final List<String> PROMO_EXPIRES_SOON = List.of("PROMO_EXPIRES_SOON");
+  /** Longer promo codes are rejected as invalid, so junk codes never reach the promo service. */
+  public static final int MAX_PROMO_CODE_LENGTH = 64;
 
   private final FxClient fxClient;
   private final PromoClient promoClient;
+  private final Metrics metrics;
+  private final RulesEngine rules;
 
   public PointsService(FxClient fxClient, PromoClient promoClient) {
     this(fxClient, promoClient, 50_000);
   }
 
   public PointsService(FxClient fxClient, PromoClient promoClient, int cap) {
+    this(fxClient, promoClient, cap, new Metrics());
+  }
+
+  public PointsService(FxClient fxClient, PromoClient promoClient, int cap, Metrics metrics) {
+    this(fxClient, promoClient, new RulesEngine(RuleTable.defaults(cap)), metrics);
+  }
+
+  public PointsService(FxClient fxClient, PromoClient promoClient, RulesEngine rules, Metrics metrics) {
     this.fxClient = fxClient;
     this.promoClient = promoClient;
-    this.cap = cap;
+    this.rules = rules;
+    this.metrics = metrics;
   }
 
   public Future<QuoteResponse> quote(QuoteRequest req) {
-    validate(req);
-    log.info("Processing quote: currency={}, tier={}, cabin={}, fare={}",
-        req.currency, req.customerTier, req.cabinClass, req.fareAmount);
-
-    return fxClient.getRate(req.currency)
-            .compose(rate -> {
-              log.debug("FX rate retrieved: currency={}, rate={}", req.currency, rate);
-              int base = (int) Math.floor(req.fareAmount);
-
-              Tier tier = Tier.valueOf(req.customerTier);
-              int tierBonus = (int) Math.floor(base * tier.bonusRate);
-
-              return promoClient.getPromo(req.promoCode)
-                      .recover(err -> {
-                        log.warn("Promo fallback due to: {}", err.toString());
-                        return Future.succeededFuture(new PromoResult(0, false));
-                      })
-                      .map(promo -> build(base, tierBonus, promo, rate));
+    ValidatedQuote quote = validate(req);
+    if (log.isDebugEnabled()) {
+      log.debug("Processing quote: currency={}, tier={}, cabin={}, route={}, fare={}",
+          quote.currency(), quote.tier(), quote.cabinClass(), quote.route(), quote.fareAmount());
+    }
+
+    // Fan out: both upstream lookups start together, so a quote pays max(fx, promo) rather than fx + promo.
+    return price(quote, fxClient.getRate(quote.currency().name()), lookupPromo(quote.promoCode()));
+  }
+
+  /**
+   * Prices a batch, fetching each distinct currency's rate once and all distinct promo codes with
+   * one bulk lookup. Returns one future per request, in request order; invalid items fail without
+   * affecting the rest.
+   */
+  public List<Future<QuoteResponse>> quoteBatch(List<QuoteRequest> reqs) {
+    if (log.isDebugEnabled()) {
+      log.debug("Processing batch quote: size={}", reqs.size());
+    }
+    ValidatedQuote[] quotes = new ValidatedQuote[reqs.size()];
+    List<Future<QuoteResponse>> results = new ArrayList<>(reqs.size());
+    Set<String> codes = new LinkedHashSet<>();
+    for (int i = 0; i < quotes.length; i++) {
+      try {
+        quotes[i] = validate(reqs.get(i));
+        results.add(null);
+        if (quotes[i].promoCode() != null && !quotes[i].promoCode().isBlank()) codes.add(quotes[i].promoCode());
+      } catch (ValidationException e) {
+        results.add(Future.failedFuture(e));
+      }
+    }
+
+    Future<Map<String, PromoResult>> found = codes.isEmpty()
+        ? Future.succeededFuture(Map.of())
+        : promoClient.getPromos(codes).recover(err -> {
+            log.warn("Promo batch fallback due to: {}", err.toString());
+            return Future.succeededFuture(Map.of());
+          });
+    Map<CurrencyCode, Future<Double>> rates = new EnumMap<>(CurrencyCode.class);
+    Map<String, Future<PromoResult>> promos = new HashMap<>();
+    for (int i = 0; i < quotes.length; i++) {
+      ValidatedQuote quote = quotes[i];
+      if (quote == null) continue;
+      Future<Double> rate = rates.computeIfAbsent(quote.currency(), c -> fxClient.getRate(c.name()));
+      Future<PromoResult> promo = promos.computeIfAbsent(quote.promoCode(), code -> promoFrom(found, code));
+      results.set(i, price(quote, rate, promo));
+    }
+
+    if (log.isDebugEnabled()) {
+      log.debug("Batch upstream lookups: currencies={}, promoCodes={}", rates.size(), codes.size());
+    }
+    return results;
+  }
+
+  private Future<PromoResult> promoFrom(Future<Map<String, PromoResult>> found, String code) {
+    if (code == null || code.isBlank()) {
+      return NO_PROMO;
+    }
+    return found.map(results -> {
+      PromoResult result = results.get(code);
+      if (result == null) {
+        log.warn("Promo fallback, no batch result for code={}", code);
+        metrics.promoFallback();
+        return PromoResult.NONE;
+      }
+      return result;
+    });
+  }
+
+  private Future<PromoResult> lookupPromo(String code) {
+    if (code == null || code.isBlank()) {
+      return NO_PROMO;
+    }
+    Future<PromoResult> promo = promoClient.getPromo(code);
+    if (promo.succeeded()) {
+      return promo;
+    }
+    return promo.recover(err -> {
+      log.warn("Promo fallback due to: {}", err.toString());
+      metrics.promoFallback();
+      return NO_PROMO;
+    });
+  }
+
+  private Future<QuoteResponse> price(ValidatedQuote quote, Future<Double> rateFuture,
+                                      Future<PromoResult> promoFuture) {
+    // One table per quote: a concurrent reload never mixes old and new rules within a quote.
+    RuleTable table = rules.current();
+    int base = table.basePoints(quote.fareAmount(), quote.currency(), quote.cabinClass(), quote.route());
+    int tierBonus = table.tierBonus(base, quote.tier());
+    int cap = table.cap(quote.tier());
+
+    // Both lookups usually complete from cache: price synchronously, skipping the composite future.
+    if (rateFuture.succeeded() && promoFuture.succeeded()) {
+      long start = System.nanoTime();
+      QuoteResponse res = build(base, tierBonus, cap, promoFuture.result(), rateFuture.result());
+      metrics.computeLatency().recordSince(start);
+      return Future.succeededFuture(res);
+    }
+    return Future.all(rateFuture, promoFuture)
+            .map(v -> {
+              long start = System.nanoTime();
+              QuoteResponse res = build(base, tierBonus, cap, promoFuture.result(), rateFuture.result());
+              metrics.computeLatency().recordSince(start);
+              return res;
             });
   }
 
-  private QuoteResponse build(int base, int tierBonus, PromoResult promo, double rate) {
+  QuoteResponse build(int base, int tierBonus, int cap, PromoResult promo, double rate) {
     int promoBonus = promo.bonusPercent > 0 ? (base * promo.bonusPercent) / 100 : 0;
     int total = Math.min(cap, base + tierBonus + promoBonus);
 
     if (total == cap) {
-      log.info("Points capped at {}", cap);
+      if (log.isDebugEnabled()) {
+        log.debug("Points capped at {}", cap);
+      }
+      metrics.pointsCapped();
     }
 
     QuoteResponse res = new QuoteResponse();
@@ -62,25 +175,32 @@ public class PointsService {
     res.promoBonus = promoBonus;
     res.totalPoints = total;
     res.effectiveFxRate = rate;
-    res.warnings = promo.expiresSoon ? List.of("PROMO_EXPIRES_SOON") : List.of();
+    res.warnings = promo.expiresSoon ? PROMO_EXPIRES_SOON : List.of();
 
-    log.info("Quote result: base={}, tierBonus={}, promoBonus={}, total={}",
-        base, tierBonus, promoBonus, total);
+    if (log.isDebugEnabled()) {
+      log.debug("Quote result: base={}, tierBonus={}, promoBonus={}, total={}, fxRate={}",
+          base, tierBonus, promoBonus, total, rate);
+    }
     return res;
   }
 
-  private void validate(QuoteRequest r) {
+  ValidatedQuote validate(QuoteRequest r) {
     if (r == null) throw new ValidationException("Missing body");
     if (r.fareAmount <= 0) throw new ValidationException("Invalid fare");
 
-    if (r.currency == null || !Set.of("USD", "EUR", "INR").contains(r.currency))
-      throw new ValidationException("Invalid currency");
+    CurrencyCode currency = CurrencyCode.parse(r.currency);
+    if (currency == null) throw new ValidationException("Invalid currency");
 
-    if (r.cabinClass == null || !Set.of("ECONOMY", "BUSINESS", "FIRST").contains(r.cabinClass))
-      throw new ValidationException("Invalid cabin");
+    CabinClass cabin = CabinClass.parse(r.cabinClass);
+    if (cabin == null) throw new ValidationException("Invalid cabin");
+
+    Tier tier = Tier.parse(r.customerTier);
+    if (tier == null) throw new ValidationException("Invalid tier");
+
+    if (r.promoCode != null && r.promoCode.length() > MAX_PROMO_CODE_LENGTH) {
+      throw new ValidationException("Invalid promo code");
+    }
 
-    if (r.customerTier == null) throw new ValidationException("Invalid tier");
-    try { Tier.valueOf(r.customerTier); }
-    catch (Exception e) { throw new ValidationException("Invalid tier"); }
+    return new ValidatedQuote(r.fareAmount, currency, cabin, tier, r.promoCode, r.route);
   }
 }
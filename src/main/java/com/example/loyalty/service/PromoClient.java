@@ -2,7 +2,32 @@ package com.example.loyalty.service;
 
 import io.vertx.core.Future;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 public interface PromoClient {
 
   Future<PromoResult> getPromo(String code);
+
+  /**
+   * Looks up several codes at once. The map has an entry for each distinct non-blank code whose
+   * lookup succeeded (unknown codes map to {@link PromoResult#NONE}); a code that is missing could
+   * not be looked up, and callers fall back as for a failed {@link #getPromo}. By default this makes
+   * one {@code getPromo} call per code; clients with a bulk upstream override it.
+   */
+  default Future<Map<String, PromoResult>> getPromos(Collection<String> codes) {
+    Map<String, Future<PromoResult>> lookups = new HashMap<>();
+    for (String code : codes) {
+      if (code != null && !code.isBlank()) lookups.computeIfAbsent(code, this::getPromo);
+    }
+    return Future.join(new ArrayList<>(lookups.values())).transform(v -> {
+      Map<String, PromoResult> found = new HashMap<>();
+      lookups.forEach((code, lookup) -> {
+        if (lookup.succeeded()) found.put(code, lookup.result());
+      });
+      return Future.succeededFuture(found);
+    });
+  }
 }
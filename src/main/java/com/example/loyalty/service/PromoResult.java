@@ -1,6 +1,9 @@
 package com.example.loyalty.service;
 
 public class PromoResult {
+    /** No promo applies: no code given, or the promo service does not know the code. */
+    public static final PromoResult NONE = new PromoResult(0, false);
+
     public final int bonusPercent;
     public final boolean expiresSoon;
 
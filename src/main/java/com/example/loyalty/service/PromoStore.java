@@ -0,0 +1,11 @@
+package com.example.loyalty.service;
+
+/**
+ * Blocking-style promo source, such as a JDBC table or a vendor SDK. Plug one in through
+ * {@link com.example.loyalty.service.impl.BlockingPromoClient}, which keeps it off the event loop.
+ */
+public interface PromoStore {
+
+  /** The promo for {@code code}, or null if the code is unknown. May block. */
+  PromoResult find(String code) throws Exception;
+}
@@ -0,0 +1,63 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.exception.UpstreamServiceException;
+import com.example.loyalty.exception.UpstreamTimeoutException;
+import com.example.loyalty.service.PromoClient;
+import com.example.loyalty.service.PromoResult;
+import com.example.loyalty.service.PromoStore;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adapts a blocking {@link PromoStore} to {@link PromoClient}. Each lookup runs through
+ * {@code executeBlocking}: on an event-loop verticle that is a worker thread, and on a verticle
+ * deployed with virtual threads ({@code quote.virtualThreads}) it is a fresh virtual thread, so
+ * blocked lookups cost no platform threads. Lookups are abandoned after {@code timeoutMs}; the store
+ * call itself keeps running, so stores should also bound their own calls (e.g. a JDBC query timeout).
+ */
+public class BlockingPromoClient implements PromoClient {
+  private static final Logger log = LoggerFactory.getLogger(BlockingPromoClient.class);
+
+  private final Vertx vertx;
+  private final PromoStore store;
+  private final long timeoutMs;
+
+  public BlockingPromoClient(Vertx vertx, PromoStore store, long timeoutMs) {
+    this.vertx = vertx;
+    this.store = store;
+    this.timeoutMs = timeoutMs;
+  }
+
+  @Override
+  public Future<PromoResult> getPromo(String code) {
+    if (code == null || code.isBlank()) {
+      return Future.succeededFuture(PromoResult.NONE);
+    }
+
+    Promise<PromoResult> promise = Promise.promise();
+    long timerId = vertx.setTimer(timeoutMs, id -> {
+      if (!promise.future().isComplete()) {
+        log.warn("Promo store lookup timed out after {}ms for code={}", timeoutMs, code);
+        promise.fail(new UpstreamTimeoutException("promo-store",
+            "Promo lookup timed out after " + timeoutMs + "ms"));
+      }
+    });
+
+    vertx.executeBlocking(() -> store.find(code), false).onComplete(ar -> {
+      vertx.cancelTimer(timerId);
+      if (promise.future().isComplete()) {
+        return;
+      }
+      if (ar.succeeded()) {
+        promise.complete(ar.result() != null ? ar.result() : PromoResult.NONE);
+      } else {
+        log.warn("Promo store lookup failed for code={}: {}", code, ar.cause().toString());
+        promise.fail(new UpstreamServiceException("promo-store", "Promo lookup failed for " + code, ar.cause()));
+      }
+    });
+    return promise.future();
+  }
+}
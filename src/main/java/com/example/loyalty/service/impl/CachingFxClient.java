@@ -0,0 +1,135 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.service.FxClient;
+import io.vertx.core.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches FX rates in process. Rates are served from memory for {@code ttlMs}; within the last
+ * {@code refreshAheadMs} of that window a background refresh is started so callers never wait on
+ * FX for a currency that is in use. Concurrent misses for a currency share one upstream call, and
+ * if FX fails (including fast failures while the circuit breaker is open) the last known rate keeps
+ * being served until it is {@code maxStaleMs} old. The {@link RateStore} may be shared by the clients
+ * of several verticle instances.
+ *
+ * <p>Rates restored from a warm-start snapshot are stale until refreshed: the first lookup serves
+ * the restored rate (if younger than {@code maxStaleMs}) and starts a background refresh.
+ */
+public class CachingFxClient implements FxClient {
+  private static final Logger log = LoggerFactory.getLogger(CachingFxClient.class);
+
+  private final FxClient delegate;
+  private final long ttlMs;
+  private final long refreshAheadMs;
+  private final long maxStaleMs;
+  private final LongSupplier clock;
+
+  private final Map<String, Entry> entries;
+  private final SingleFlight<String, Double> flights;
+  private final Function<String, Future<Double>> loader = this::load;
+
+  public CachingFxClient(FxClient delegate, ServiceConfig config) {
+    this(delegate, new RateStore(), config);
+  }
+
+  public CachingFxClient(FxClient delegate, RateStore store, ServiceConfig config) {
+    this(delegate, store, config.fxCacheTtlMs(), config.fxCacheRefreshAheadMs(), config.fxCacheMaxStaleMs(),
+        System::currentTimeMillis);
+  }
+
+  CachingFxClient(FxClient delegate, RateStore store, long ttlMs, long refreshAheadMs, long maxStaleMs,
+                  LongSupplier clock) {
+    this.delegate = delegate;
+    this.entries = store.entries;
+    this.flights = store.flights;
+    this.ttlMs = ttlMs;
+    this.refreshAheadMs = Math.min(refreshAheadMs, ttlMs);
+    this.maxStaleMs = Math.max(maxStaleMs, ttlMs);
+    this.clock = clock;
+    log.info("FX cache initialized: ttl={}ms, refreshAhead={}ms, maxStale={}ms",
+        ttlMs, this.refreshAheadMs, this.maxStaleMs);
+  }
+
+  @Override
+  public Future<Double> getRate(String currency) {
+    Entry cached = entries.get(currency);
+    if (cached == null) {
+      return fetch(currency);
+    }
+
+    long age = clock.getAsLong() - cached.fetchedAt;
+    if (age < ttlMs || (cached.warm && age < maxStaleMs)) {
+      if ((cached.warm || age >= ttlMs - refreshAheadMs) && !flights.isInFlight(currency)) {
+        log.debug("Refreshing FX rate for currency={}, age={}ms, warm={}", currency, age, cached.warm);
+        fetch(currency);
+      }
+      return cached.future;
+    }
+
+    return fetch(currency).recover(err -> {
+      long staleness = clock.getAsLong() - cached.fetchedAt;
+      if (staleness < maxStaleMs) {
+        log.warn("Serving stale FX rate for currency={}, age={}ms: {}", currency, staleness, err.getMessage());
+        return cached.future;
+      }
+      return Future.failedFuture(err);
+    });
+  }
+
+  private Future<Double> fetch(String currency) {
+    return flights.execute(currency, loader);
+  }
+
+  // Stores the rate before the flight completes, so no caller can find neither entry nor flight.
+  private Future<Double> load(String currency) {
+    return delegate.getRate(currency)
+        .onSuccess(rate -> entries.put(currency, new Entry(rate, clock.getAsLong(), false)));
+  }
+
+  // Holds the rate as an already completed future too, so cache hits allocate neither box nor future.
+  private record Entry(double rate, long fetchedAt, boolean warm, Future<Double> future) {
+    Entry(double rate, long fetchedAt, boolean warm) {
+      this(rate, fetchedAt, warm, Future.succeededFuture(rate));
+    }
+  }
+
+  public interface RateVisitor {
+    void visit(String currency, double rate, long fetchedAt);
+  }
+
+  /** Cached rates and in-flight lookups; thread-safe so one store can back every verticle instance. */
+  public static final class RateStore {
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final SingleFlight<String, Double> flights = new SingleFlight<>();
+
+    public SingleFlight<String, Double> flights() {
+      return flights;
+    }
+
+    /**
+     * The cached rate for {@code currency} if it was fetched (not restored from a snapshot) less than
+     * {@code maxAgeMs} before {@code nowMs}, otherwise NaN. Never fetches.
+     */
+    public double freshRate(String currency, long maxAgeMs, long nowMs) {
+      Entry entry = entries.get(currency);
+      return entry == null || entry.warm || nowMs - entry.fetchedAt >= maxAgeMs ? Double.NaN : entry.rate;
+    }
+
+    /** Visits every cached rate with the wall-clock time it was fetched. */
+    public void forEachRate(RateVisitor visitor) {
+      entries.forEach((currency, entry) -> visitor.visit(currency, entry.rate, entry.fetchedAt));
+    }
+
+    /** Restores a rate from a snapshot, as stale; never replaces a rate already fetched. */
+    public boolean warm(String currency, double rate, long fetchedAt) {
+      return entries.putIfAbsent(currency, new Entry(rate, fetchedAt, true)) == null;
+    }
+  }
+}
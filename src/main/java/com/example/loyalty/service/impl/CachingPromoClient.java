@@ -0,0 +1,117 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.service.PointsService;
+import com.example.loyalty.service.PromoClient;
+import com.example.loyalty.service.PromoResult;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.vertx.core.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Size-bounded promo cache, on heap (Caffeine, W-TinyLFU eviction) or, with
+ * {@code promo.cache.offHeap}, in direct memory (see {@link OffHeapPromoCache}). Codes the promo service does not know
+ * are cached for the shorter negative TTL so junk codes cannot hammer it; upstream failures and
+ * timeouts are never cached. The cache is thread-safe and may be shared by the clients of several
+ * verticle instances.
+ */
+public class CachingPromoClient implements PromoClient {
+  private static final Logger log = LoggerFactory.getLogger(CachingPromoClient.class);
+
+  // Quotes reject longer codes up front. Any other caller's longer codes are passed through
+  // uncached, so hostile input cannot pin large keys in memory.
+  static final int MAX_CACHEABLE_CODE_LENGTH = PointsService.MAX_PROMO_CODE_LENGTH;
+
+  private final PromoClient delegate;
+  private final PromoCache cache;
+
+  public CachingPromoClient(PromoClient delegate, ServiceConfig config) {
+    this(delegate, newCache(config));
+  }
+
+  public CachingPromoClient(PromoClient delegate, PromoCache cache) {
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  public static PromoCache newCache(ServiceConfig config) {
+    if (config.promoCacheOffHeap()) {
+      return newOffHeapCache(config.promoCacheMaxSize(), config.promoCacheTtlMs(), config.promoCacheNegativeTtlMs(),
+          Ticker.systemTicker());
+    }
+    return newCache(config.promoCacheMaxSize(), config.promoCacheTtlMs(), config.promoCacheNegativeTtlMs(),
+        Ticker.systemTicker());
+  }
+
+  static PromoCache newCache(int maxSize, long ttlMs, long negativeTtlMs, Ticker ticker) {
+    log.info("Promo cache initialized: maxSize={}, ttl={}ms, negativeTtl={}ms", maxSize, ttlMs, negativeTtlMs);
+    return new CaffeinePromoCache(maxSize, ttlMs, negativeTtlMs, ticker);
+  }
+
+  static PromoCache newOffHeapCache(int maxSize, long ttlMs, long negativeTtlMs, Ticker ticker) {
+    OffHeapPromoCache cache = new OffHeapPromoCache(maxSize, ttlMs, negativeTtlMs, ticker);
+    log.info("Off-heap promo cache initialized: maxSize={}, ttl={}ms, negativeTtl={}ms, directBytes={}",
+        maxSize, ttlMs, negativeTtlMs, cache.offHeapBytes());
+    return cache;
+  }
+
+  @Override
+  public Future<PromoResult> getPromo(String code) {
+    if (code == null || code.isBlank() || code.length() > MAX_CACHEABLE_CODE_LENGTH) {
+      return delegate.getPromo(code);
+    }
+
+    PromoResult cached = cache.getIfPresent(code);
+    if (cached != null) {
+      return Future.succeededFuture(cached);
+    }
+
+    return delegate.getPromo(code).onSuccess(result -> cache.put(code, result));
+  }
+
+  /** Serves cached codes and looks up the rest with one bulk delegate call. */
+  @Override
+  public Future<Map<String, PromoResult>> getPromos(Collection<String> codes) {
+    Map<String, PromoResult> found = new HashMap<>();
+    Set<String> misses = new LinkedHashSet<>();
+    for (String code : codes) {
+      if (code == null || code.isBlank() || found.containsKey(code) || misses.contains(code)) continue;
+      PromoResult cached = code.length() > MAX_CACHEABLE_CODE_LENGTH ? null : cache.getIfPresent(code);
+      if (cached != null) {
+        found.put(code, cached);
+      } else {
+        misses.add(code);
+      }
+    }
+    if (misses.isEmpty()) {
+      return Future.succeededFuture(found);
+    }
+    return delegate.getPromos(misses).map(fetched -> {
+      fetched.forEach((code, result) -> {
+        if (code.length() <= MAX_CACHEABLE_CODE_LENGTH) cache.put(code, result);
+      });
+      found.putAll(fetched);
+      return found;
+    });
+  }
+
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  public long size() {
+    return cache.estimatedSize();
+  }
+
+  void cleanUp() {
+    cache.cleanUp();
+  }
+}
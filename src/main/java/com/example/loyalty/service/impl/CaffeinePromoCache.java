@@ -0,0 +1,94 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.PromoResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** On-heap {@link PromoCache}: Caffeine with W-TinyLFU eviction and per-entry expiry. */
+final class CaffeinePromoCache implements PromoCache {
+  private final Cache<String, PromoResult> cache;
+  private final Policy.VarExpiration<String, PromoResult> expiry;
+
+  CaffeinePromoCache(int maxSize, long ttlMs, long negativeTtlMs, Ticker ticker) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new PromoExpiry(TimeUnit.MILLISECONDS.toNanos(ttlMs), TimeUnit.MILLISECONDS.toNanos(negativeTtlMs)))
+        .ticker(ticker)
+        // Maintenance runs on the caller: handing it to the common pool costs more than the work itself.
+        .executor(Runnable::run)
+        .recordStats()
+        .build();
+    this.expiry = cache.policy().expireVariably().orElseThrow();
+  }
+
+  @Override
+  public PromoResult getIfPresent(String code) {
+    return cache.getIfPresent(code);
+  }
+
+  @Override
+  public PromoResult peek(String code) {
+    return cache.policy().getIfPresentQuietly(code);
+  }
+
+  @Override
+  public void put(String code, PromoResult result) {
+    cache.put(code, result);
+  }
+
+  @Override
+  public boolean putIfAbsent(String code, PromoResult result, long ttlMs) {
+    return expiry.putIfAbsent(code, result, ttlMs, TimeUnit.MILLISECONDS) == null;
+  }
+
+  @Override
+  public void forEachHottest(int limit, EntryVisitor visitor) {
+    Map<String, PromoResult> hottest = cache.policy().eviction()
+        .map(eviction -> eviction.hottest(limit))
+        .orElse(Map.of());
+    for (Map.Entry<String, PromoResult> e : hottest.entrySet()) {
+      long remaining = expiry.getExpiresAfter(e.getKey(), TimeUnit.MILLISECONDS).orElse(0);
+      if (remaining > 0) visitor.visit(e.getKey(), e.getValue(), remaining);
+    }
+  }
+
+  @Override
+  public long estimatedSize() {
+    return cache.estimatedSize();
+  }
+
+  @Override
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  @Override
+  public void cleanUp() {
+    cache.cleanUp();
+  }
+
+  private record PromoExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<String, PromoResult> {
+
+    @Override
+    public long expireAfterCreate(String code, PromoResult result, long currentTime) {
+      return result.bonusPercent > 0 || result.expiresSoon ? ttlNanos : negativeTtlNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(String code, PromoResult result, long currentTime, long currentDuration) {
+      return expireAfterCreate(code, result, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String code, PromoResult result, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
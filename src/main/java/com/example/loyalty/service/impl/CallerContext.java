@@ -0,0 +1,33 @@
+package com.example.loyalty.service.impl;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+/**
+ * Futures shared between verticle instances complete on whichever event loop started the work.
+ * {@link #bind} hands the result back on the calling context so callers stay on their own loop.
+ */
+final class CallerContext {
+
+  private CallerContext() {
+  }
+
+  static <T> Future<T> bind(Future<T> shared) {
+    Context caller = Vertx.currentContext();
+    if (caller == null || shared.isComplete()) {
+      return shared;
+    }
+
+    Promise<T> promise = Promise.promise();
+    shared.onComplete(ar -> {
+      if (Vertx.currentContext() == caller) {
+        promise.handle(ar);
+      } else {
+        caller.runOnContext(v -> promise.handle(ar));
+      }
+    });
+    return promise.future();
+  }
+}
@@ -0,0 +1,29 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.FxClient;
+import io.vertx.core.Future;
+
+import java.util.function.Function;
+
+/**
+ * Concurrent lookups of the same currency share one FX call. Used when the FX cache is disabled;
+ * {@link CachingFxClient} coalesces its own misses and refreshes.
+ */
+public class CoalescingFxClient implements FxClient {
+  private final SingleFlight<String, Double> flights;
+  private final Function<String, Future<Double>> lookup;
+
+  public CoalescingFxClient(FxClient delegate) {
+    this(delegate, new SingleFlight<>());
+  }
+
+  public CoalescingFxClient(FxClient delegate, SingleFlight<String, Double> flights) {
+    this.flights = flights;
+    this.lookup = delegate::getRate;
+  }
+
+  @Override
+  public Future<Double> getRate(String currency) {
+    return flights.execute(currency, lookup);
+  }
+}
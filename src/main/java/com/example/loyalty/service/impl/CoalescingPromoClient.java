@@ -0,0 +1,111 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.exception.UpstreamTimeoutException;
+import com.example.loyalty.service.PromoClient;
+import com.example.loyalty.service.PromoResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Concurrent lookups of the same promo code share one upstream call, so a popular code missing
+ * from the cache costs the promo service one request rather than one per quote. The shared call is
+ * bounded by the delegate's timeout, counted from the start of the caller that started it. Given a
+ * {@link Vertx} and the promo timeout, a caller that joins gets its own timeout counted from when it
+ * joined: if the shared call times out first, the caller looks the code up again (starting or
+ * joining a newer call) for the time it has left, rather than falling back early. Bulk lookups
+ * join codes already in flight and fetch the rest in one delegate call.
+ */
+public class CoalescingPromoClient implements PromoClient {
+  private static final Logger log = LoggerFactory.getLogger(CoalescingPromoClient.class);
+
+  private final PromoClient delegate;
+  private final SingleFlight<String, PromoResult> flights;
+  private final Function<String, Future<PromoResult>> lookup;
+  private final Vertx vertx;
+  private final LongSupplier timeoutMs;
+
+  public CoalescingPromoClient(PromoClient delegate) {
+    this(delegate, new SingleFlight<>());
+  }
+
+  /** Joiners share the starting caller's deadline. */
+  public CoalescingPromoClient(PromoClient delegate, SingleFlight<String, PromoResult> flights) {
+    this(delegate, flights, null, null);
+  }
+
+  /** Joiners get their own {@code timeoutMs}, read when they join so reloads apply. */
+  public CoalescingPromoClient(PromoClient delegate, SingleFlight<String, PromoResult> flights, Vertx vertx,
+                               LongSupplier timeoutMs) {
+    this.delegate = delegate;
+    this.flights = flights;
+    this.lookup = delegate::getPromo;
+    this.vertx = vertx;
+    this.timeoutMs = timeoutMs;
+  }
+
+  @Override
+  public Future<PromoResult> getPromo(String code) {
+    if (code == null || code.isBlank()) {
+      return delegate.getPromo(code);
+    }
+    if (vertx == null) {
+      return flights.execute(code, lookup);
+    }
+    return flights.execute(code, lookup, joined -> withOwnTimeout(code, joined));
+  }
+
+  private Future<PromoResult> withOwnTimeout(String code, Future<PromoResult> joined) {
+    Promise<PromoResult> promise = Promise.promise();
+    long timeout = timeoutMs.getAsLong();
+    long timerId = vertx.setTimer(timeout, id -> {
+      if (promise.tryFail(new UpstreamTimeoutException("promo-service",
+          "Promo lookup timed out after " + timeout + "ms"))) {
+        log.warn("Promo lookup timed out after {}ms for code={} (joined an in-flight lookup)", timeout, code);
+      }
+    });
+    follow(code, joined, promise, timerId);
+    return promise.future();
+  }
+
+  private void follow(String code, Future<PromoResult> flight, Promise<PromoResult> promise, long timerId) {
+    flight.onComplete(ar -> {
+      if (promise.future().isComplete()) {
+        return;
+      }
+      if (ar.failed() && ar.cause() instanceof UpstreamTimeoutException) {
+        // The shared call used up its starter's time, not this caller's.
+        follow(code, flights.execute(code, lookup), promise, timerId);
+        return;
+      }
+      vertx.cancelTimer(timerId);
+      promise.handle(ar);
+    });
+  }
+
+  @Override
+  public Future<Map<String, PromoResult>> getPromos(Collection<String> codes) {
+    List<String> valid = new ArrayList<>(codes.size());
+    for (String code : codes) {
+      if (code != null && !code.isBlank()) valid.add(code);
+    }
+    Map<String, Future<PromoResult>> lookups = flights.executeAll(valid, delegate::getPromos);
+    return Future.join(new ArrayList<>(lookups.values())).transform(v -> {
+      Map<String, PromoResult> found = new HashMap<>();
+      lookups.forEach((code, lookup) -> {
+        if (lookup.succeeded()) found.put(code, lookup.result());
+      });
+      return Future.succeededFuture(found);
+    });
+  }
+}
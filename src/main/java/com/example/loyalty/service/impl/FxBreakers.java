@@ -0,0 +1,99 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.limit.Bulkhead;
+import com.example.loyalty.metrics.Metrics;
+import io.vertx.circuitbreaker.CircuitBreaker;
+import io.vertx.circuitbreaker.CircuitBreakerOptions;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * FX circuit breakers and bulkheads, one of each per currency, so an FX route failing for one
+ * currency opens only that currency's breaker, and a slow route holds at most
+ * {@code fx.bulkhead.maxConcurrent} calls. Both are created on a currency's first lookup (currencies
+ * are validated first, so the set is bounded) and shared by every verticle instance. Breaker state,
+ * in-flight calls and bulkhead rejections are exported per currency.
+ */
+public final class FxBreakers {
+  private static final Logger log = LoggerFactory.getLogger(FxBreakers.class);
+  static final String NAME = "fx-cb";
+
+  private final Vertx vertx;
+  private final Metrics metrics;
+  private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+  private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+  private volatile ServiceConfig config;
+
+  public FxBreakers(Vertx vertx, ServiceConfig config, Metrics metrics) {
+    this.vertx = vertx;
+    this.config = config;
+    this.metrics = metrics;
+    log.info("FX circuit breakers initialized per currency: maxFailures={}, timeout={}ms, resetTimeout={}ms, "
+        + "maxConcurrent={}", config.cbMaxFailures(), config.cbTimeoutMs(), config.cbResetTimeoutMs(),
+        config.fxBulkheadMaxConcurrent());
+  }
+
+  public CircuitBreaker breaker(String currency) {
+    CircuitBreaker breaker = breakers.get(currency);
+    return breaker != null ? breaker : breakers.computeIfAbsent(currency, this::newBreaker);
+  }
+
+  public Bulkhead bulkhead(String currency) {
+    Bulkhead bulkhead = bulkheads.get(currency);
+    return bulkhead != null ? bulkhead : bulkheads.computeIfAbsent(currency, this::newBulkhead);
+  }
+
+  /**
+   * Applies reloaded settings. Breaker options are fixed at creation, so new thresholds replace
+   * every breaker with a closed one; bulkhead caps change in place.
+   */
+  public void reconfigure(ServiceConfig next) {
+    ServiceConfig previous = config;
+    config = next;
+    if (previous.cbMaxFailures() != next.cbMaxFailures() || previous.cbTimeoutMs() != next.cbTimeoutMs()
+        || previous.cbResetTimeoutMs() != next.cbResetTimeoutMs()) {
+      for (String currency : breakers.keySet()) {
+        CircuitBreaker replaced = breakers.put(currency, newBreaker(currency));
+        if (replaced != null) replaced.close();
+      }
+    }
+    bulkheads.values().forEach(bulkhead -> bulkhead.setMaxConcurrent(next.fxBulkheadMaxConcurrent()));
+  }
+
+  /** Closes every breaker; called when the last instance using them stops. */
+  public void close() {
+    breakers.values().forEach(CircuitBreaker::close);
+    breakers.clear();
+  }
+
+  private CircuitBreaker newBreaker(String currency) {
+    ServiceConfig current = config;
+    // Per-currency breakers are observed through Metrics; event-bus notifications would add a
+    // periodic timer and rolling counters per currency that nothing reads.
+    CircuitBreaker breaker = CircuitBreaker.create(NAME + "-" + currency, vertx, new CircuitBreakerOptions()
+        .setMaxFailures(current.cbMaxFailures())
+        .setTimeout(current.cbTimeoutMs())
+        .setResetTimeout(current.cbResetTimeoutMs())
+        .setNotificationAddress(null));
+    metrics.monitor(breaker, "breaker=\"" + NAME + "\"," + labels(currency));
+    return breaker;
+  }
+
+  private Bulkhead newBulkhead(String currency) {
+    Bulkhead bulkhead = new Bulkhead(config.fxBulkheadMaxConcurrent());
+    metrics.registerGauge("loyalty_fx_calls_in_flight", labels(currency),
+        "FX calls holding a bulkhead slot", bulkhead::inFlight);
+    metrics.registerCounter("loyalty_fx_bulkhead_rejected_total", labels(currency),
+        "FX calls rejected because the currency's bulkhead was full", bulkhead::rejected);
+    return bulkhead;
+  }
+
+  private static String labels(String currency) {
+    return "currency=\"" + currency + "\"";
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.metrics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * When and how often to hedge FX calls. The hedge delay tracks a percentile of recent primary FX
+ * latency, floored at {@code fx.hedge.minDelayMs}: successful primary attempts are recorded into a
+ * window of their own (hedges and failures would skew it), and at most once a second a window
+ * holding enough samples sets the delay and is replaced by an empty one, so the delay follows the
+ * current latency rather than the process lifetime. Until the first full window
+ * {@code fx.hedge.initialDelayMs} is used; a window still short of samples keeps filling and the
+ * delay stays as it was. Hedges are paid for from a token bucket that every primary call tops up
+ * by {@code budgetPercent / 100} of a token, so hedging adds at most that share of extra FX load,
+ * with a small burst allowance. Shared by every verticle instance.
+ */
+public final class HedgePolicy {
+  private static final long TOKEN = 1_000;
+  private static final long MAX_TOKENS = 10 * TOKEN;
+  private static final long MIN_SAMPLES = 100;
+  private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final double percentile;
+  private final long minDelayMs;
+  private final long initialDelayMs;
+  private final long creditPerCall;
+  private final LongSupplier nanoClock;
+
+  private final AtomicLong tokens;
+  private final LongAdder hedged = new LongAdder();
+  private final LongAdder won = new LongAdder();
+  private volatile LatencyHistogram window = new LatencyHistogram();
+  private volatile long delayMs;
+  private volatile long delayRefreshedAt;
+
+  public HedgePolicy(ServiceConfig config) {
+    this(config.fxHedgePercentile(), config.fxHedgeMinDelayMs(), config.fxHedgeInitialDelayMs(),
+        config.fxHedgeBudgetPercent(), System::nanoTime);
+  }
+
+  HedgePolicy(double percentile, long minDelayMs, long initialDelayMs, double budgetPercent,
+              LongSupplier nanoClock) {
+    this.percentile = percentile;
+    this.minDelayMs = minDelayMs;
+    this.initialDelayMs = initialDelayMs;
+    this.creditPerCall = Math.round(budgetPercent / 100 * TOKEN);
+    this.tokens = new AtomicLong(creditPerCall > 0 ? MAX_TOKENS : 0);
+    this.nanoClock = nanoClock;
+    this.delayMs = initialDelayMs;
+    this.delayRefreshedAt = nanoClock.getAsLong();
+  }
+
+  /** Called for every primary FX call; earns budget for later hedges. */
+  public void onCall() {
+    if (creditPerCall == 0) return;
+    long current;
+    do {
+      current = tokens.get();
+      if (current >= MAX_TOKENS) return;
+    } while (!tokens.compareAndSet(current, Math.min(MAX_TOKENS, current + creditPerCall)));
+  }
+
+  /** Spends one token for a hedge, or returns false if the budget is used up. */
+  public boolean tryHedge() {
+    long current;
+    do {
+      current = tokens.get();
+      if (current < TOKEN) return false;
+    } while (!tokens.compareAndSet(current, current - TOKEN));
+    hedged.increment();
+    return true;
+  }
+
+  /** Records how long a successful primary (not hedged) FX request took. */
+  public void recordPrimary(long nanos) {
+    window.recordNanos(nanos);
+  }
+
+  public void hedgeWon() {
+    won.increment();
+  }
+
+  public long delayMs() {
+    long now = nanoClock.getAsLong();
+    if (now - delayRefreshedAt >= REFRESH_NANOS) {
+      delayRefreshedAt = now;
+      LatencyHistogram recent = window;
+      if (recent.count() >= MIN_SAMPLES) {
+        window = new LatencyHistogram();
+        delayMs = Math.max(minDelayMs, recent.percentile(percentile) / 1_000);
+      }
+    }
+    return delayMs;
+  }
+
+  public long hedged() {
+    return hedged.sum();
+  }
+
+  public long won() {
+    return won.sum();
+  }
+}
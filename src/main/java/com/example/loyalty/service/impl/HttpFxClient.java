@@ -2,9 +2,10 @@ package com.example.loyalty.service.impl;
 
 import com.example.loyalty.config.ServiceConfig;
 import com.example.loyalty.exception.UpstreamServiceException;
+import com.example.loyalty.limit.Bulkhead;
+import com.example.loyalty.metrics.Metrics;
 import com.example.loyalty.service.FxClient;
 import io.vertx.core.*;
-import io.vertx.circuitbreaker.*;
 import io.vertx.ext.web.client.WebClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,35 +15,60 @@ public class HttpFxClient implements FxClient {
 
   private final Vertx vertx;
   private final WebClient client;
-  private final CircuitBreaker cb;
   private final int port;
   private final String host;
-  private final long retryDelayMs;
+  private final FxBreakers breakers;
+  // Replaced by reconfigure on a config reload; read and written only on this client's event loop.
+  private long retryDelayMs;
+  private long requestTimeoutMs;
+  private final Metrics metrics;
+  private final HedgePolicy hedge;
 
   public HttpFxClient(Vertx vertx, String host, int port) {
-    this(vertx, host, port, 2, 800, 3000, 100);
+    this(vertx, WebClient.create(vertx), host, port, ServiceConfig.fromSystemProperties(), new Metrics());
   }
 
   public HttpFxClient(Vertx vertx, ServiceConfig config) {
-    this(vertx, config.fxHost(), config.fxPort(),
-        config.cbMaxFailures(), config.cbTimeoutMs(), config.cbResetTimeoutMs(), config.fxRetryDelayMs());
+    this(vertx, config, new Metrics());
   }
 
-  private HttpFxClient(Vertx vertx, String host, int port,
-                        int maxFailures, long timeoutMs, long resetTimeoutMs, long retryDelayMs) {
+  public HttpFxClient(Vertx vertx, ServiceConfig config, Metrics metrics) {
+    this(vertx, config, new FxBreakers(vertx, config, metrics), metrics, null);
+  }
+
+  /** With a non-null {@code hedge}, slow FX calls are hedged with a second request. */
+  public HttpFxClient(Vertx vertx, ServiceConfig config, FxBreakers breakers, Metrics metrics, HedgePolicy hedge) {
+    this(vertx, UpstreamWebClients.create(vertx, config, metrics.fxConnections()), config.fxHost(), config.fxPort(),
+        breakers, config.fxRetryDelayMs(), config.cbTimeoutMs(), metrics, hedge);
+  }
+
+  private HttpFxClient(Vertx vertx, WebClient client, String host, int port, ServiceConfig config, Metrics metrics) {
+    this(vertx, client, host, port, new FxBreakers(vertx, config, metrics), config.fxRetryDelayMs(),
+        config.cbTimeoutMs(), metrics, null);
+  }
+
+  private HttpFxClient(Vertx vertx, WebClient client, String host, int port, FxBreakers breakers, long retryDelayMs,
+                       long requestTimeoutMs, Metrics metrics, HedgePolicy hedge) {
     this.vertx = vertx;
-    this.client = WebClient.create(vertx);
+    this.client = client;
     this.host = host;
     this.port = port;
     this.retryDelayMs = retryDelayMs;
-    this.cb = CircuitBreaker.create("fx-cb", vertx,
-            new CircuitBreakerOptions()
-                    .setMaxFailures(maxFailures)
-                    .setTimeout(timeoutMs)
-                    .setResetTimeout(resetTimeoutMs)
-    );
-    log.info("FX client initialized: host={}, port={}, maxFailures={}, timeout={}ms, resetTimeout={}ms",
-        host, port, maxFailures, timeoutMs, resetTimeoutMs);
+    this.requestTimeoutMs = requestTimeoutMs;
+    this.breakers = breakers;
+    this.metrics = metrics;
+    this.hedge = hedge;
+    log.info("FX client initialized: host={}, port={}, circuitBreakers=per-currency, hedging={}", host, port,
+        hedge != null);
+  }
+
+  /**
+   * Switches to the retry delay and breaker timeout from a reloaded config; call on this client's
+   * event loop.
+   */
+  public void reconfigure(long retryDelayMs, long requestTimeoutMs) {
+    this.retryDelayMs = retryDelayMs;
+    this.requestTimeoutMs = requestTimeoutMs;
   }
 
   @Override
@@ -52,17 +78,38 @@ public class HttpFxClient implements FxClient {
   }
 
   private Future<Double> attempt(String currency, int n) {
-    return cb.<Double>execute(promise ->
-            client.get(port, host, "/fx/" + currency)
-                    .send(ar -> {
-                      if (ar.succeeded() && ar.result().statusCode() == 200) {
-                        promise.complete(ar.result().bodyAsJsonObject().getDouble("rate"));
-                      } else {
-                        promise.fail(ar.cause() != null ? ar.cause() : new RuntimeException("FX call failed"));
-                      }
-                    })
-    ).recover(err -> {
+    // A full bulkhead fails fast, without a retry and without counting against the breaker.
+    Bulkhead bulkhead = breakers.bulkhead(currency);
+    if (!bulkhead.tryAcquire()) {
+      log.debug("FX bulkhead full for currency={}, maxConcurrent={}", currency, bulkhead.maxConcurrent());
+      return Future.failedFuture(new UpstreamServiceException("fx-service",
+          "Too many concurrent FX calls for " + currency, null));
+    }
+    // A hedge runs inside the same breaker execution: the breaker (and its timeout) sees one call
+    // that fails only if every request it made failed.
+    Exchange exchange = new Exchange(bulkhead);
+    return breakers.breaker(currency).<Double>execute(promise -> {
+      send(currency, promise, exchange, false);
+      if (hedge != null) {
+        hedge.onCall();
+        long timerId = vertx.setTimer(hedge.delayMs(), t -> {
+          if (exchange.settled || promise.future().isComplete()) return;
+          // The hedge is a request in flight like any other, so it needs a bulkhead slot of its own.
+          if (!bulkhead.tryAcquireSpare()) {
+            log.debug("Not hedging slow FX call for currency={}: bulkhead full", currency);
+          } else if (hedge.tryHedge()) {
+            log.debug("Hedging slow FX call for currency={}", currency);
+            exchange.slots++;
+            send(currency, promise, exchange, true);
+          } else {
+            bulkhead.release();
+          }
+        });
+        promise.future().onComplete(ar -> vertx.cancelTimer(timerId));
+      }
+    }).onComplete(ar -> exchange.settle()).recover(err -> {
       if (n == 0) {
+        metrics.fxRetry();
         log.warn("FX call failed for currency={}, retrying after {}ms: {}", currency, retryDelayMs, err.getMessage());
         Promise<Double> p = Promise.promise();
         vertx.setTimer(retryDelayMs, t -> attempt(currency, 1).onComplete(p));
@@ -73,4 +120,60 @@ public class HttpFxClient implements FxClient {
           new UpstreamServiceException("fx-service", "FX rate lookup failed for " + currency, err));
     });
   }
+
+  // Callbacks run on this client's event loop, so the exchange needs no synchronization.
+  private void send(String currency, Promise<Double> promise, Exchange exchange, boolean isHedge) {
+    long start = System.nanoTime();
+    metrics.fxConnections().requestStarted();
+    exchange.outstanding++;
+    // Bounded like the breaker, so a hanging FX route cannot keep a connection busy after the call failed.
+    client.get(port, host, "/fx/" + currency)
+            .timeout(requestTimeoutMs)
+            .send(ar -> {
+              metrics.fxConnections().requestEnded();
+              long elapsed = System.nanoTime() - start;
+              metrics.fxLatency().recordNanos(elapsed);
+              exchange.outstanding--;
+              if (ar.succeeded() && ar.result().statusCode() == 200) {
+                if (hedge != null && !isHedge) hedge.recordPrimary(elapsed);
+                if (promise.tryComplete(ar.result().bodyAsJsonObject().getDouble("rate")) && isHedge) {
+                  hedge.hedgeWon();
+                }
+              } else if (exchange.outstanding == 0) {
+                promise.tryFail(ar.cause() != null ? ar.cause() : new RuntimeException("FX call failed"));
+              }
+              exchange.releaseIfDone();
+            });
+  }
+
+  /**
+   * One breaker execution's hold on its bulkhead slots: one for the primary request and one more
+   * if it was hedged. They are given back only once the breaker has settled and every request it
+   * sent has ended, so the bulkhead bounds the requests actually in flight, hedges included, rather
+   * than the calls still waiting on the breaker.
+   */
+  private static final class Exchange {
+    private final Bulkhead bulkhead;
+    private int slots = 1;
+    private int outstanding;
+    private boolean settled;
+    private boolean released;
+
+    Exchange(Bulkhead bulkhead) {
+      this.bulkhead = bulkhead;
+    }
+
+    void settle() {
+      settled = true;
+      releaseIfDone();
+    }
+
+    // No request starts after the breaker settled; the last failure may settle it synchronously.
+    void releaseIfDone() {
+      if (settled && outstanding == 0 && !released) {
+        released = true;
+        for (int i = 0; i < slots; i++) bulkhead.release();
+      }
+    }
+  }
 }
@@ -1,13 +1,31 @@
 package com.example.loyalty.service.impl;
 
 import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.exception.UpstreamServiceException;
+import com.example.loyalty.exception.UpstreamTimeoutException;
+import com.example.loyalty.metrics.Metrics;
 import com.example.loyalty.service.PromoClient;
 import com.example.loyalty.service.PromoResult;
 import io.vertx.core.*;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Promo lookups over HTTP ({@code GET /promo/{code}}). With {@code promo.batch.maxCodes > 0},
+ * {@link #getPromos} sends up to that many codes per {@code POST /promo/batch} request; otherwise
+ * it looks codes up one by one.
+ */
 public class HttpPromoClient implements PromoClient {
   private static final Logger log = LoggerFactory.getLogger(HttpPromoClient.class);
 
@@ -15,19 +33,39 @@ public class HttpPromoClient implements PromoClient {
   private final WebClient client;
   private final int port;
   private final String host;
-  private final long timeoutMs;
+  private long timeoutMs; // changed by reconfigure, on this client's event loop
+  private final int batchMaxCodes;
+  private final Metrics metrics;
 
   public HttpPromoClient(Vertx vertx, String host, int port, long timeoutMs) {
+    this(vertx, WebClient.create(vertx), host, port, timeoutMs, 0, new Metrics());
+  }
+
+  private HttpPromoClient(Vertx vertx, WebClient client, String host, int port, long timeoutMs, int batchMaxCodes,
+                          Metrics metrics) {
     this.vertx = vertx;
-    this.client = WebClient.create(vertx);
+    this.client = client;
     this.host = host;
     this.port = port;
     this.timeoutMs = timeoutMs;
-    log.info("Promo client initialized: host={}, port={}, timeout={}ms", host, port, timeoutMs);
+    this.batchMaxCodes = batchMaxCodes;
+    this.metrics = metrics;
+    log.info("Promo client initialized: host={}, port={}, timeout={}ms, batchMaxCodes={}",
+        host, port, timeoutMs, batchMaxCodes);
   }
 
   public HttpPromoClient(Vertx vertx, ServiceConfig config) {
-    this(vertx, config.promoHost(), config.promoPort(), config.promoTimeoutMs());
+    this(vertx, config, new Metrics());
+  }
+
+  public HttpPromoClient(Vertx vertx, ServiceConfig config, Metrics metrics) {
+    this(vertx, UpstreamWebClients.create(vertx, config, metrics.promoConnections()), config.promoHost(),
+        config.promoPort(), config.promoTimeoutMs(), config.promoBatchMaxCodes(), metrics);
+  }
+
+  /** Applies a reloaded timeout to subsequent lookups; call on this client's event loop. */
+  public void reconfigure(long timeoutMs) {
+    this.timeoutMs = timeoutMs;
   }
 
   @Override
@@ -35,42 +73,121 @@ public class HttpPromoClient implements PromoClient {
 
     if (code == null || code.isBlank()) {
       log.debug("No promo code provided, skipping promo lookup");
-      return Future.succeededFuture(new PromoResult(0, false));
+      return Future.succeededFuture(PromoResult.NONE);
     }
 
     log.debug("Looking up promo code={}", code);
     Promise<PromoResult> promise = Promise.promise();
 
-    long timerId = vertx.setTimer(timeoutMs, id -> {
+    long timeout = timeoutMs;
+    long timerId = vertx.setTimer(timeout, id -> {
       if (!promise.future().isComplete()) {
-        log.warn("Promo lookup timed out after {}ms for code={}, falling back to zero bonus", timeoutMs, code);
-        promise.complete(new PromoResult(0, false));
+        log.warn("Promo lookup timed out after {}ms for code={}", timeout, code);
+        promise.fail(new UpstreamTimeoutException("promo-service",
+            "Promo lookup timed out after " + timeout + "ms"));
       }
     });
 
+    long start = System.nanoTime();
+    metrics.promoConnections().requestStarted();
     client.get(port, host, "/promo/" + code)
             .send(ar -> {
               vertx.cancelTimer(timerId);
+              metrics.promoConnections().requestEnded();
+              metrics.promoLatency().recordSince(start);
 
               if (promise.future().isComplete()) {
                 return;
               }
 
               if (ar.succeeded() && ar.result().statusCode() == 200) {
-                var body = ar.result().bodyAsJsonObject();
-                PromoResult result = new PromoResult(
-                        body.getInteger("bonusPercent", 0),
-                        body.getBoolean("expiresSoon", false)
-                );
+                PromoResult result = parse(ar.result().bodyAsJsonObject());
                 log.debug("Promo result for code={}: bonusPercent={}, expiresSoon={}",
                     code, result.bonusPercent, result.expiresSoon);
                 promise.complete(result);
+              } else if (ar.succeeded() && ar.result().statusCode() == 404) {
+                log.debug("Promo code={} not known to promo service", code);
+                promise.complete(PromoResult.NONE);
               } else {
-                log.warn("Promo lookup failed for code={}, falling back to zero bonus", code);
-                promise.complete(new PromoResult(0, false));
+                log.warn("Promo lookup failed for code={}", code);
+                promise.fail(new UpstreamServiceException("promo-service",
+                    "Promo lookup failed for " + code, ar.cause()));
               }
             });
 
     return promise.future();
   }
+
+  @Override
+  public Future<Map<String, PromoResult>> getPromos(Collection<String> codes) {
+    if (batchMaxCodes <= 0) {
+      return PromoClient.super.getPromos(codes);
+    }
+    Set<String> distinct = new LinkedHashSet<>();
+    for (String code : codes) {
+      if (code != null && !code.isBlank()) distinct.add(code);
+    }
+    List<String> pending = new ArrayList<>(distinct);
+    List<Future<Map<String, PromoResult>>> batches = new ArrayList<>();
+    for (int from = 0; from < pending.size(); from += batchMaxCodes) {
+      batches.add(getBatch(pending.subList(from, Math.min(pending.size(), from + batchMaxCodes))));
+    }
+
+    // A failed batch only leaves its own codes out of the result.
+    return Future.join(batches).transform(v -> {
+      Map<String, PromoResult> found = new HashMap<>();
+      for (Future<Map<String, PromoResult>> batch : batches) {
+        if (batch.succeeded()) found.putAll(batch.result());
+      }
+      return Future.succeededFuture(found);
+    });
+  }
+
+  private Future<Map<String, PromoResult>> getBatch(List<String> codes) {
+    log.debug("Looking up {} promo codes in one batch", codes.size());
+    Promise<Map<String, PromoResult>> promise = Promise.promise();
+
+    long timeout = timeoutMs;
+    long timerId = vertx.setTimer(timeout, id -> {
+      if (!promise.future().isComplete()) {
+        log.warn("Promo batch lookup timed out after {}ms for {} codes", timeout, codes.size());
+        promise.fail(new UpstreamTimeoutException("promo-service",
+            "Promo batch lookup timed out after " + timeout + "ms"));
+      }
+    });
+
+    long start = System.nanoTime();
+    metrics.promoConnections().requestStarted();
+    client.post(port, host, "/promo/batch")
+        .sendJsonObject(new JsonObject().put("codes", new JsonArray(new ArrayList<>(codes))), ar -> {
+          vertx.cancelTimer(timerId);
+          metrics.promoConnections().requestEnded();
+          metrics.promoLatency().recordSince(start);
+
+          if (promise.future().isComplete()) {
+            return;
+          }
+
+          if (ar.succeeded() && ar.result().statusCode() == 200) {
+            // Codes the promo service does not know are left out of its answer.
+            JsonObject promos = ar.result().bodyAsJsonObject().getJsonObject("promos", new JsonObject());
+            Map<String, PromoResult> found = new HashMap<>();
+            for (String code : codes) {
+              JsonObject promo = promos.getJsonObject(code);
+              found.put(code, promo == null ? PromoResult.NONE : parse(promo));
+            }
+            promise.complete(found);
+          } else {
+            log.warn("Promo batch lookup failed for {} codes", codes.size());
+            promise.fail(new UpstreamServiceException("promo-service",
+                "Promo batch lookup failed for " + codes.size() + " codes", ar.cause()));
+          }
+        });
+
+    return promise.future();
+  }
+
+  private static PromoResult parse(JsonObject body) {
+    return new PromoResult(body.getInteger("bonusPercent", 0), body.getBoolean("expiresSoon", false));
+  }
 }
@@ -0,0 +1,380 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.PromoResult;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link PromoCache} whose entries live in direct {@link ByteBuffer} slabs rather than as heap
+ * objects, so the heap (and GC work) stays flat however many codes are cached. Each slab is an
+ * open-addressing table with linear probing and backward-shift deletion (no tombstones) of fixed
+ * 88-byte slots:
+ *
+ * <pre>
+ *  0 int  hash            4 int  bonusPercent     8 long expiresAt (ticker nanos)
+ * 16 byte used           17 byte flags (1 = expiresSoon)
+ * 18 byte frequency      19 byte key length      20 key, up to 64 ASCII bytes
+ * </pre>
+ *
+ * Tables are kept at most half full. When a slab reaches its share of {@code maxSize}, a GCLOCK
+ * sweep evicts the first expired or least recently used entry. Slabs are independent segments,
+ * each guarded by its own lock; there are about four per core, fewer for small caches, so event
+ * loops rarely contend. Codes longer than 64 characters or containing non-ASCII characters are not
+ * cached. Lookups and inserts do not allocate; results are returned as shared instances.
+ */
+final class OffHeapPromoCache implements PromoCache {
+  static final int MAX_KEY_LENGTH = 64;
+
+  private static final int SLOT = 88;
+  private static final int HASH = 0;
+  private static final int BONUS = 4;
+  private static final int EXPIRES_AT = 8;
+  private static final int USED = 16;
+  private static final int FLAGS = 17;
+  private static final int FREQUENCY = 18;
+  private static final int KEY_LENGTH = 19;
+  private static final int KEY = 20;
+  private static final int MAX_FREQUENCY = 15;
+  private static final int MIN_SEGMENT_ENTRIES = 256;
+  private static final int MAX_SEGMENTS = 256;
+
+  // forEachHottest ranks entries as packed longs, so scanning allocates nothing per entry:
+  // frequency (4 bits) | segment (8) | slot (25; a slab holds under 2^25 slots) | low hash bits (26).
+  private static final int RANK_SEGMENT_SHIFT = 51;
+  private static final int RANK_SLOT_SHIFT = 26;
+  private static final int RANK_FREQUENCY_SHIFT = 59;
+  private static final int RANK_HASH_MASK = (1 << RANK_SLOT_SHIFT) - 1;
+
+  // Results are immutable, so the common ones are shared rather than allocated per hit.
+  private static final PromoResult[] SHARED = new PromoResult[2 * 101];
+
+  static {
+    for (int bonus = 0; bonus <= 100; bonus++) {
+      SHARED[bonus * 2] = new PromoResult(bonus, false);
+      SHARED[bonus * 2 + 1] = new PromoResult(bonus, true);
+    }
+    SHARED[0] = PromoResult.NONE;
+  }
+
+  private final Segment[] segments;
+  private final long ttlNanos;
+  private final long negativeTtlNanos;
+  private final Ticker ticker;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  OffHeapPromoCache(int maxSize, long ttlMs, long negativeTtlMs, Ticker ticker) {
+    int segmentCount = segmentCount(maxSize, Runtime.getRuntime().availableProcessors());
+    int perSegment = Math.max(1, maxSize / segmentCount);
+    long slots = Math.max(16, Long.highestOneBit(perSegment * 2L - 1) << 1);
+    if (slots * SLOT > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("promo.cache.maxSize too large for off-heap slabs: " + maxSize);
+    }
+    this.segments = new Segment[segmentCount];
+    for (int i = 0; i < segmentCount; i++) {
+      segments[i] = new Segment((int) slots, perSegment);
+    }
+    this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMs);
+    this.ticker = ticker;
+  }
+
+  /** About four segments per core, each holding at least {@value #MIN_SEGMENT_ENTRIES} entries; a power of two. */
+  static int segmentCount(int maxSize, int cores) {
+    int wanted = Integer.highestOneBit(Math.max(1, cores) * 4 - 1) << 1;
+    int bySize = Integer.highestOneBit(Math.max(1, maxSize / MIN_SEGMENT_ENTRIES));
+    return Math.min(MAX_SEGMENTS, Math.min(wanted, bySize));
+  }
+
+  int segments() {
+    return segments.length;
+  }
+
+  /** Direct memory held by the slabs, in bytes. */
+  long offHeapBytes() {
+    long bytes = 0;
+    for (Segment segment : segments) bytes += segment.slab.capacity();
+    return bytes;
+  }
+
+  @Override
+  public PromoResult getIfPresent(String code) {
+    if (!cacheable(code)) {
+      misses.increment();
+      return null;
+    }
+    int hash = hash(code);
+    PromoResult result = segmentFor(hash).get(code, hash, ticker.read(), true);
+    (result != null ? hits : misses).increment();
+    return result;
+  }
+
+  @Override
+  public PromoResult peek(String code) {
+    if (!cacheable(code)) return null;
+    int hash = hash(code);
+    return segmentFor(hash).get(code, hash, ticker.read(), false);
+  }
+
+  @Override
+  public void put(String code, PromoResult result) {
+    long ttl = result.bonusPercent > 0 || result.expiresSoon ? ttlNanos : negativeTtlNanos;
+    store(code, result, ttl, true);
+  }
+
+  @Override
+  public boolean putIfAbsent(String code, PromoResult result, long ttlMs) {
+    return store(code, result, TimeUnit.MILLISECONDS.toNanos(ttlMs), false);
+  }
+
+  private boolean store(String code, PromoResult result, long ttlNanos, boolean replace) {
+    if (!cacheable(code) || ttlNanos <= 0) return false;
+    int hash = hash(code);
+    return segmentFor(hash).put(code, hash, result, ticker.read() + ttlNanos, replace);
+  }
+
+  /**
+   * Ranks live entries in a min-heap of at most {@code limit} packed longs, then reads back only the
+   * winners, so the scan allocates nothing per entry. Each segment is locked only while it is
+   * scanned or read; an entry that moved or expired in between is skipped. The visitor runs
+   * without any lock held. The scan is proportional to the cache size; call it off the event loop.
+   */
+  @Override
+  public void forEachHottest(int limit, EntryVisitor visitor) {
+    if (limit <= 0) return;
+    long now = ticker.read();
+    long[] heap = new long[(int) Math.min(limit, Math.max(1, estimatedSize()))];
+    int size = 0;
+    for (int i = 0; i < segments.length; i++) size = segments[i].rank(i, now, heap, size);
+
+    Arrays.sort(heap, 0, size);
+    for (int i = size - 1; i >= 0; i--) {
+      long rank = heap[i];
+      Snapshot s = segments[(int) (rank >>> RANK_SEGMENT_SHIFT) & (MAX_SEGMENTS - 1)]
+          .read((int) (rank >>> RANK_SLOT_SHIFT) & ((1 << (RANK_SEGMENT_SHIFT - RANK_SLOT_SHIFT)) - 1),
+              (int) rank & RANK_HASH_MASK, ticker.read());
+      if (s != null) visitor.visit(s.code, s.result, TimeUnit.NANOSECONDS.toMillis(s.remainingNanos));
+    }
+  }
+
+  @Override
+  public long estimatedSize() {
+    long size = 0;
+    for (Segment segment : segments) size += segment.size();
+    return size;
+  }
+
+  @Override
+  public CacheStats stats() {
+    return CacheStats.of(hits.sum(), misses.sum(), 0, 0, 0, evictions.sum(), evictions.sum());
+  }
+
+  @Override
+  public void cleanUp() {
+    // Expired entries are dropped lazily on access and by the eviction sweep.
+  }
+
+  // Slots come from the low hash bits, so the segment takes the top bits of a remix instead.
+  private Segment segmentFor(int hash) {
+    return segments[((hash * 0x85EBCA6B) >>> 24) & (segments.length - 1)];
+  }
+
+  private static boolean cacheable(String code) {
+    if (code == null || code.isEmpty() || code.length() > MAX_KEY_LENGTH) return false;
+    for (int i = 0; i < code.length(); i++) {
+      if (code.charAt(i) > 0x7F) return false;
+    }
+    return true;
+  }
+
+  private static int hash(String code) {
+    int h = code.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static PromoResult result(int bonusPercent, boolean expiresSoon) {
+    return bonusPercent >= 0 && bonusPercent <= 100
+        ? SHARED[bonusPercent * 2 + (expiresSoon ? 1 : 0)]
+        : new PromoResult(bonusPercent, expiresSoon);
+  }
+
+  private record Snapshot(String code, PromoResult result, long remainingNanos) {
+  }
+
+  // Min-heap on the packed rank; the root is the weakest entry kept so far.
+  private static int offer(long[] heap, int size, long rank) {
+    if (size < heap.length) {
+      int i = size++;
+      while (i > 0 && heap[(i - 1) >>> 1] > rank) {
+        heap[i] = heap[(i - 1) >>> 1];
+        i = (i - 1) >>> 1;
+      }
+      heap[i] = rank;
+    } else if (rank > heap[0]) {
+      int i = 0;
+      while (true) {
+        int child = 2 * i + 1;
+        if (child >= size) break;
+        if (child + 1 < size && heap[child + 1] < heap[child]) child++;
+        if (heap[child] >= rank) break;
+        heap[i] = heap[child];
+        i = child;
+      }
+      heap[i] = rank;
+    }
+    return size;
+  }
+
+  private final class Segment {
+    private final ByteBuffer slab;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+    private int hand;
+
+    Segment(int slots, int maxEntries) {
+      this.slab = ByteBuffer.allocateDirect(slots * SLOT);
+      this.mask = slots - 1;
+      this.maxEntries = maxEntries;
+    }
+
+    synchronized int size() {
+      return size;
+    }
+
+    // A touching read bumps the entry's frequency and drops it if expired; a peek changes nothing.
+    synchronized PromoResult get(String code, int hash, long now, boolean touch) {
+      int slot = find(code, hash);
+      if (slot < 0) return null;
+      int base = slot * SLOT;
+      if (now - slab.getLong(base + EXPIRES_AT) >= 0) {
+        if (touch) delete(slot);
+        return null;
+      }
+      int frequency = slab.get(base + FREQUENCY);
+      if (touch && frequency < MAX_FREQUENCY) slab.put(base + FREQUENCY, (byte) (frequency + 1));
+      return result(slab.getInt(base + BONUS), (slab.get(base + FLAGS) & 1) != 0);
+    }
+
+    synchronized boolean put(String code, int hash, PromoResult result, long expiresAt, boolean replace) {
+      int slot = find(code, hash);
+      if (slot >= 0) {
+        if (!replace && ticker.read() - slab.getLong(slot * SLOT + EXPIRES_AT) < 0) return false;
+        writeValue(slot * SLOT, result, expiresAt);
+        return true;
+      }
+      if (size >= maxEntries) evictOne();
+      slot = hash & mask;
+      while (slab.get(slot * SLOT + USED) != 0) slot = (slot + 1) & mask;
+      int base = slot * SLOT;
+      slab.putInt(base + HASH, hash);
+      slab.put(base + USED, (byte) 1);
+      slab.put(base + FREQUENCY, (byte) 0);
+      slab.put(base + KEY_LENGTH, (byte) code.length());
+      for (int i = 0; i < code.length(); i++) slab.put(base + KEY + i, (byte) code.charAt(i));
+      writeValue(base, result, expiresAt);
+      size++;
+      return true;
+    }
+
+    synchronized int rank(int segment, long now, long[] heap, int size) {
+      for (int slot = 0; slot <= mask; slot++) {
+        int base = slot * SLOT;
+        if (slab.get(base + USED) == 0 || slab.getLong(base + EXPIRES_AT) - now <= 0) continue;
+        size = offer(heap, size, (long) slab.get(base + FREQUENCY) << RANK_FREQUENCY_SHIFT
+            | (long) segment << RANK_SEGMENT_SHIFT | (long) slot << RANK_SLOT_SHIFT
+            | (slab.getInt(base + HASH) & RANK_HASH_MASK));
+      }
+      return size;
+    }
+
+    synchronized Snapshot read(int slot, int hashBits, long now) {
+      if (slot > mask) return null;
+      int base = slot * SLOT;
+      long remaining = slab.getLong(base + EXPIRES_AT) - now;
+      if (slab.get(base + USED) == 0 || (slab.getInt(base + HASH) & RANK_HASH_MASK) != hashBits || remaining <= 0) {
+        return null;
+      }
+      byte[] key = new byte[slab.get(base + KEY_LENGTH)];
+      slab.get(base + KEY, key);
+      return new Snapshot(new String(key, StandardCharsets.US_ASCII),
+          result(slab.getInt(base + BONUS), (slab.get(base + FLAGS) & 1) != 0), remaining);
+    }
+
+    private void writeValue(int base, PromoResult result, long expiresAt) {
+      slab.putInt(base + BONUS, result.bonusPercent);
+      slab.put(base + FLAGS, (byte) (result.expiresSoon ? 1 : 0));
+      slab.putLong(base + EXPIRES_AT, expiresAt);
+    }
+
+    private int find(String code, int hash) {
+      int slot = hash & mask;
+      while (true) {
+        int base = slot * SLOT;
+        if (slab.get(base + USED) == 0) return -1;
+        if (slab.getInt(base + HASH) == hash && keyEquals(base, code)) return slot;
+        slot = (slot + 1) & mask;
+      }
+    }
+
+    private boolean keyEquals(int base, String code) {
+      if (slab.get(base + KEY_LENGTH) != code.length()) return false;
+      for (int i = 0; i < code.length(); i++) {
+        if (slab.get(base + KEY + i) != (byte) code.charAt(i)) return false;
+      }
+      return true;
+    }
+
+    // GCLOCK: sweep from the hand, ageing frequencies, and evict the first expired or cold entry.
+    private void evictOne() {
+      long now = ticker.read();
+      while (true) {
+        int base = hand * SLOT;
+        if (slab.get(base + USED) != 0) {
+          int frequency = slab.get(base + FREQUENCY);
+          if (frequency == 0 || now - slab.getLong(base + EXPIRES_AT) >= 0) {
+            delete(hand);
+            evictions.increment();
+            return;
+          }
+          slab.put(base + FREQUENCY, (byte) (frequency - 1));
+        }
+        hand = (hand + 1) & mask;
+      }
+    }
+
+    // Backward-shift deletion: pull later entries of the probe run into the hole so lookups never
+    // stop early at an empty slot.
+    private void delete(int slot) {
+      int hole = slot;
+      int next = slot;
+      while (true) {
+        next = (next + 1) & mask;
+        int nextBase = next * SLOT;
+        if (slab.get(nextBase + USED) == 0) break;
+        int home = slab.getInt(nextBase + HASH) & mask;
+        boolean stays = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+        if (stays) continue;
+        copySlot(next, hole);
+        hole = next;
+      }
+      slab.put(hole * SLOT + USED, (byte) 0);
+      size--;
+    }
+
+    private void copySlot(int from, int to) {
+      int src = from * SLOT;
+      int dst = to * SLOT;
+      for (int i = 0; i < SLOT; i += 8) {
+        slab.putLong(dst + i, slab.getLong(src + i));
+      }
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.PromoResult;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Size-bounded, expiring store of promo lookups behind {@link CachingPromoClient}. Known codes live
+ * for the promo TTL and unknown codes ({@code bonusPercent == 0 && !expiresSoon}) for the shorter
+ * negative TTL. Implementations are thread-safe so one cache can back every verticle instance.
+ */
+public interface PromoCache {
+
+  interface EntryVisitor {
+    void visit(String code, PromoResult result, long remainingMs);
+  }
+
+  /** The cached result, or null if absent or expired; counts a hit or a miss. */
+  PromoResult getIfPresent(String code);
+
+  /**
+   * Like {@link #getIfPresent} but quiet: counts neither a hit nor a miss and does not mark the entry
+   * as used, so reads that are not lookups leave stats and eviction order alone.
+   */
+  PromoResult peek(String code);
+
+  /** Caches a freshly looked-up result with the TTL for its kind. Codes the cache cannot hold are ignored. */
+  void put(String code, PromoResult result);
+
+  /** Caches a restored result for {@code ttlMs} unless the code is already cached; returns whether it was stored. */
+  boolean putIfAbsent(String code, PromoResult result, long ttlMs);
+
+  /** Visits up to {@code limit} live entries, most frequently used first, with their remaining TTL. */
+  void forEachHottest(int limit, EntryVisitor visitor);
+
+  long estimatedSize();
+
+  CacheStats stats();
+
+  /** Performs pending maintenance such as evictions; for tests. */
+  void cleanUp();
+}
@@ -0,0 +1,86 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.PromoClient;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the most requested promo codes cached: each run takes the {@code topN} hottest entries of
+ * the promo cache that would expire within {@code refreshWithinMs}, looks them up again with one
+ * bulk call and stores the answers, so popular codes are refreshed before they expire instead of
+ * missing on the next quote. Codes that could not be looked up keep their current entry. The cache
+ * scan runs on a worker thread; the bulk lookup is sent from the caller's context.
+ */
+public final class PromoPrefetcher {
+  private static final Logger log = LoggerFactory.getLogger(PromoPrefetcher.class);
+
+  private final Vertx vertx;
+  private final PromoCache cache;
+  private final int topN;
+  private final long refreshWithinMs;
+  private final AtomicReference<Object> owner = new AtomicReference<>();
+  private final LongAdder prefetched = new LongAdder();
+
+  public PromoPrefetcher(Vertx vertx, PromoCache cache, int topN, long refreshWithinMs) {
+    this.vertx = vertx;
+    this.cache = cache;
+    this.topN = topN;
+    this.refreshWithinMs = refreshWithinMs;
+  }
+
+  /**
+   * True if {@code owner} holds the claim, taking it when nobody does; one verticle instance
+   * prefetches for the process. Instances ask on every run, so when the owner {@link #release}s the
+   * claim on stop, another one takes over.
+   */
+  public boolean claim(Object owner) {
+    return this.owner.compareAndSet(null, owner) || this.owner.get() == owner;
+  }
+
+  /** Gives up the claim if {@code owner} holds it. */
+  public void release(Object owner) {
+    this.owner.compareAndSet(owner, null);
+  }
+
+  /** Refreshes the hot codes that are about to expire; returns how many were stored. */
+  public Future<Integer> prefetch(PromoClient upstream) {
+    return vertx.executeBlocking(this::dueCodes, false).compose(codes -> refresh(upstream, codes));
+  }
+
+  private List<String> dueCodes() {
+    List<String> codes = new ArrayList<>();
+    cache.forEachHottest(topN, (code, result, remainingMs) -> {
+      if (remainingMs <= refreshWithinMs) codes.add(code);
+    });
+    return codes;
+  }
+
+  private Future<Integer> refresh(PromoClient upstream, List<String> codes) {
+    if (codes.isEmpty()) {
+      return Future.succeededFuture(0);
+    }
+    return upstream.getPromos(codes)
+        .map(found -> {
+          found.forEach(cache::put);
+          prefetched.add(found.size());
+          log.debug("Prefetched {} of {} hot promo codes", found.size(), codes.size());
+          return found.size();
+        })
+        .recover(err -> {
+          log.warn("Promo prefetch failed: {}", err.toString());
+          return Future.succeededFuture(0);
+        });
+  }
+
+  /** Codes stored by prefetch runs so far. */
+  public long prefetched() {
+    return prefetched.sum();
+  }
+}
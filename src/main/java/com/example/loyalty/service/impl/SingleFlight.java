@@ -0,0 +1,115 @@
+package com.example.loyalty.service.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the call, later callers join
+ * its future until it completes. The entry is removed on completion, success or failure, so a
+ * failure is only seen by the callers that overlapped it. Thread-safe so one instance can be
+ * shared by every verticle instance; joiners get the result back on their own context.
+ */
+public final class SingleFlight<K, V> {
+  private final Map<K, Future<V>> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder joined = new LongAdder();
+
+  public Future<V> execute(K key, Function<? super K, Future<V>> call) {
+    return execute(key, call, UnaryOperator.identity());
+  }
+
+  /**
+   * Like {@link #execute(Object, Function)}, but a caller that joins an in-flight call gets its
+   * future through {@code onJoin}, for example to put its own deadline on it. The caller that
+   * starts the call gets the call's future as is.
+   */
+  public Future<V> execute(K key, Function<? super K, Future<V>> call, UnaryOperator<Future<V>> onJoin) {
+    Future<V> pending = inFlight.get(key);
+    if (pending != null) {
+      return onJoin.apply(join(pending));
+    }
+
+    Promise<V> promise = Promise.promise();
+    pending = inFlight.putIfAbsent(key, promise.future());
+    if (pending != null) {
+      return onJoin.apply(join(pending));
+    }
+
+    Future<V> result;
+    try {
+      result = call.apply(key);
+    } catch (RuntimeException e) {
+      result = Future.failedFuture(e);
+    }
+    result.onComplete(ar -> {
+      inFlight.remove(key, promise.future());
+      promise.handle(ar);
+    });
+    return promise.future();
+  }
+
+  /**
+   * Bulk form of {@link #execute}: keys already in flight are joined, and the rest are fetched by a
+   * single {@code call} with the list of those keys. Returns one future per distinct key; a key
+   * missing from the call's result fails with {@link NoSuchElementException}.
+   */
+  public Map<K, Future<V>> executeAll(Collection<? extends K> keys, Function<List<K>, Future<Map<K, V>>> call) {
+    Map<K, Future<V>> results = new LinkedHashMap<>();
+    Map<K, Promise<V>> started = new LinkedHashMap<>();
+    for (K key : keys) {
+      if (results.containsKey(key)) continue;
+      Promise<V> promise = Promise.promise();
+      Future<V> pending = inFlight.putIfAbsent(key, promise.future());
+      if (pending != null) {
+        results.put(key, join(pending));
+      } else {
+        started.put(key, promise);
+        results.put(key, promise.future());
+      }
+    }
+    if (started.isEmpty()) {
+      return results;
+    }
+
+    Future<Map<K, V>> result;
+    try {
+      result = call.apply(new ArrayList<>(started.keySet()));
+    } catch (RuntimeException e) {
+      result = Future.failedFuture(e);
+    }
+    result.onComplete(ar -> started.forEach((key, promise) -> {
+      inFlight.remove(key, promise.future());
+      V value = ar.succeeded() ? ar.result().get(key) : null;
+      if (value != null) {
+        promise.complete(value);
+      } else {
+        promise.fail(ar.failed() ? ar.cause() : new NoSuchElementException("No result for " + key));
+      }
+    }));
+    return results;
+  }
+
+  public boolean isInFlight(K key) {
+    return inFlight.containsKey(key);
+  }
+
+  /** Calls served by joining another caller's in-flight call. */
+  public long joined() {
+    return joined.sum();
+  }
+
+  private Future<V> join(Future<V> pending) {
+    joined.increment();
+    return CallerContext.bind(pending);
+  }
+}
@@ -0,0 +1,61 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.metrics.ConnectionPoolMetrics;
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpVersion;
+import io.vertx.core.http.PoolOptions;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the FX and promo WebClients from the {@code upstream.http.*} settings. Connections are
+ * pooled and kept alive. With HTTP/2, concurrent calls share multiplexed h2c connections, using
+ * prior knowledge instead of an upgrade round trip. Opened and closed connections are counted
+ * so pool churn shows up in /metrics.
+ */
+final class UpstreamWebClients {
+  private UpstreamWebClients() {
+  }
+
+  static WebClient create(Vertx vertx, ServiceConfig config, ConnectionPoolMetrics pool) {
+    WebClientOptions options = options(config);
+    PoolOptions poolOptions = new PoolOptions()
+        .setHttp1MaxSize(config.upstreamPoolSize())
+        .setHttp2MaxSize(config.upstreamPoolSize());
+
+    pool.clientCreated(config.upstreamPoolSize());
+    HttpClient http = vertx.httpClientBuilder()
+        .with(options)
+        .with(poolOptions)
+        .withConnectHandler(conn -> {
+          pool.connectionOpened();
+          conn.closeHandler(v -> pool.connectionClosed());
+        })
+        .build();
+    return WebClient.wrap(http, options);
+  }
+
+  static WebClientOptions options(ServiceConfig config) {
+    WebClientOptions options = new WebClientOptions();
+    options
+        .setKeepAlive(config.upstreamKeepAlive())
+        .setKeepAliveTimeout(config.upstreamKeepAliveTimeoutSec())
+        .setPipelining(config.upstreamPipelining())
+        .setPipeliningLimit(config.upstreamPipeliningLimit())
+        .setConnectTimeout(config.upstreamConnectTimeoutMs())
+        .setIdleTimeout(config.upstreamIdleTimeoutSec())
+        .setIdleTimeoutUnit(TimeUnit.SECONDS);
+    if (config.upstreamHttp2()) {
+      options
+          .setProtocolVersion(HttpVersion.HTTP_2)
+          .setHttp2ClearTextUpgrade(false)
+          .setHttp2MultiplexingLimit(config.upstreamHttp2MultiplexingLimit())
+          .setHttp2KeepAliveTimeout(config.upstreamKeepAliveTimeoutSec());
+    }
+    return options;
+  }
+}
@@ -5,19 +5,42 @@ import io.qameta.allure.Epic;
 import io.qameta.allure.Feature;
 import io.qameta.allure.Severity;
 import io.qameta.allure.SeverityLevel;
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.service.PromoResult;
+import com.example.loyalty.service.PromoStore;
+import com.example.loyalty.service.impl.BlockingPromoClient;
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.HttpResponse;
 import io.vertx.ext.web.client.WebClient;
+import io.vertx.junit5.Checkpoint;
 import io.vertx.junit5.VertxExtension;
 import io.vertx.junit5.VertxTestContext;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.*;
 import static com.github.tomakehurst.wiremock.stubbing.Scenario.STARTED;
 import static org.assertj.core.api.Assertions.assertThat;
 import com.github.tomakehurst.wiremock.WireMockServer;
 
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.zip.GZIPInputStream;
+
 
 
 @ExtendWith(VertxExtension.class)
@@ -67,6 +90,20 @@ class PointsQuoteComponentTest {
     System.setProperty("promo.port", String.valueOf(promo.port()));
     System.setProperty("promo.timeoutMs", "200");
     System.setProperty("http.port", "0");
+    System.clearProperty("limiter.initialLimit");
+    System.clearProperty("limiter.minLimit");
+    System.clearProperty("limiter.maxLimit");
+    System.clearProperty("fx.hedge.enabled");
+    System.clearProperty("fx.hedge.initialDelayMs");
+    System.clearProperty("fx.hedge.budgetPercent");
+    System.clearProperty("config.path");
+    System.clearProperty("config.reloadIntervalMs");
+    System.clearProperty("responseCache.ttlMs");
+    System.clearProperty("fx.cache.ttlMs");
+    System.clearProperty("fx.cache.refreshAheadMs");
+    System.clearProperty("promo.batch.maxCodes");
+    System.clearProperty("http.compression.enabled");
+    System.clearProperty("points.cap");
   }
 
   @Test
@@ -216,6 +253,269 @@ class PointsQuoteComponentTest {
   }
 
 
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Verifies FX and promo lookups overlap instead of running back to back")
+  void latency_fxAndPromoLookupsOverlap(Vertx vertx, VertxTestContext ctx) {
+    fx.resetAll();
+    promo.resetAll();
+    fx.stubFor(get(urlEqualTo("/fx/USD"))
+      .willReturn(okJson("{\"rate\":3.67}").withFixedDelay(600)));
+    promo.stubFor(get(urlEqualTo("/promo/SUMMER25"))
+      .willReturn(okJson("{\"bonusPercent\":25,\"expiresSoon\":true}").withFixedDelay(150)));
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      long start = System.nanoTime();
+      WebClient.create(vertx)
+        .post(port, "localhost", "/v1/points/quote")
+        .putHeader("Content-Type", "application/json")
+        .sendJsonObject(new JsonObject()
+          .put("fareAmount", 1234.50)
+          .put("currency", "USD")
+          .put("cabinClass", "ECONOMY")
+          .put("customerTier", "SILVER")
+          .put("promoCode", "SUMMER25"), res -> ctx.verify(() -> {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            assertThat(res.result().statusCode()).isEqualTo(200);
+            // promo result was still applied, so the promo call really ran alongside the slow FX call
+            assertThat(res.result().bodyAsJsonObject().getInteger("promoBonus")).isEqualTo(308);
+            assertThat(elapsedMs).isLessThan(600 + 150);
+            ctx.completeNow();
+          }));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.CRITICAL)
+  @Description("Verifies the batch endpoint returns per-item results in order with one upstream call per distinct key")
+  void batch_returnsItemsInOrder_withDeduplicatedUpstreamCalls(Vertx vertx, VertxTestContext ctx) {
+    JsonObject quote = new JsonObject()
+      .put("fareAmount", 1234.50)
+      .put("currency", "USD")
+      .put("cabinClass", "ECONOMY")
+      .put("customerTier", "SILVER")
+      .put("promoCode", "SUMMER25");
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient.create(vertx)
+        .post(port, "localhost", "/v1/points/quotes")
+        .putHeader("Content-Type", "application/json")
+        .sendJson(new JsonArray()
+          .add(quote)
+          .add(quote.copy().put("currency", "ZZZ"))
+          .add(quote.copy().put("fareAmount", 100)), res -> ctx.verify(() -> {
+            assertThat(res.result().statusCode()).isEqualTo(200);
+            JsonArray items = res.result().bodyAsJsonArray();
+            assertThat(items).hasSize(3);
+
+            assertThat(items.getJsonObject(0).getInteger("status")).isEqualTo(200);
+            assertThat(items.getJsonObject(0).getJsonObject("quote").getInteger("totalPoints")).isEqualTo(1727);
+            assertThat(items.getJsonObject(1).getInteger("status")).isEqualTo(400);
+            assertThat(items.getJsonObject(1).getJsonObject("error").getString("message")).contains("Invalid currency");
+            assertThat(items.getJsonObject(2).getJsonObject("quote").getInteger("basePoints")).isEqualTo(100);
+
+            fx.verify(1, getRequestedFor(urlEqualTo("/fx/USD")));
+            promo.verify(1, getRequestedFor(urlEqualTo("/promo/SUMMER25")));
+            ctx.completeNow();
+          }));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Verifies batch quotes look up their promo codes with bulk promo requests instead of one call per code")
+  void batch_promoCodesFetchedInBulkRequests(Vertx vertx, VertxTestContext ctx) {
+    System.setProperty("promo.batch.maxCodes", "2");
+    promo.stubFor(post(urlEqualTo("/promo/batch"))
+      .willReturn(okJson("{\"promos\":{\"SUMMER25\":{\"bonusPercent\":25,\"expiresSoon\":true},"
+        + "\"WINTER10\":{\"bonusPercent\":10}}}")));
+    JsonObject quote = new JsonObject()
+      .put("fareAmount", 1234.50)
+      .put("currency", "USD")
+      .put("cabinClass", "ECONOMY")
+      .put("customerTier", "SILVER");
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient.create(vertx)
+        .post(port, "localhost", "/v1/points/quotes")
+        .putHeader("Content-Type", "application/json")
+        .sendJson(new JsonArray()
+          .add(quote.copy().put("promoCode", "SUMMER25"))
+          .add(quote.copy().put("promoCode", "WINTER10"))
+          .add(quote.copy().put("promoCode", "JUNK"))
+          .add(quote.copy().put("promoCode", "SUMMER25")), res -> ctx.verify(() -> {
+            JsonArray items = res.result().bodyAsJsonArray();
+            assertThat(items.getJsonObject(0).getJsonObject("quote").getInteger("promoBonus")).isEqualTo(308);
+            assertThat(items.getJsonObject(1).getJsonObject("quote").getInteger("promoBonus")).isEqualTo(123);
+            assertThat(items.getJsonObject(2).getJsonObject("quote").getInteger("promoBonus")).isZero();
+            assertThat(items.getJsonObject(3).getJsonObject("quote").getInteger("promoBonus")).isEqualTo(308);
+
+            // three distinct codes, at most two per request
+            promo.verify(2, postRequestedFor(urlEqualTo("/promo/batch")));
+            promo.verify(postRequestedFor(urlEqualTo("/promo/batch"))
+              .withRequestBody(equalToJson("{\"codes\":[\"SUMMER25\",\"WINTER10\"]}")));
+            promo.verify(0, getRequestedFor(urlMatching("/promo/.*")));
+            ctx.completeNow();
+          }));
+    });
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "java.specification.version", matches = "2[1-9]|[3-9]\\d") // virtual threads
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Verifies quotes are served with request handling and a blocking promo store on virtual threads")
+  void virtualThreads_serveQuotesWithBlockingPromoStore(Vertx vertx, VertxTestContext ctx) {
+    System.setProperty("quote.virtualThreads", "true");
+    System.setProperty("verticle.instances", "1");
+    List<ThreadingModel> storeContexts = new ArrayList<>();
+    PromoStore store = code -> {
+      Thread.sleep(20); // a blocking query
+      storeContexts.add(Vertx.currentContext().threadingModel());
+      return new PromoResult(25, true);
+    };
+    DeploymentOptions options = MainApp.deploymentOptions(ServiceConfig.fromSystemProperties());
+    System.clearProperty("quote.virtualThreads");
+    System.clearProperty("verticle.instances");
+
+    vertx.deployVerticle(() -> new MainVerticle(null, new BlockingPromoClient(vertx, store, 200)), options)
+      .compose(id -> quoteSummerSilver(WebClient.create(vertx), Integer.parseInt(System.getProperty("http.actualPort"))))
+      .onComplete(ctx.succeeding(res -> ctx.verify(() -> {
+        assertThat(res.bodyAsJsonObject().getInteger("totalPoints")).isEqualTo(1727);
+        assertThat(storeContexts).containsExactly(ThreadingModel.VIRTUAL_THREAD);
+        ctx.completeNow();
+      })));
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Rejects a batch request whose body is not a JSON array")
+  void batch_nonArrayBody_rejected(Vertx vertx, VertxTestContext ctx) {
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient.create(vertx)
+        .post(port, "localhost", "/v1/points/quotes")
+        .putHeader("Content-Type", "application/json")
+        .sendJsonObject(new JsonObject().put("fareAmount", 10), res -> ctx.verify(() -> {
+            assertThat(res.result().statusCode()).isEqualTo(400);
+            assertThat(res.result().bodyAsJsonObject().getString("error")).isEqualTo("Validation Error");
+            ctx.completeNow();
+          }));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Verifies large batch responses are gzipped when the client accepts it, and single quotes are not")
+  void compression_largeBatchGzipped_singleQuoteSentPlain(Vertx vertx, VertxTestContext ctx) {
+    System.setProperty("http.compression.enabled", "true");
+    JsonArray batch = new JsonArray();
+    for (int i = 0; i < 20; i++) {
+      batch.add(new JsonObject()
+        .put("fareAmount", 100 + i)
+        .put("currency", "USD")
+        .put("cabinClass", "ECONOMY")
+        .put("customerTier", "SILVER")
+        .put("promoCode", "SUMMER25"));
+    }
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+      client.post(port, "localhost", "/v1/points/quote")
+        .putHeader("Content-Type", "application/json")
+        .putHeader("Accept-Encoding", "gzip, deflate")
+        .sendBuffer(batch.getJsonObject(0).toBuffer())
+        .compose(single -> {
+          ctx.verify(() -> {
+            assertThat(single.statusCode()).isEqualTo(200);
+            assertThat(single.getHeader("Content-Encoding")).isNull();
+            assertThat(single.bodyAsJsonObject().getInteger("basePoints")).isEqualTo(100);
+          });
+          return client.post(port, "localhost", "/v1/points/quotes")
+            .putHeader("Content-Type", "application/json")
+            .putHeader("Accept-Encoding", "gzip, deflate")
+            .sendBuffer(batch.toBuffer());
+        })
+        .onComplete(ctx.succeeding(res -> ctx.verify(() -> {
+          assertThat(res.statusCode()).isEqualTo(200);
+          assertThat(res.getHeader("Content-Encoding")).isEqualTo("gzip");
+          byte[] json;
+          try (var in = new GZIPInputStream(new ByteArrayInputStream(res.body().getBytes()))) {
+            json = in.readAllBytes();
+          }
+          assertThat(res.body().length()).isLessThan(json.length / 4);
+          JsonArray items = new JsonArray(Buffer.buffer(json));
+          assertThat(items).hasSize(20);
+          assertThat(items.getJsonObject(19).getJsonObject("quote").getInteger("basePoints")).isEqualTo(119);
+          ctx.completeNow();
+        })));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Verifies multiple verticle instances share one FX cache instead of each calling FX")
+  void multiInstance_sharesFxCacheAcrossEventLoops(Vertx vertx, VertxTestContext ctx) {
+    fx.resetAll();
+    fx.stubFor(get(urlEqualTo("/fx/USD"))
+      .willReturn(okJson("{\"rate\":3.67}").withFixedDelay(200)));
+    // negative port: all instances share one randomly chosen port
+    System.setProperty("http.port", "-1");
+
+    int requests = 8;
+    Checkpoint responses = ctx.checkpoint(requests);
+    vertx.deployVerticle(MainVerticle::new, new DeploymentOptions().setInstances(4), ar -> {
+      assertThat(ar.succeeded()).isTrue();
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+      for (int i = 0; i < requests; i++) {
+        client.post(port, "localhost", "/v1/points/quote")
+          .putHeader("Content-Type", "application/json")
+          .sendJsonObject(new JsonObject()
+            .put("fareAmount", 1234.50)
+            .put("currency", "USD")
+            .put("cabinClass", "ECONOMY")
+            .put("customerTier", "SILVER")
+            .put("promoCode", "SUMMER25"), res -> ctx.verify(() -> {
+              assertThat(res.result().statusCode()).isEqualTo(200);
+              assertThat(res.result().bodyAsJsonObject().getDouble("effectiveFxRate")).isEqualTo(3.67);
+              fx.verify(1, getRequestedFor(urlEqualTo("/fx/USD")));
+              responses.flag();
+            }));
+      }
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Shared resources are released with the last instance, so a redeployment picks up new config")
+  void undeployThenRedeploy_startsFromFreshSharedResources(Vertx vertx, VertxTestContext ctx) {
+    System.setProperty("http.port", "-1");
+    System.setProperty("points.cap", "1000");
+    WebClient client = WebClient.create(vertx);
+    DeploymentOptions twoInstances = new DeploymentOptions().setInstances(2);
+
+    vertx.deployVerticle(MainVerticle::new, twoInstances)
+      .compose(id -> quoteSummerSilver(client, Integer.parseInt(System.getProperty("http.actualPort")))
+        .compose(capped -> {
+          ctx.verify(() -> assertThat(capped.bodyAsJsonObject().getInteger("totalPoints")).isEqualTo(1000));
+          return vertx.undeploy(id);
+        }))
+      .compose(v -> {
+        ctx.verify(() -> assertThat(SharedResources.current(vertx)).isNull());
+        System.clearProperty("points.cap");
+        return vertx.deployVerticle(MainVerticle::new, twoInstances);
+      })
+      .compose(id -> quoteSummerSilver(client, Integer.parseInt(System.getProperty("http.actualPort"))))
+      .onComplete(ctx.succeeding(uncapped -> ctx.verify(() -> {
+        assertThat(uncapped.bodyAsJsonObject().getInteger("totalPoints")).isEqualTo(1727);
+        ctx.completeNow();
+      })));
+  }
+
   @Test
   @Severity(SeverityLevel.CRITICAL)
   @Description("Verifies FX client retries on failure and succeeds on second attempt")
@@ -252,4 +552,425 @@ class PointsQuoteComponentTest {
           }));
     });
   }
+
+  @Test
+  @Severity(SeverityLevel.CRITICAL)
+  @Description("FX failing for one currency opens only that currency's breaker; other currencies keep quoting")
+  void resilience_fxFailingForOneCurrency_doesNotTripOthers(Vertx vertx, VertxTestContext ctx) {
+    fx.stubFor(get(urlEqualTo("/fx/INR")).willReturn(serverError()));
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+
+      // First INR quote fails twice (call and retry), opening the INR breaker; the second fails fast.
+      quoteIn(client, port, "INR")
+        .compose(first -> quoteIn(client, port, "INR").map(second -> {
+          ctx.verify(() -> {
+            assertThat(first.statusCode()).isEqualTo(502);
+            assertThat(second.statusCode()).isEqualTo(502);
+          });
+          return second;
+        }))
+        .compose(inr -> quoteUsd(client, port))
+        .compose(usd -> {
+          ctx.verify(() -> assertThat(usd.statusCode()).isEqualTo(200));
+          return client.get(port, "localhost", "/metrics").send();
+        })
+        .onComplete(ctx.succeeding(metrics -> ctx.verify(() -> {
+          String body = metrics.bodyAsString();
+          fx.verify(2, getRequestedFor(urlEqualTo("/fx/INR")));
+          assertThat(gauge(body, "loyalty_circuit_breaker_state{breaker=\"fx-cb\",currency=\"INR\"}")).isEqualTo(2);
+          assertThat(gauge(body, "loyalty_circuit_breaker_state{breaker=\"fx-cb\",currency=\"USD\"}")).isZero();
+          assertThat(gauge(body, "loyalty_fx_calls_in_flight{currency=\"INR\"}")).isZero();
+          ctx.completeNow();
+        })));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Exposes stage latencies, status codes and FX retries on /metrics")
+  void metrics_recordQuoteStagesAndRetries(Vertx vertx, VertxTestContext ctx) {
+    fx.stubFor(get(urlEqualTo("/fx/USD"))
+      .inScenario("fx")
+      .whenScenarioStateIs(STARTED)
+      .willReturn(serverError())
+      .willSetStateTo("second"));
+    fx.stubFor(get(urlEqualTo("/fx/USD"))
+      .inScenario("fx")
+      .whenScenarioStateIs("second")
+      .willReturn(okJson("{\"rate\":3.67}")));
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+      client.post(port, "localhost", "/v1/points/quote")
+        .putHeader("Content-Type", "application/json")
+        .sendJsonObject(new JsonObject()
+          .put("fareAmount", 1234.50)
+          .put("currency", "USD")
+          .put("cabinClass", "ECONOMY")
+          .put("customerTier", "SILVER")
+          .put("promoCode", "SUMMER25"))
+        .compose(quote -> client.get(port, "localhost", "/metrics").send())
+        .onComplete(ctx.succeeding(res -> ctx.verify(() -> {
+          assertThat(res.statusCode()).isEqualTo(200);
+          assertThat(res.getHeader("Content-Type")).startsWith("text/plain");
+          assertThat(res.bodyAsString())
+            .contains("loyalty_quote_duration_seconds_count 1\n")
+            .contains("loyalty_fx_call_duration_seconds_count 2\n")
+            .contains("loyalty_promo_call_duration_seconds_count 1\n")
+            .contains("loyalty_compute_duration_seconds_count 1\n")
+            .contains("loyalty_http_responses_total{status=\"200\"} 1\n")
+            .contains("loyalty_fx_retries_total 1\n")
+            .contains("loyalty_circuit_breaker_state{breaker=\"fx-cb\",currency=\"USD\"} 0\n")
+            .contains("loyalty_promo_cache_requests_total{result=\"miss\"} 1\n");
+          ctx.completeNow();
+        })));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Reuses pooled upstream connections across waves of concurrent quotes instead of reconnecting")
+  void load_steadyState_reusesUpstreamConnections(Vertx vertx, VertxTestContext ctx) {
+    int waves = 10;
+    int concurrency = 16;
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+      long[] fxOpenedAfterWarmUp = new long[1];
+
+      // The first wave warms up: a cold FX call that trips the breaker timeout is retried and may
+      // open a second connection. Steady state is measured from there.
+      Future<Void> load = loadWave(client, port, 0, concurrency)
+        .compose(v -> client.get(port, "localhost", "/metrics").send())
+        .map(res -> {
+          fxOpenedAfterWarmUp[0] = gauge(res.bodyAsString(), "loyalty_upstream_connections_opened_total{upstream=\"fx\"}");
+          return null;
+        });
+      for (int w = 1; w < waves; w++) {
+        int wave = w;
+        load = load.compose(v -> loadWave(client, port, wave, concurrency));
+      }
+
+      load.compose(v -> client.get(port, "localhost", "/metrics").send())
+        .onComplete(ctx.succeeding(res -> ctx.verify(() -> {
+          String metrics = res.bodyAsString();
+          promo.verify(waves * concurrency, getRequestedFor(urlMatching("/promo/LOAD.*")));
+          assertThat(gauge(metrics, "loyalty_upstream_connections_opened_total{upstream=\"promo\"}"))
+            .isBetween(1L, (long) concurrency);
+          assertThat(gauge(metrics, "loyalty_upstream_connections_opened_total{upstream=\"fx\"}"))
+            .isEqualTo(fxOpenedAfterWarmUp[0]);
+          assertThat(gauge(metrics, "loyalty_upstream_requests_in_flight{upstream=\"promo\"}")).isZero();
+          ctx.completeNow();
+        })));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("Concurrent quotes for an uncached promo code share a single promo service call")
+  void herd_concurrentSamePromo_coalescedIntoOneUpstreamCall(Vertx vertx, VertxTestContext ctx) {
+    promo.stubFor(get(urlEqualTo("/promo/HERD"))
+      .willReturn(okJson("{\"bonusPercent\":10,\"expiresSoon\":false}").withFixedDelay(100)));
+    int requests = 20;
+    Checkpoint responses = ctx.checkpoint(requests);
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+      for (int i = 0; i < requests; i++) {
+        client.post(port, "localhost", "/v1/points/quote")
+          .putHeader("Content-Type", "application/json")
+          .sendJsonObject(new JsonObject()
+            .put("fareAmount", 1000)
+            .put("currency", "USD")
+            .put("cabinClass", "ECONOMY")
+            .put("customerTier", "SILVER")
+            .put("promoCode", "HERD"), res -> ctx.verify(() -> {
+              assertThat(res.result().statusCode()).isEqualTo(200);
+              assertThat(res.result().bodyAsJsonObject().getInteger("promoBonus")).isEqualTo(100);
+              promo.verify(1, getRequestedFor(urlEqualTo("/promo/HERD")));
+              responses.flag();
+            }));
+      }
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.CRITICAL)
+  @Description("Sheds quotes beyond the concurrency limit with 503 and Retry-After instead of queueing them")
+  void overload_excessQuotesShedWith503(Vertx vertx, VertxTestContext ctx) {
+    System.setProperty("limiter.initialLimit", "2");
+    System.setProperty("limiter.minLimit", "2");
+    System.setProperty("limiter.maxLimit", "2");
+    promo.stubFor(get(urlMatching("/promo/SLOW.*"))
+      .willReturn(okJson("{\"bonusPercent\":10,\"expiresSoon\":false}").withFixedDelay(150)));
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+      List<Future<HttpResponse<Buffer>>> calls = new ArrayList<>();
+      for (int i = 0; i < 6; i++) {
+        calls.add(client.post(port, "localhost", "/v1/points/quote")
+          .putHeader("Content-Type", "application/json")
+          .sendJsonObject(new JsonObject()
+            .put("fareAmount", 100)
+            .put("currency", "USD")
+            .put("cabinClass", "ECONOMY")
+            .put("customerTier", "SILVER")
+            .put("promoCode", "SLOW" + i)));
+      }
+
+      Future.all(calls)
+        .compose(done -> client.get(port, "localhost", "/metrics").send())
+        .onComplete(ctx.succeeding(metrics -> ctx.verify(() -> {
+          long ok = calls.stream().filter(c -> c.result().statusCode() == 200).count();
+          List<HttpResponse<Buffer>> shed = calls.stream()
+            .map(Future::result)
+            .filter(res -> res.statusCode() == 503)
+            .toList();
+          assertThat(ok).isEqualTo(2);
+          assertThat(shed).hasSize(4);
+          assertThat(shed.get(0).getHeader("Retry-After")).isEqualTo("1");
+          assertThat(shed.get(0).bodyAsJsonObject().getString("error")).isEqualTo("Service Unavailable");
+          assertThat(gauge(metrics.bodyAsString(), "loyalty_quotes_shed_total")).isEqualTo(4);
+          assertThat(gauge(metrics.bodyAsString(), "loyalty_quotes_in_flight")).isZero();
+          ctx.completeNow();
+        })));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.CRITICAL)
+  @Description("A slow first FX response is overtaken by a hedge request, counted as one breaker success")
+  void hedge_slowFxReplica_answeredByHedgeRequest(Vertx vertx, VertxTestContext ctx) {
+    System.setProperty("fx.hedge.enabled", "true");
+    System.setProperty("fx.hedge.initialDelayMs", "50");
+    stubSlowThenFastFx();
+
+    long start = System.nanoTime();
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+      quoteUsd(client, port)
+        .compose(quote -> {
+          long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+          ctx.verify(() -> {
+            assertThat(quote.statusCode()).isEqualTo(200);
+            assertThat(quote.bodyAsJsonObject().getDouble("effectiveFxRate")).isEqualTo(3.67);
+            assertThat(elapsedMs).isLessThan(500);
+          });
+          return client.get(port, "localhost", "/metrics").send();
+        })
+        .onComplete(ctx.succeeding(metrics -> ctx.verify(() -> {
+          String body = metrics.bodyAsString();
+          fx.verify(2, getRequestedFor(urlEqualTo("/fx/USD")));
+          assertThat(gauge(body, "loyalty_fx_hedges_total")).isEqualTo(1);
+          assertThat(gauge(body, "loyalty_fx_hedge_wins_total")).isEqualTo(1);
+          assertThat(gauge(body, "loyalty_fx_retries_total")).isZero();
+          assertThat(gauge(body, "loyalty_circuit_breaker_state{breaker=\"fx-cb\",currency=\"USD\"}")).isZero();
+          ctx.completeNow();
+        })));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("With no hedge budget a slow FX response is simply waited for")
+  void hedge_noBudget_waitsForSlowFx(Vertx vertx, VertxTestContext ctx) {
+    System.setProperty("fx.hedge.enabled", "true");
+    System.setProperty("fx.hedge.initialDelayMs", "50");
+    System.setProperty("fx.hedge.budgetPercent", "0");
+    stubSlowThenFastFx();
+
+    long start = System.nanoTime();
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      quoteUsd(WebClient.create(vertx), port)
+        .onComplete(ctx.succeeding(quote -> ctx.verify(() -> {
+          assertThat(quote.statusCode()).isEqualTo(200);
+          assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(600);
+          fx.verify(1, getRequestedFor(urlEqualTo("/fx/USD")));
+          ctx.completeNow();
+        })));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.CRITICAL)
+  @Description("Edits to the watched config file apply to a running service; invalid edits are rejected")
+  void configReload_appliesCapWithoutRestart_andRejectsInvalidFile(Vertx vertx, VertxTestContext ctx,
+                                                                   @TempDir Path dir) {
+    Path file = dir.resolve("loyalty.properties");
+    vertx.fileSystem().writeFileBlocking(file.toString(), Buffer.buffer("points.cap=50000\n"));
+    System.setProperty("config.path", file.toString());
+    System.setProperty("config.reloadIntervalMs", "20");
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+      var live = SharedResources.current(vertx).liveConfig();
+
+      quoteSummerSilver(client, port)
+        .compose(before -> {
+          ctx.verify(() -> assertThat(before.bodyAsJsonObject().getInteger("totalPoints")).isEqualTo(1727));
+          write(vertx, file, "points.cap=1000\ncb.maxFailures=5\npromo.timeoutMs=250\n");
+          return awaitConfig(vertx, () -> live.current().pointsCap() == 1000);
+        })
+        .compose(v -> quoteSummerSilver(client, port))
+        .compose(after -> {
+          ctx.verify(() -> {
+            assertThat(after.bodyAsJsonObject().getInteger("totalPoints")).isEqualTo(1000);
+            assertThat(live.current().cbMaxFailures()).isEqualTo(5);
+            assertThat(live.current().promoTimeoutMs()).isEqualTo(250);
+          });
+          write(vertx, file, "points.cap=-5\nhttp.port=9999\n");
+          return awaitConfig(vertx, () -> live.rejectedReloads() == 1);
+        })
+        .compose(v -> quoteSummerSilver(client, port))
+        .compose(unchanged -> {
+          ctx.verify(() -> assertThat(unchanged.bodyAsJsonObject().getInteger("totalPoints")).isEqualTo(1000));
+          return client.get(port, "localhost", "/metrics").send();
+        })
+        .onComplete(ctx.succeeding(metrics -> ctx.verify(() -> {
+          String body = metrics.bodyAsString();
+          assertThat(gauge(body, "loyalty_config_reloads_total{result=\"ok\"}")).isEqualTo(2);
+          assertThat(gauge(body, "loyalty_config_reloads_total{result=\"rejected\"}")).isEqualTo(1);
+          assertThat(gauge(body, "loyalty_circuit_breaker_state{breaker=\"fx-cb\",currency=\"USD\"}")).isZero();
+          ctx.completeNow();
+        })));
+    });
+  }
+
+  @Test
+  @Severity(SeverityLevel.NORMAL)
+  @Description("A repeated identical quote is served from the response cache until the FX rate changes")
+  void responseCache_repeatedQuoteServedFromCache_untilFxRateChanges(Vertx vertx, VertxTestContext ctx) {
+    System.setProperty("responseCache.ttlMs", "60000");
+    System.setProperty("fx.cache.ttlMs", "1000");
+    System.setProperty("fx.cache.refreshAheadMs", "200");
+
+    vertx.deployVerticle(new MainVerticle(), ar -> {
+      int port = Integer.parseInt(System.getProperty("http.actualPort"));
+      WebClient client = WebClient.create(vertx);
+
+      // 1st quote warms the FX and promo caches, 2nd is stored, 3rd is a hit.
+      quoteSummerSilver(client, port)
+        .compose(first -> quoteSummerSilver(client, port))
+        .compose(second -> quoteSummerSilver(client, port).map(third -> {
+          ctx.verify(() -> assertThat(third.bodyAsString()).isEqualTo(second.bodyAsString()));
+          fx.stubFor(get(urlEqualTo("/fx/USD")).willReturn(okJson("{\"rate\":4.0}")));
+          return third;
+        }))
+        .compose(v -> quoteUntil(vertx, client, port, quote -> quote.getDouble("effectiveFxRate") == 4.0))
+        .compose(v -> client.get(port, "localhost", "/metrics").send())
+        .onComplete(ctx.succeeding(metrics -> ctx.verify(() -> {
+          String body = metrics.bodyAsString();
+          assertThat(gauge(body, "loyalty_quote_response_cache_requests_total{result=\"hit\"}")).isPositive();
+          assertThat(gauge(body, "loyalty_quote_response_cache_requests_total{result=\"miss\"}")).isPositive();
+          assertThat(gauge(body, "loyalty_quote_response_cache_bytes")).isPositive();
+          promo.verify(1, getRequestedFor(urlEqualTo("/promo/SUMMER25")));
+          ctx.completeNow();
+        })));
+    });
+  }
+
+  private static Future<Void> quoteUntil(Vertx vertx, WebClient client, int port, Predicate<JsonObject> done) {
+    return quoteSummerSilver(client, port).compose(res -> {
+      if (done.test(res.bodyAsJsonObject())) return Future.succeededFuture();
+      Promise<Void> next = Promise.promise();
+      vertx.setTimer(20, t -> quoteUntil(vertx, client, port, done).onComplete(next));
+      return next.future();
+    });
+  }
+
+  private static void write(Vertx vertx, Path file, String content) {
+    vertx.fileSystem().writeFileBlocking(file.toString(), Buffer.buffer(content));
+  }
+
+  private static Future<Void> awaitConfig(Vertx vertx, BooleanSupplier condition) {
+    Promise<Void> done = Promise.promise();
+    vertx.setPeriodic(10, id -> {
+      if (condition.getAsBoolean()) {
+        vertx.cancelTimer(id);
+        done.complete();
+      }
+    });
+    return done.future();
+  }
+
+  private static Future<Void> loadWave(WebClient client, int port, int wave, int concurrency) {
+    List<Future<?>> calls = new ArrayList<>();
+    for (int i = 0; i < concurrency; i++) {
+      // Distinct codes miss the promo cache, so every quote calls the promo service.
+      calls.add(client.post(port, "localhost", "/v1/points/quote")
+        .putHeader("Content-Type", "application/json")
+        .sendJsonObject(new JsonObject()
+          .put("fareAmount", 100)
+          .put("currency", "USD")
+          .put("cabinClass", "ECONOMY")
+          .put("customerTier", "SILVER")
+          .put("promoCode", "LOAD" + wave + "X" + i))
+        .map(res -> {
+          assertThat(res.statusCode()).isEqualTo(200);
+          return res;
+        }));
+    }
+    return Future.all(calls).mapEmpty();
+  }
+
+  private static Future<HttpResponse<Buffer>> quoteSummerSilver(WebClient client, int port) {
+    return client.post(port, "localhost", "/v1/points/quote")
+      .putHeader("Content-Type", "application/json")
+      .sendJsonObject(new JsonObject()
+        .put("fareAmount", 1234.50)
+        .put("currency", "USD")
+        .put("cabinClass", "ECONOMY")
+        .put("customerTier", "SILVER")
+        .put("promoCode", "SUMMER25"));
+  }
+
+  private static void stubSlowThenFastFx() {
+    fx.resetAll();
+    fx.stubFor(get(urlEqualTo("/fx/USD"))
+      .inScenario("hedge")
+      .whenScenarioStateIs(STARTED)
+      .willReturn(okJson("{\"rate\":3.67}").withFixedDelay(600))
+      .willSetStateTo("fast"));
+    fx.stubFor(get(urlEqualTo("/fx/USD"))
+      .inScenario("hedge")
+      .whenScenarioStateIs("fast")
+      .willReturn(okJson("{\"rate\":3.67}")));
+  }
+
+  private static Future<HttpResponse<Buffer>> quoteUsd(WebClient client, int port) {
+    return client.post(port, "localhost", "/v1/points/quote")
+      .putHeader("Content-Type", "application/json")
+      .sendJsonObject(new JsonObject()
+        .put("fareAmount", 1234.50)
+        .put("currency", "USD")
+        .put("cabinClass", "ECONOMY")
+        .put("customerTier", "SILVER"));
+  }
+
+  private static Future<HttpResponse<Buffer>> quoteIn(WebClient client, int port, String currency) {
+    return client.post(port, "localhost", "/v1/points/quote")
+      .putHeader("Content-Type", "application/json")
+      .sendJsonObject(new JsonObject()
+        .put("fareAmount", 1234.50)
+        .put("currency", currency)
+        .put("cabinClass", "ECONOMY")
+        .put("customerTier", "SILVER"));
+  }
+
+  private static long gauge(String metrics, String series) {
+    return metrics.lines()
+      .filter(line -> line.startsWith(series + " "))
+      .mapToLong(line -> Long.parseLong(line.substring(series.length() + 1)))
+      .findFirst()
+      .orElseThrow();
+  }
 }
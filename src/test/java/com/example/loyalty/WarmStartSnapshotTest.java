@@ -0,0 +1,107 @@
+package com.example.loyalty;
+
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.service.PromoResult;
+import com.example.loyalty.service.impl.CachingFxClient;
+import com.example.loyalty.service.impl.CachingPromoClient;
+import com.example.loyalty.service.impl.PromoCache;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class WarmStartSnapshotTest {
+
+  private static final ServiceConfig CONFIG = ServiceConfig.fromSystemProperties();
+
+  @TempDir
+  Path dir;
+
+  private final AtomicLong now = new AtomicLong(1_000_000);
+
+  @Test
+  void savedSnapshot_restoresStaleFxRatesAndHotPromos(Vertx vertx, VertxTestContext ctx) {
+    CachingFxClient.RateStore rates = new CachingFxClient.RateStore();
+    rates.warm("USD", 3.67, now.get() - 1_000);
+    PromoCache promos = CachingPromoClient.newCache(CONFIG);
+    promos.put("SUMMER25", new PromoResult(25, true));
+
+    String path = dir.resolve("snapshot.bin").toString();
+    CachingFxClient.RateStore restoredRates = new CachingFxClient.RateStore();
+    PromoCache restoredPromos = CachingPromoClient.newCache(CONFIG);
+
+    snapshot(vertx, path, rates, promos).save()
+        .compose(v -> {
+          now.addAndGet(2_000);
+          return snapshot(vertx, path, restoredRates, restoredPromos).load();
+        })
+        .onComplete(ctx.succeeding(restored -> ctx.verify(() -> {
+          assertThat(restored).isEqualTo(2);
+          assertThat(vertx.fileSystem().existsBlocking(path + ".tmp")).isFalse();
+
+          PromoResult promo = restoredPromos.getIfPresent("SUMMER25");
+          assertThat(promo.bonusPercent).isEqualTo(25);
+          assertThat(promo.expiresSoon).isTrue();
+          Map<String, Long> remaining = new HashMap<>();
+          restoredPromos.forEachHottest(10, (code, result, remainingMs) -> remaining.put(code, remainingMs));
+          assertThat(remaining.get("SUMMER25")).isLessThanOrEqualTo(CONFIG.promoCacheNegativeTtlMs());
+
+          Map<String, Double> restoredFx = new HashMap<>();
+          restoredRates.forEachRate((currency, rate, fetchedAt) -> {
+            restoredFx.put(currency, rate);
+            assertThat(fetchedAt).isEqualTo(1_000_000 - 1_000);
+          });
+          assertThat(restoredFx).containsExactly(Map.entry("USD", 3.67));
+          ctx.completeNow();
+        })));
+  }
+
+  @Test
+  void ratesOlderThanMaxStale_areNotRestored(Vertx vertx, VertxTestContext ctx) {
+    CachingFxClient.RateStore rates = new CachingFxClient.RateStore();
+    rates.warm("EUR", 0.92, now.get());
+    String path = dir.resolve("old.bin").toString();
+    CachingFxClient.RateStore restoredRates = new CachingFxClient.RateStore();
+
+    snapshot(vertx, path, rates, null).save()
+        .compose(v -> {
+          now.addAndGet(CONFIG.fxCacheMaxStaleMs());
+          return snapshot(vertx, path, restoredRates, null).load();
+        })
+        .onComplete(ctx.succeeding(restored -> ctx.verify(() -> {
+          assertThat(restored).isZero();
+          ctx.completeNow();
+        })));
+  }
+
+  @Test
+  void missingOrCorruptSnapshot_isSkipped(Vertx vertx, VertxTestContext ctx) {
+    String corrupt = dir.resolve("corrupt.bin").toString();
+    vertx.fileSystem().writeFileBlocking(corrupt, Buffer.buffer("not a snapshot"));
+    CachingFxClient.RateStore rates = new CachingFxClient.RateStore();
+
+    snapshot(vertx, dir.resolve("missing.bin").toString(), rates, null).load()
+        .compose(missing -> snapshot(vertx, corrupt, rates, null).load().map(c -> missing + c))
+        .onComplete(ctx.succeeding(restored -> ctx.verify(() -> {
+          assertThat(restored).isZero();
+          ctx.completeNow();
+        })));
+  }
+
+  private WarmStartSnapshot snapshot(Vertx vertx, String path, CachingFxClient.RateStore rates,
+                                     PromoCache promos) {
+    return new WarmStartSnapshot(vertx, path, rates, promos, 100, CONFIG.fxCacheMaxStaleMs(),
+        CONFIG.promoCacheNegativeTtlMs(), now::get);
+  }
+}
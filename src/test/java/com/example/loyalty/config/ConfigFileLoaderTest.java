@@ -0,0 +1,125 @@
+package com.example.loyalty.config;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(VertxExtension.class)
+class ConfigFileLoaderTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void parse_overridesReloadableSettingsOnly() {
+    ServiceConfig config = ConfigFileLoader.parse("promo.timeoutMs=450\ncb.timeoutMs=1200\n");
+
+    assertThat(config.promoTimeoutMs()).isEqualTo(450);
+    assertThat(config.cbTimeoutMs()).isEqualTo(1200);
+    assertThat(config.fxPort()).isEqualTo(ServiceConfig.fromSystemProperties().fxPort());
+  }
+
+  @Test
+  void parse_rejectsUnreloadableKeysAndInvalidValues() {
+    assertThatThrownBy(() -> ConfigFileLoader.parse("http.port=9090\n"))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("http.port");
+    assertThatThrownBy(() -> ConfigFileLoader.parse("cb.maxFailures=0\n"))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("cb.maxFailures");
+    assertThatThrownBy(() -> ConfigFileLoader.parse("points.cap=lots\n"))
+        .isInstanceOf(NumberFormatException.class);
+  }
+
+  @Test
+  void load_publishesToSubscribers_andBadFileKeepsCurrentConfig(Vertx vertx, VertxTestContext ctx) {
+    String path = dir.resolve("loyalty.properties").toString();
+    vertx.fileSystem().writeFileBlocking(path, Buffer.buffer("points.cap=1000\n"));
+    ServiceConfig initial = ServiceConfig.fromSystemProperties();
+    LiveConfig live = new LiveConfig(initial);
+    List<Integer> caps = new ArrayList<>();
+    live.subscribe((previous, next) -> caps.add(next.pointsCap()));
+    ConfigFileLoader loader = new ConfigFileLoader(vertx, path, live);
+
+    loader.load()
+        .compose(applied -> {
+          vertx.fileSystem().writeFileBlocking(path, Buffer.buffer("points.cap=0\n"));
+          return loader.load().otherwiseEmpty();
+        })
+        .onComplete(ctx.succeeding(v -> ctx.verify(() -> {
+          assertThat(caps).containsExactly(initial.pointsCap(), 1000);
+          assertThat(live.current().pointsCap()).isEqualTo(1000);
+          assertThat(live.reloads()).isEqualTo(1);
+          assertThat(live.rejectedReloads()).isEqualTo(1);
+          ctx.completeNow();
+        })));
+  }
+
+  @Test
+  void load_truncatedOrEmptyFile_keepsCurrentConfig(Vertx vertx, VertxTestContext ctx) {
+    String path = dir.resolve("loyalty.properties").toString();
+    vertx.fileSystem().writeFileBlocking(path, Buffer.buffer("points.cap=1000\ncb.maxFailures=5\n"));
+    LiveConfig live = new LiveConfig(ServiceConfig.fromSystemProperties());
+    ConfigFileLoader loader = new ConfigFileLoader(vertx, path, live);
+
+    loader.load()
+        .compose(applied -> {
+          // Written in place, as an editor or a copy that stops halfway would leave it.
+          vertx.fileSystem().writeFileBlocking(path, Buffer.buffer("points.cap=1000\n"));
+          return loader.load().otherwiseEmpty();
+        })
+        .compose(v -> {
+          vertx.fileSystem().writeFileBlocking(path, Buffer.buffer(""));
+          return loader.load().otherwiseEmpty();
+        })
+        .compose(v -> {
+          vertx.fileSystem().writeFileBlocking(path, Buffer.buffer("points.cap=2000\ncb.maxFailures=2\n"));
+          return loader.load();
+        })
+        .onComplete(ctx.succeeding(v -> ctx.verify(() -> {
+          assertThat(live.rejectedReloads()).isEqualTo(2);
+          assertThat(live.reloads()).isEqualTo(2);
+          assertThat(live.current().pointsCap()).isEqualTo(2000);
+          assertThat(live.current().cbMaxFailures()).isEqualTo(2);
+          ctx.completeNow();
+        })));
+  }
+
+  @Test
+  void watch_appliesAChangeOnlyOnceItHasSettled(Vertx vertx, VertxTestContext ctx) {
+    String path = dir.resolve("loyalty.properties").toString();
+    vertx.fileSystem().writeFileBlocking(path, Buffer.buffer("points.cap=1000\ncb.maxFailures=5\n"));
+    LiveConfig live = new LiveConfig(ServiceConfig.fromSystemProperties());
+    ConfigFileLoader loader = new ConfigFileLoader(vertx, path, live);
+    List<Integer> caps = new ArrayList<>();
+
+    loader.load().onComplete(ctx.succeeding(applied -> {
+      live.subscribe((previous, next) -> caps.add(next.pointsCap()));
+      // A truncated file that keeps changing is never read; the completed one is applied.
+      vertx.fileSystem().writeFileBlocking(path, Buffer.buffer("points.cap=1"));
+      long timer = loader.watch(200);
+      // Between the first poll, which sees the truncated file, and the second.
+      vertx.setTimer(300, id -> vertx.fileSystem().writeFileBlocking(path,
+          Buffer.buffer("points.cap=1500\ncb.maxFailures=5\n")));
+      vertx.setPeriodic(20, id -> {
+        if (live.current().pointsCap() != 1500) return;
+        vertx.cancelTimer(id);
+        vertx.cancelTimer(timer);
+        ctx.verify(() -> {
+          assertThat(caps).containsExactly(1000, 1500);
+          assertThat(live.rejectedReloads()).isZero();
+          ctx.completeNow();
+        });
+      });
+    }));
+  }
+}
@@ -0,0 +1,28 @@
+package com.example.loyalty.handler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoggingHandlerTest {
+
+  @Test
+  void sampling_logsEveryNthSuccessAndAllErrors() {
+    LoggingHandler handler = new LoggingHandler(10);
+
+    long loggedSuccesses = IntStream.range(0, 100).filter(i -> handler.shouldLog(200)).count();
+    long loggedErrors = IntStream.range(0, 20).filter(i -> handler.shouldLog(i % 2 == 0 ? 400 : 503)).count();
+
+    assertThat(loggedSuccesses).isEqualTo(10);
+    assertThat(loggedErrors).isEqualTo(20);
+  }
+
+  @Test
+  void defaultRate_logsEverything() {
+    LoggingHandler handler = new LoggingHandler();
+
+    assertThat(IntStream.range(0, 5).allMatch(i -> handler.shouldLog(200))).isTrue();
+  }
+}
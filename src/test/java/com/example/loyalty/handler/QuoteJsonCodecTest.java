@@ -0,0 +1,113 @@
+package com.example.loyalty.handler;
+
+import com.example.loyalty.model.BatchQuoteItem;
+import com.example.loyalty.model.ErrorResponse;
+import com.example.loyalty.model.QuoteRequest;
+import com.example.loyalty.model.QuoteResponse;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteJsonCodecTest {
+
+  @Test
+  void encodeResponse_isByteIdenticalToJackson() {
+    Random random = new Random(42);
+    double[] rates = {3.67, 1.0, 0.0, 83.123456789, 1e-5, 1e10, 0.1 + 0.2, Double.MIN_VALUE, Double.NaN,
+        Double.POSITIVE_INFINITY, -2.5};
+    List<List<String>> warnings = Arrays.asList(List.of(), List.of("PROMO_EXPIRES_SOON"), List.of("A", "B"), null);
+
+    for (double rate : rates) {
+      for (List<String> w : warnings) {
+        QuoteResponse res = new QuoteResponse();
+        res.basePoints = random.nextInt();
+        res.tierBonus = random.nextInt(10_000);
+        res.promoBonus = -random.nextInt(100);
+        res.totalPoints = rate == 1.0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        res.effectiveFxRate = rate;
+        res.warnings = w;
+
+        assertSameBytes(QuoteJsonCodec.encode(res), Json.encode(res));
+      }
+    }
+  }
+
+  @Test
+  void encodeError_escapesStringsLikeJackson() {
+    StringBuilder every = new StringBuilder();
+    for (char c = 0; c < 0x100; c++) every.append(c);
+    every.append("\u20ac \u2028 \ud83d\ude00 /");
+
+    ErrorResponse err = ErrorResponse.of("Validation Error", every.toString(), 400, "/v1/points/quote?x=\"y\"", null);
+
+    assertSameBytes(QuoteJsonCodec.encode(err), Json.encode(err));
+  }
+
+  @Test
+  void encodeBatch_isByteIdenticalToJackson() {
+    QuoteResponse quote = new QuoteResponse();
+    quote.basePoints = 1234;
+    quote.tierBonus = 185;
+    quote.promoBonus = 308;
+    quote.totalPoints = 1727;
+    quote.effectiveFxRate = 3.67;
+    quote.warnings = List.of("PROMO_EXPIRES_SOON");
+    List<BatchQuoteItem> items = new ArrayList<>();
+    items.add(BatchQuoteItem.ok(quote));
+    items.add(BatchQuoteItem.failed(ErrorResponse.of("Validation Error", "Invalid currency", 400, "/v1/points/quotes", "c-1")));
+
+    assertSameBytes(QuoteJsonCodec.encode(items), Json.encode(items));
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "{\"fareAmount\":1234.50,\"currency\":\"USD\",\"cabinClass\":\"ECONOMY\",\"customerTier\":\"SILVER\",\"promoCode\":\"SUMMER25\"}",
+      "{\"fareAmount\":99.9,\"currency\":\"INR\",\"route\":\"BOM-DXB\"}",
+      " {\n  \"promoCode\" : null ,\t\"fareAmount\" : 10 ,\"currency\":\"EUR\"\r\n} ",
+      "{\"fareAmount\":-0.0000000000001}",
+      "{\"fareAmount\":123456789.123456789}",
+      "{\"fareAmount\":1e3}",
+      "{\"fareAmount\":2.5E-3,\"fareAmount\":7}",
+      "{\"fareAmount\":null,\"customerTier\":\"\"}",
+      "{}"
+  })
+  void decode_plainRequests_matchDatabind(String json) {
+    QuoteRequest fast = QuoteJsonCodec.tryDecodeRequest(Buffer.buffer(json));
+    QuoteRequest databind = Json.decodeValue(json, QuoteRequest.class);
+
+    assertThat(fast).usingRecursiveComparison().isEqualTo(databind);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {
+      "",
+      "null",
+      "[1]",
+      "{bad",
+      "{\"fareAmount\":1} x",
+      "{\"fareAmount\":1,\"x\":2}",
+      "{\"fareAmount\":\"12.5\"}",
+      "{\"fareAmount\":true}",
+      "{\"fareAmount\":012}",
+      "{\"currency\":5}",
+      "{\"currency\":\"U\\u0053D\"}",
+      "{\"promoCode\":\"\u00e9t\u00e9\"}",
+      "{\"fareAmount\":1,}"
+  })
+  void decode_unusualInput_defersToDatabind(String json) {
+    assertThat(QuoteJsonCodec.tryDecodeRequest(Buffer.buffer(json))).isNull();
+  }
+
+  private static void assertSameBytes(Buffer actual, String expected) {
+    assertThat(actual.getBytes()).isEqualTo(Buffer.buffer(expected).getBytes());
+  }
+}
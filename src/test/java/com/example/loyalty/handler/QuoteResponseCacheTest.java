@@ -0,0 +1,122 @@
+package com.example.loyalty.handler;
+
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.model.QuoteRequest;
+import com.example.loyalty.rules.RuleTable;
+import com.example.loyalty.rules.RulesEngine;
+import com.example.loyalty.service.FxClient;
+import com.example.loyalty.service.PromoResult;
+import com.example.loyalty.service.impl.CachingFxClient;
+import com.example.loyalty.service.impl.CachingPromoClient;
+import com.example.loyalty.service.impl.PromoCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuoteResponseCacheTest {
+
+  private static final long FX_FRESH_MS = 4_000;
+
+  private final CachingFxClient.RateStore rates = new CachingFxClient.RateStore();
+  private final FxClient fx = new CachingFxClient(currency -> Future.succeededFuture(3.67), rates,
+      ServiceConfig.fromSystemProperties());
+  private final PromoCache promos = CachingPromoClient.newCache(ServiceConfig.fromSystemProperties());
+  private final RulesEngine rules = new RulesEngine(RuleTable.defaults(50_000));
+  private final AtomicLong skewMs = new AtomicLong();
+  private final QuoteResponseCache cache = newCache(1 << 20);
+  private final Buffer body = Buffer.buffer("{\"basePoints\":1234}");
+
+  @Test
+  void uncachedInputs_makeRequestUncacheable() {
+    assertThat(cache.keyFor(request(null))).isNull();
+
+    rates.warm("USD", 3.67, System.currentTimeMillis());
+    assertThat(cache.keyFor(request(null))).as("restored rates are not fresh").isNull();
+
+    fx.getRate("USD");
+    assertThat(cache.keyFor(request("SUMMER25"))).as("promo not cached").isNull();
+    assertThat(cache.keyFor(request(null))).isNotNull();
+    assertThat(cache.keyFor(request("X".repeat(QuoteResponseCache.MAX_KEY_STRING_LENGTH + 1)))).isNull();
+  }
+
+  @Test
+  void identicalRequest_hitsUntilFxAgesOrPromoOrRulesChange() {
+    fx.getRate("USD");
+    promos.put("SUMMER25", new PromoResult(25, true));
+    QuoteRequest req = request("SUMMER25");
+    QuoteResponseCache.Key key = cache.keyFor(req);
+    cache.put(key, req, body);
+
+    assertThat(cache.get(cache.keyFor(request("SUMMER25")))).isSameAs(body);
+
+    promos.put("SUMMER25", new PromoResult(30, true));
+    assertThat(cache.get(cache.keyFor(req))).isNull();
+    promos.put("SUMMER25", new PromoResult(25, true));
+    assertThat(cache.get(cache.keyFor(req))).isSameAs(body);
+
+    skewMs.set(FX_FRESH_MS);
+    assertThat(cache.keyFor(req)).as("FX cache would refresh this rate").isNull();
+    skewMs.set(0);
+
+    rules.swap(RuleTable.defaults(50_000));
+    assertThat(cache.get(cache.keyFor(req))).isNull();
+  }
+
+  @Test
+  void keys_doNotCountAsPromoLookups() {
+    fx.getRate("USD");
+    promos.put("SUMMER25", new PromoResult(25, true));
+    QuoteRequest req = request("SUMMER25");
+    cache.put(cache.keyFor(req), req, body);
+    cache.keyFor(request("WINTER10"));
+
+    assertThat(promos.stats().requestCount()).isZero();
+  }
+
+  @Test
+  void put_dropsResponseWhoseInputsChangedWhileComputing() {
+    fx.getRate("USD");
+    QuoteRequest req = request(null);
+    QuoteResponseCache.Key key = cache.keyFor(req);
+
+    rules.swap(RuleTable.defaults(1_000));
+    cache.put(key, req, body);
+
+    assertThat(cache.get(key)).isNull();
+    assertThat(cache.get(cache.keyFor(req))).isNull();
+  }
+
+  @Test
+  void size_boundedByBytes() {
+    QuoteResponseCache small = newCache(10 * (body.length() + QuoteResponseCache.ENTRY_OVERHEAD_BYTES));
+    fx.getRate("USD");
+    for (int i = 1; i <= 100; i++) {
+      QuoteRequest req = request(null);
+      req.fareAmount = i;
+      small.put(small.keyFor(req), req, body);
+    }
+    small.cleanUp();
+
+    assertThat(small.weightedSize()).isLessThanOrEqualTo(10L * (body.length() + QuoteResponseCache.ENTRY_OVERHEAD_BYTES));
+  }
+
+  private QuoteResponseCache newCache(long maxBytes) {
+    return new QuoteResponseCache(60_000, maxBytes, FX_FRESH_MS, rates, promos, rules, Ticker.systemTicker(),
+        () -> System.currentTimeMillis() + skewMs.get());
+  }
+
+  private static QuoteRequest request(String promoCode) {
+    QuoteRequest req = new QuoteRequest();
+    req.fareAmount = 1234.50;
+    req.currency = "USD";
+    req.cabinClass = "ECONOMY";
+    req.customerTier = "SILVER";
+    req.promoCode = promoCode;
+    return req;
+  }
+}
@@ -0,0 +1,67 @@
+package com.example.loyalty.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveLimiterTest {
+
+  private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+  @Test
+  void rejectsBeyondLimit_andAdmitsAgainAfterRelease() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 10, TARGET, 0.5);
+
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isTrue();
+    assertThat(limiter.tryAcquire()).isFalse();
+    assertThat(limiter.rejected()).isEqualTo(1);
+    assertThat(limiter.inFlight()).isEqualTo(2);
+
+    limiter.release(FAST);
+    assertThat(limiter.tryAcquire()).isTrue();
+  }
+
+  @Test
+  void slowResponses_shrinkLimitMultiplicatively_downToMinimum() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(40, 5, 100, TARGET, 0.5);
+
+    limiter.tryAcquire();
+    limiter.release(SLOW);
+    assertThat(limiter.limit()).isEqualTo(20);
+
+    for (int i = 0; i < 10; i++) {
+      limiter.tryAcquire();
+      limiter.release(SLOW);
+    }
+    assertThat(limiter.limit()).isEqualTo(5);
+  }
+
+  @Test
+  void fastResponsesUnderLoad_growLimitAdditively_upToMaximum() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 6, TARGET, 0.5);
+
+    // Saturate the limit so each fast completion counts as evidence of spare capacity.
+    for (int round = 0; round < 50; round++) {
+      while (limiter.tryAcquire()) {
+      }
+      for (int i = limiter.inFlight(); i > 0; i--) limiter.release(FAST);
+    }
+    assertThat(limiter.limit()).isEqualTo(6);
+  }
+
+  @Test
+  void fastResponsesWhileMostlyIdle_leaveLimitUnchanged() {
+    AdaptiveLimiter limiter = new AdaptiveLimiter(10, 1, 100, TARGET, 0.5);
+
+    for (int i = 0; i < 100; i++) {
+      limiter.tryAcquire();
+      limiter.release(FAST);
+    }
+    assertThat(limiter.limit()).isEqualTo(10);
+  }
+}
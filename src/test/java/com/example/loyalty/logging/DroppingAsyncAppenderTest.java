@@ -0,0 +1,65 @@
+package com.example.loyalty.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DroppingAsyncAppenderTest {
+
+  @Test
+  void fullQueue_dropsAndCountsInsteadOfBlocking() throws Exception {
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch firstDelivered = new CountDownLatch(1);
+    AppenderBase<ILoggingEvent> stalled = new AppenderBase<>() {
+      @Override
+      protected void append(ILoggingEvent event) {
+        firstDelivered.countDown();
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+    stalled.setContext(context);
+    stalled.start();
+
+    DroppingAsyncAppender appender = new DroppingAsyncAppender();
+    appender.setContext(context);
+    appender.setQueueSize(2);
+    appender.addAppender(stalled);
+    appender.start();
+
+    long droppedBefore = DroppingAsyncAppender.droppedCount();
+    try {
+      // The worker takes the first event and stalls on it; two more fill the queue.
+      appender.doAppend(event(context, "first"));
+      assertThat(firstDelivered.await(5, TimeUnit.SECONDS)).isTrue();
+      for (int i = 0; i < 2; i++) appender.doAppend(event(context, "queued"));
+
+      long start = System.nanoTime();
+      for (int i = 0; i < 5; i++) appender.doAppend(event(context, "dropped"));
+
+      assertThat(DroppingAsyncAppender.droppedCount() - droppedBefore).isEqualTo(5);
+      assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1_000);
+    } finally {
+      release.countDown();
+      appender.stop();
+    }
+  }
+
+  private static ILoggingEvent event(LoggerContext context, String message) {
+    return new LoggingEvent(DroppingAsyncAppenderTest.class.getName(), context.getLogger("test"), Level.INFO,
+        message, null, null);
+  }
+}
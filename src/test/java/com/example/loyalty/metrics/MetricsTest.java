@@ -0,0 +1,59 @@
+package com.example.loyalty.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MetricsTest {
+
+  @Test
+  void histogramBuckets_areContiguousAndWithinSixPercent() {
+    for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+      long lower = LatencyHistogram.lowerBound(i);
+      long upper = LatencyHistogram.lowerBound(i + 1);
+      assertThat(LatencyHistogram.indexOf(lower)).isEqualTo(i);
+      assertThat(LatencyHistogram.indexOf(upper - 1)).isEqualTo(i);
+      if (lower >= 16) assertThat((double) (upper - lower) / lower).isLessThanOrEqualTo(0.0625);
+    }
+  }
+
+  @Test
+  void histogram_reportsPercentilesAndCounts() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int micros = 1; micros <= 1000; micros++) histogram.record(micros);
+    histogram.record(Long.MAX_VALUE);
+
+    assertThat(histogram.count()).isEqualTo(1001);
+    assertThat(histogram.countBelow(512)).isEqualTo(511);
+    assertThat(histogram.percentile(0.5)).isBetween(500L, 532L);
+    assertThat(histogram.percentile(0.99)).isBetween(990L, 1024L);
+  }
+
+  @Test
+  void scrape_rendersPrometheusText() {
+    Metrics metrics = new Metrics();
+    metrics.quoteLatency().record(200);
+    metrics.quoteLatency().record(3_000);
+    metrics.recordResponse(200);
+    metrics.recordResponse(200);
+    metrics.recordResponse(503);
+    metrics.pointsCapped();
+    metrics.registerGauge("loyalty_test_size", "", "Test gauge", () -> 7);
+
+    String text = metrics.scrape();
+
+    assertThat(text)
+        .contains("# TYPE loyalty_quote_duration_seconds histogram\n")
+        .contains("loyalty_quote_duration_seconds_bucket{le=\"0.000128\"} 0\n")
+        .contains("loyalty_quote_duration_seconds_bucket{le=\"0.000256\"} 1\n")
+        .contains("loyalty_quote_duration_seconds_bucket{le=\"0.004096\"} 2\n")
+        .contains("loyalty_quote_duration_seconds_bucket{le=\"+Inf\"} 2\n")
+        .contains("loyalty_quote_duration_seconds_sum 0.0032\n")
+        .contains("loyalty_quote_duration_seconds_count 2\n")
+        .contains("loyalty_http_responses_total{status=\"200\"} 2\n")
+        .contains("loyalty_http_responses_total{status=\"503\"} 1\n")
+        .contains("loyalty_points_capped_total 1\n")
+        .contains("loyalty_fx_retries_total 0\n")
+        .contains("# TYPE loyalty_test_size gauge\nloyalty_test_size 7\n");
+  }
+}
@@ -0,0 +1,66 @@
+package com.example.loyalty.rules;
+
+import com.example.loyalty.model.CabinClass;
+import com.example.loyalty.model.CurrencyCode;
+import com.example.loyalty.model.Tier;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RuleTableTest {
+
+  @Test
+  void defaults_matchBuiltInRules() {
+    RuleTable table = RuleTable.defaults(50_000);
+
+    for (CurrencyCode currency : CurrencyCode.values()) {
+      for (CabinClass cabin : CabinClass.values()) {
+        assertThat(table.basePoints(1234.50, currency, cabin, "BOM-DXB")).isEqualTo(1234);
+      }
+    }
+    for (Tier tier : Tier.values()) {
+      assertThat(table.tierBonus(1234, tier)).isEqualTo((int) Math.floor(1234 * tier.bonusRate));
+      assertThat(table.cap(tier)).isEqualTo(50_000);
+    }
+  }
+
+  @Test
+  void compile_appliesCabinCurrencyRouteAndTierRules() {
+    RuleTable table = RuleTable.compile(new JsonObject("""
+        {
+          "cap": 40000,
+          "tiers": { "GOLD": { "bonusRate": 0.4, "cap": 80000 }, "SILVER": { "cap": 20000 } },
+          "cabins": { "BUSINESS": 1.5 },
+          "currencies": { "INR": 0.5 },
+          "routes": { "BOM-DXB": 2 }
+        }
+        """), 50_000);
+
+    assertThat(table.basePoints(1000, CurrencyCode.USD, CabinClass.ECONOMY, null)).isEqualTo(1000);
+    assertThat(table.basePoints(1000, CurrencyCode.USD, CabinClass.BUSINESS, null)).isEqualTo(1500);
+    assertThat(table.basePoints(1000, CurrencyCode.INR, CabinClass.BUSINESS, "BOM-DXB")).isEqualTo(1500);
+    assertThat(table.basePoints(1000, CurrencyCode.INR, CabinClass.ECONOMY, "LHR-JFK")).isEqualTo(500);
+    assertThat(table.tierBonus(1000, Tier.GOLD)).isEqualTo(400);
+    assertThat(table.tierBonus(1000, Tier.SILVER)).isEqualTo(150);
+    assertThat(table.cap(Tier.GOLD)).isEqualTo(80_000);
+    assertThat(table.cap(Tier.SILVER)).isEqualTo(20_000);
+    assertThat(table.cap(Tier.NONE)).isEqualTo(40_000);
+    assertThat(table.routeCount()).isEqualTo(1);
+  }
+
+  @Test
+  void compile_rejectsUnknownNamesAndInvalidValues() {
+    assertThatThrownBy(() -> RuleTable.compile(new JsonObject("{\"tiers\":{\"DIAMOND\":{}}}"), 50_000))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("DIAMOND");
+    assertThatThrownBy(() -> RuleTable.compile(new JsonObject("{\"cabins\":{\"PREMIUM\":1.2}}"), 50_000))
+        .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("PREMIUM");
+    assertThatThrownBy(() -> RuleTable.compile(new JsonObject("{\"currencies\":{\"USD\":-1}}"), 50_000))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> RuleTable.compile(new JsonObject("{\"cap\":\"lots\"}"), 50_000))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> RuleTable.compile(new JsonObject("{\"routes\":[]}"), 50_000))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
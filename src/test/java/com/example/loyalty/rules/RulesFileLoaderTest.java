@@ -0,0 +1,95 @@
+package com.example.loyalty.rules;
+
+import com.example.loyalty.model.CabinClass;
+import com.example.loyalty.model.CurrencyCode;
+import com.example.loyalty.model.Tier;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class RulesFileLoaderTest {
+
+  @TempDir
+  Path dir;
+
+  @Test
+  void load_swapsInCompiledRules(Vertx vertx, VertxTestContext ctx) {
+    String path = write(vertx, "rules.json", "{\"cabins\":{\"FIRST\":2.0}}");
+    RulesEngine engine = new RulesEngine(RuleTable.defaults(50_000));
+
+    new RulesFileLoader(vertx, path, 50_000, engine).load()
+        .onComplete(ctx.succeeding(table -> ctx.verify(() -> {
+          assertThat(engine.current()).isSameAs(table);
+          assertThat(engine.current().basePoints(100, CurrencyCode.EUR, CabinClass.FIRST, null)).isEqualTo(200);
+          assertThat(engine.reloads()).isEqualTo(1);
+          ctx.completeNow();
+        })));
+  }
+
+  @Test
+  void invalidFile_keepsCurrentRules(Vertx vertx, VertxTestContext ctx) {
+    String path = write(vertx, "bad.json", "{\"cabins\":{\"FIRST\":");
+    RuleTable initial = RuleTable.defaults(50_000);
+    RulesEngine engine = new RulesEngine(initial);
+
+    new RulesFileLoader(vertx, path, 50_000, engine).load()
+        .onComplete(ctx.failing(err -> ctx.verify(() -> {
+          assertThat(engine.current()).isSameAs(initial);
+          assertThat(engine.reloadFailures()).isEqualTo(1);
+          ctx.completeNow();
+        })));
+  }
+
+  @Test
+  void watch_reloadsChangedFile(Vertx vertx, VertxTestContext ctx) {
+    String path = write(vertx, "watched.json", "{}");
+    RulesEngine engine = new RulesEngine(RuleTable.defaults(50_000));
+    RulesFileLoader loader = new RulesFileLoader(vertx, path, 50_000, engine);
+
+    loader.load().onComplete(ctx.succeeding(initial -> {
+      loader.watch(20);
+      write(vertx, "watched.json", "{\"currencies\":{\"INR\":0.25}}");
+      vertx.setPeriodic(20, id -> {
+        if (engine.current().basePoints(100, CurrencyCode.INR, CabinClass.ECONOMY, null) == 25) {
+          ctx.verify(() -> assertThat(engine.reloads()).isEqualTo(2));
+          ctx.completeNow();
+        }
+      });
+    }));
+  }
+
+  @Test
+  void reconfigure_duringALoad_runsAfterIt_andItsCapWins(Vertx vertx, VertxTestContext ctx) {
+    String path = write(vertx, "capped.json", "{}");
+    RulesEngine engine = new RulesEngine(RuleTable.defaults(50_000));
+    RulesFileLoader loader = new RulesFileLoader(vertx, path, 50_000, engine);
+
+    vertx.runOnContext(v -> {
+      Future<RuleTable> stale = loader.load();
+      loader.reconfigure(1000).onComplete(ctx.succeeding(table -> ctx.verify(() -> {
+        assertThat(stale.succeeded()).isTrue();
+        assertThat(stale.result().cap(Tier.SILVER)).isEqualTo(50_000);
+        assertThat(engine.current()).isSameAs(table);
+        assertThat(table.cap(Tier.SILVER)).isEqualTo(1000);
+        assertThat(engine.reloads()).isEqualTo(2);
+        ctx.completeNow();
+      })));
+    });
+  }
+
+  private String write(Vertx vertx, String name, String content) {
+    String path = dir.resolve(name).toString();
+    vertx.fileSystem().writeFileBlocking(path, Buffer.buffer(content));
+    return path;
+  }
+}
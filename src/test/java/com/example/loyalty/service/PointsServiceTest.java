@@ -1,15 +1,24 @@
 package com.example.loyalty.service;
 
 import com.example.loyalty.exception.ValidationException;
+import com.example.loyalty.metrics.Metrics;
 import com.example.loyalty.model.QuoteRequest;
 import com.example.loyalty.model.QuoteResponse;
+import com.example.loyalty.rules.RuleTable;
+import com.example.loyalty.rules.RulesEngine;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.json.JsonObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -92,6 +101,20 @@ class PointsServiceTest {
         .hasMessage("Invalid tier");
   }
 
+  @Test
+  void validation_invalidTier_isRejectedWithoutStackTrace() {
+    QuoteRequest req = new QuoteRequest();
+    req.fareAmount = 100;
+    req.currency = "USD";
+    req.cabinClass = "ECONOMY";
+    req.customerTier = "silver";
+
+    assertThatThrownBy(() -> service.quote(req))
+        .isInstanceOf(ValidationException.class)
+        .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+    verifyNoInteractions(fxClient, promoClient);
+  }
+
   @Test
   void validation_invalidCabin_throwsValidationException() {
     QuoteRequest req = new QuoteRequest();
@@ -105,6 +128,21 @@ class PointsServiceTest {
         .hasMessage("Invalid cabin");
   }
 
+  @Test
+  void validation_overlongPromoCode_isRejectedWithoutPromoLookup() {
+    QuoteRequest req = new QuoteRequest();
+    req.fareAmount = 100;
+    req.currency = "USD";
+    req.cabinClass = "ECONOMY";
+    req.customerTier = "SILVER";
+    req.promoCode = "X".repeat(PointsService.MAX_PROMO_CODE_LENGTH + 1);
+
+    assertThatThrownBy(() -> service.quote(req))
+        .isInstanceOf(ValidationException.class)
+        .hasMessage("Invalid promo code");
+    verifyNoInteractions(fxClient, promoClient);
+  }
+
   @Test
   void promoFallback_onFailure_returnsZeroBonus() {
     when(fxClient.getRate("USD")).thenReturn(Future.succeededFuture(1.0));
@@ -124,6 +162,18 @@ class PointsServiceTest {
     assertThat(res.warnings).isEmpty();
   }
 
+  @Test
+  void noPromoCode_skipsPromoLookup_andPricesSynchronously() {
+    when(fxClient.getRate("USD")).thenReturn(Future.succeededFuture(1.0));
+
+    Future<QuoteResponse> quote = service.quote(request(1000, "USD", " "));
+
+    assertThat(quote.succeeded()).isTrue();
+    assertThat(quote.result().promoBonus).isZero();
+    assertThat(quote.result().warnings).isEmpty();
+    verifyNoInteractions(promoClient);
+  }
+
   @Test
   void pointsCap_enforcedAt50000() {
     when(fxClient.getRate("USD")).thenReturn(Future.succeededFuture(1.0));
@@ -142,10 +192,119 @@ class PointsServiceTest {
     assertThat(res.totalPoints).isEqualTo(50_000);
   }
 
+  @Test
+  void rules_cabinRouteAndTierCapApplied_andReloadSeenByNextQuote() {
+    when(fxClient.getRate("USD")).thenReturn(Future.succeededFuture(3.67));
+    when(promoClient.getPromo(anyString())).thenReturn(Future.succeededFuture(new PromoResult(0, false)));
+    RulesEngine rules = new RulesEngine(RuleTable.compile(new JsonObject()
+        .put("cabins", new JsonObject().put("BUSINESS", 2.0))
+        .put("routes", new JsonObject().put("BOM-DXB", 1.5))
+        .put("tiers", new JsonObject().put("SILVER", new JsonObject().put("cap", 3_000))), 50_000));
+    service = new PointsService(fxClient, promoClient, rules, new Metrics());
+
+    QuoteRequest req = request(1000, "USD", "NONE");
+    req.cabinClass = "BUSINESS";
+    req.route = "BOM-DXB";
+    QuoteResponse res = service.quote(req).result();
+
+    assertThat(res.basePoints).isEqualTo(3000);
+    assertThat(res.tierBonus).isEqualTo(450);
+    assertThat(res.totalPoints).isEqualTo(3000);
+
+    rules.swap(RuleTable.defaults(50_000));
+    res = service.quote(req).result();
+
+    assertThat(res.basePoints).isEqualTo(1000);
+    assertThat(res.totalPoints).isEqualTo(1150);
+  }
+
+  @Test
+  void quote_startsPromoLookupBeforeFxResolves() {
+    Promise<Double> fx = Promise.promise();
+    when(fxClient.getRate("USD")).thenReturn(fx.future());
+    when(promoClient.getPromo("SUMMER25"))
+        .thenReturn(Future.succeededFuture(new PromoResult(25, true)));
+
+    QuoteRequest req = new QuoteRequest();
+    req.fareAmount = 1234.50;
+    req.currency = "USD";
+    req.cabinClass = "ECONOMY";
+    req.customerTier = "SILVER";
+    req.promoCode = "SUMMER25";
+
+    Future<QuoteResponse> quote = service.quote(req);
+
+    verify(promoClient).getPromo("SUMMER25");
+    assertThat(quote.isComplete()).isFalse();
+
+    fx.complete(3.67);
+
+    assertThat(quote.result().totalPoints).isEqualTo(1727);
+  }
+
+  @Test
+  void quoteBatch_looksUpEachCurrencyAndPromoOnce() {
+    when(fxClient.getRate("USD")).thenReturn(Future.succeededFuture(3.67));
+    when(fxClient.getRate("EUR")).thenReturn(Future.succeededFuture(0.92));
+    when(promoClient.getPromos(any())).thenCallRealMethod();
+    when(promoClient.getPromo("SUMMER25"))
+        .thenReturn(Future.succeededFuture(new PromoResult(25, true)));
+
+    QuoteRequest invalid = new QuoteRequest();
+    invalid.fareAmount = 100;
+    invalid.currency = "ZZZ";
+    invalid.cabinClass = "ECONOMY";
+    invalid.customerTier = "SILVER";
+
+    List<Future<QuoteResponse>> results = service.quoteBatch(List.of(
+        request(1234.50, "USD", "SUMMER25"),
+        invalid,
+        request(100, "USD", "SUMMER25"),
+        request(200, "EUR", "SUMMER25")));
+
+    assertThat(results).hasSize(4);
+    assertThat(results.get(0).result().totalPoints).isEqualTo(1727);
+    assertThat(results.get(1).cause()).isInstanceOf(ValidationException.class).hasMessage("Invalid currency");
+    assertThat(results.get(2).result().basePoints).isEqualTo(100);
+    assertThat(results.get(3).result().effectiveFxRate).isEqualTo(0.92);
+
+    verify(fxClient, times(1)).getRate("USD");
+    verify(fxClient, times(1)).getRate("EUR");
+    verify(promoClient, times(1)).getPromo("SUMMER25");
+    verify(promoClient, times(1)).getPromos(Set.of("SUMMER25"));
+  }
+
+  @Test
+  void quoteBatch_codesMissingFromBulkLookup_fallBackToNoPromo() {
+    when(fxClient.getRate("USD")).thenReturn(Future.succeededFuture(3.67));
+    when(promoClient.getPromos(Set.of("SUMMER25", "WINTER10")))
+        .thenReturn(Future.succeededFuture(Map.of("SUMMER25", new PromoResult(25, true))));
+
+    List<Future<QuoteResponse>> results = service.quoteBatch(List.of(
+        request(1234.50, "USD", "SUMMER25"),
+        request(1234.50, "USD", "WINTER10"),
+        request(1234.50, "USD", null)));
+
+    assertThat(results.get(0).result().promoBonus).isEqualTo(308);
+    assertThat(results.get(1).result().promoBonus).isZero();
+    assertThat(results.get(2).result().promoBonus).isZero();
+    verify(promoClient, never()).getPromo(anyString());
+  }
+
   @Test
   void validation_nullBody_throwsValidationException() {
     assertThatThrownBy(() -> service.quote(null))
         .isInstanceOf(ValidationException.class)
         .hasMessage("Missing body");
   }
+
+  private static QuoteRequest request(double fare, String currency, String promoCode) {
+    QuoteRequest req = new QuoteRequest();
+    req.fareAmount = fare;
+    req.currency = currency;
+    req.cabinClass = "ECONOMY";
+    req.customerTier = "SILVER";
+    req.promoCode = promoCode;
+    return req;
+  }
 }
@@ -0,0 +1,64 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.exception.UpstreamServiceException;
+import com.example.loyalty.service.PromoResult;
+import io.vertx.core.Context;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class BlockingPromoClientTest {
+
+  @Test
+  void storeRunsOffTheEventLoop_andUnknownCodesMapToNone(Vertx vertx, VertxTestContext ctx) {
+    AtomicBoolean onEventLoop = new AtomicBoolean(true);
+    var client = new BlockingPromoClient(vertx, code -> {
+      onEventLoop.set(Context.isOnEventLoopThread());
+      return code.equals("SUMMER25") ? new PromoResult(25, true) : null;
+    }, 1_000);
+
+    vertx.runOnContext(v -> client.getPromo("SUMMER25")
+        .compose(known -> client.getPromo("JUNK").map(unknown -> {
+          assertThat(known.bonusPercent).isEqualTo(25);
+          assertThat(unknown).isSameAs(PromoResult.NONE);
+          return unknown;
+        }))
+        .onComplete(ctx.succeeding(r -> ctx.verify(() -> {
+          assertThat(onEventLoop).isFalse();
+          assertThat(Context.isOnEventLoopThread()).isTrue();
+          ctx.completeNow();
+        }))));
+  }
+
+  @Test
+  void slowStore_timesOut(Vertx vertx, VertxTestContext ctx) {
+    var client = new BlockingPromoClient(vertx, code -> {
+      Thread.sleep(500);
+      return new PromoResult(25, false);
+    }, 50);
+
+    client.getPromo("SUMMER25").onComplete(ctx.failing(err -> ctx.verify(() -> {
+      assertThat(err).isInstanceOf(UpstreamServiceException.class).hasMessageContaining("timed out after 50ms");
+      ctx.completeNow();
+    })));
+  }
+
+  @Test
+  void failingStore_failsTheLookup(Vertx vertx, VertxTestContext ctx) {
+    var client = new BlockingPromoClient(vertx, code -> {
+      throw new IllegalStateException("connection refused");
+    }, 1_000);
+
+    client.getPromo("SUMMER25").onComplete(ctx.failing(err -> ctx.verify(() -> {
+      assertThat(err).isInstanceOf(UpstreamServiceException.class).hasRootCauseMessage("connection refused");
+      ctx.completeNow();
+    })));
+  }
+}
@@ -0,0 +1,137 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.FxClient;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingFxClientTest {
+
+  @Mock
+  private FxClient delegate;
+
+  private final AtomicLong now = new AtomicLong(1_000);
+  private CachingFxClient client;
+
+  @BeforeEach
+  void setUp() {
+    client = new CachingFxClient(delegate, new CachingFxClient.RateStore(), 5_000, 1_000, 60_000, now::get);
+  }
+
+  @Test
+  void freshRate_servedFromCache() {
+    when(delegate.getRate("USD")).thenReturn(Future.succeededFuture(3.67));
+
+    assertThat(client.getRate("USD").result()).isEqualTo(3.67);
+    now.addAndGet(3_000);
+    assertThat(client.getRate("USD").result()).isEqualTo(3.67);
+
+    verify(delegate, times(1)).getRate("USD");
+  }
+
+  @Test
+  void cacheHits_shareOneCompletedFuture() {
+    when(delegate.getRate("USD")).thenReturn(Future.succeededFuture(3.67));
+    client.getRate("USD");
+
+    Future<Double> first = client.getRate("USD");
+
+    assertThat(client.getRate("USD")).isSameAs(first);
+    assertThat(first.result()).isEqualTo(3.67);
+  }
+
+  @Test
+  void concurrentMisses_shareOneUpstreamCall() {
+    Promise<Double> upstream = Promise.promise();
+    when(delegate.getRate("EUR")).thenReturn(upstream.future());
+
+    Future<Double> first = client.getRate("EUR");
+    Future<Double> second = client.getRate("EUR");
+    upstream.complete(0.92);
+
+    assertThat(first.result()).isEqualTo(0.92);
+    assertThat(second.result()).isEqualTo(0.92);
+    verify(delegate, times(1)).getRate("EUR");
+  }
+
+  @Test
+  void nearExpiry_refreshesInBackgroundAndServesCachedRate() {
+    Promise<Double> refresh = Promise.promise();
+    when(delegate.getRate("USD"))
+        .thenReturn(Future.succeededFuture(3.67))
+        .thenReturn(refresh.future());
+
+    client.getRate("USD");
+    now.addAndGet(4_500);
+
+    Future<Double> duringRefresh = client.getRate("USD");
+    assertThat(duringRefresh.result()).isEqualTo(3.67);
+    verify(delegate, times(2)).getRate("USD");
+
+    refresh.complete(3.70);
+    assertThat(client.getRate("USD").result()).isEqualTo(3.70);
+    verify(delegate, times(2)).getRate("USD");
+  }
+
+  @Test
+  void upstreamFailure_servesStaleRateWithinLimit() {
+    when(delegate.getRate("INR"))
+        .thenReturn(Future.succeededFuture(83.1))
+        .thenReturn(Future.failedFuture(new RuntimeException("circuit open")));
+
+    client.getRate("INR");
+    now.addAndGet(30_000);
+
+    assertThat(client.getRate("INR").result()).isEqualTo(83.1);
+  }
+
+  @Test
+  void upstreamFailure_beyondStalenessLimit_fails() {
+    when(delegate.getRate("INR"))
+        .thenReturn(Future.succeededFuture(83.1))
+        .thenReturn(Future.failedFuture(new RuntimeException("circuit open")));
+
+    client.getRate("INR");
+    now.addAndGet(61_000);
+
+    Future<Double> rate = client.getRate("INR");
+    assertThat(rate.failed()).isTrue();
+    assertThat(rate.cause()).hasMessage("circuit open");
+  }
+
+  @Test
+  void warmEntry_servedImmediatelyWhileOneRefreshRuns() {
+    CachingFxClient.RateStore store = new CachingFxClient.RateStore();
+    store.warm("USD", 3.60, now.get() - 30_000);
+    client = new CachingFxClient(delegate, store, 5_000, 1_000, 60_000, now::get);
+    Promise<Double> refresh = Promise.promise();
+    when(delegate.getRate("USD")).thenReturn(refresh.future());
+
+    assertThat(client.getRate("USD").result()).isEqualTo(3.60);
+    assertThat(client.getRate("USD").result()).isEqualTo(3.60);
+    refresh.complete(3.67);
+    assertThat(client.getRate("USD").result()).isEqualTo(3.67);
+
+    verify(delegate, times(1)).getRate("USD");
+  }
+
+  @Test
+  void warmEntry_olderThanMaxStale_isNotServed() {
+    CachingFxClient.RateStore store = new CachingFxClient.RateStore();
+    store.warm("USD", 3.60, now.get() - 60_000);
+    client = new CachingFxClient(delegate, store, 5_000, 1_000, 60_000, now::get);
+    when(delegate.getRate("USD")).thenReturn(Future.failedFuture(new RuntimeException("fx down")));
+
+    assertThat(client.getRate("USD").failed()).isTrue();
+  }
+}
@@ -0,0 +1,123 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.PromoClient;
+import com.example.loyalty.service.PromoResult;
+import io.vertx.core.Future;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingPromoClientTest {
+
+  @Mock
+  private PromoClient delegate;
+
+  private final AtomicLong nanos = new AtomicLong();
+  private CachingPromoClient client;
+
+  @BeforeEach
+  void setUp() {
+    client = new CachingPromoClient(delegate, CachingPromoClient.newCache(100, 60_000, 10_000, nanos::get));
+  }
+
+  @Test
+  void knownCode_servedFromCacheUntilTtl() {
+    when(delegate.getPromo("SUMMER25")).thenReturn(Future.succeededFuture(new PromoResult(25, true)));
+
+    client.getPromo("SUMMER25");
+    advanceMs(59_000);
+    PromoResult cached = client.getPromo("SUMMER25").result();
+
+    assertThat(cached.bonusPercent).isEqualTo(25);
+    verify(delegate, times(1)).getPromo("SUMMER25");
+    assertThat(client.stats().hitCount()).isEqualTo(1);
+    assertThat(client.stats().missCount()).isEqualTo(1);
+
+    advanceMs(2_000);
+    client.getPromo("SUMMER25");
+    verify(delegate, times(2)).getPromo("SUMMER25");
+  }
+
+  @Test
+  void unknownCode_negativelyCachedForShorterTtl() {
+    when(delegate.getPromo("JUNK")).thenReturn(Future.succeededFuture(PromoResult.NONE));
+
+    client.getPromo("JUNK");
+    advanceMs(9_000);
+    client.getPromo("JUNK");
+    verify(delegate, times(1)).getPromo("JUNK");
+
+    advanceMs(2_000);
+    client.getPromo("JUNK");
+    verify(delegate, times(2)).getPromo("JUNK");
+  }
+
+  @Test
+  void upstreamFailure_isNotCached() {
+    when(delegate.getPromo("SUMMER25"))
+        .thenReturn(Future.failedFuture(new RuntimeException("promo down")))
+        .thenReturn(Future.succeededFuture(new PromoResult(25, false)));
+
+    assertThat(client.getPromo("SUMMER25").failed()).isTrue();
+    assertThat(client.getPromo("SUMMER25").result().bonusPercent).isEqualTo(25);
+  }
+
+  @Test
+  void randomCodes_keepCacheBounded() {
+    when(delegate.getPromo(anyString())).thenReturn(Future.succeededFuture(PromoResult.NONE));
+
+    for (int i = 0; i < 10_000; i++) {
+      client.getPromo("RND" + i);
+    }
+    client.cleanUp();
+
+    assertThat(client.size()).isLessThanOrEqualTo(100);
+    assertThat(client.stats().evictionCount()).isGreaterThan(0);
+  }
+
+  @Test
+  void oversizedCode_bypassesCache() {
+    String code = "X".repeat(CachingPromoClient.MAX_CACHEABLE_CODE_LENGTH + 1);
+    when(delegate.getPromo(code)).thenReturn(Future.succeededFuture(PromoResult.NONE));
+
+    client.getPromo(code);
+    client.getPromo(code);
+
+    verify(delegate, times(2)).getPromo(code);
+    assertThat(client.size()).isZero();
+  }
+
+  @Test
+  void bulkLookup_servesCachedCodes_andFetchesMissesInOneCall() {
+    when(delegate.getPromo("SUMMER25")).thenReturn(Future.succeededFuture(new PromoResult(25, true)));
+    when(delegate.getPromos(Set.of("WINTER10", "JUNK")))
+        .thenReturn(Future.succeededFuture(Map.of("WINTER10", new PromoResult(10, false), "JUNK", PromoResult.NONE)));
+    client.getPromo("SUMMER25");
+
+    Map<String, PromoResult> found = client.getPromos(List.of("SUMMER25", "WINTER10", "JUNK", "WINTER10", "")).result();
+
+    assertThat(found).containsOnlyKeys("SUMMER25", "WINTER10", "JUNK");
+    assertThat(found.get("WINTER10").bonusPercent).isEqualTo(10);
+    assertThat(client.getPromo("WINTER10").result().bonusPercent).isEqualTo(10);
+    verify(delegate, times(1)).getPromos(anyCollection());
+    verify(delegate, never()).getPromo("WINTER10");
+  }
+
+  private void advanceMs(long ms) {
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+  }
+}
@@ -0,0 +1,93 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.exception.UpstreamTimeoutException;
+import com.example.loyalty.service.PromoClient;
+import com.example.loyalty.service.PromoResult;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class CoalescingPromoClientTest {
+
+  private static final long TIMEOUT_MS = 200;
+
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  void lateJoiner_outlivesTheStartersTimeout_andGetsTheAnswer(Vertx vertx, VertxTestContext ctx) {
+    // The first call answers after the starter's timeout; the second answers quickly.
+    PromoClient client = new CoalescingPromoClient(upstream(vertx, 400, 50), new SingleFlight<>(), vertx,
+        () -> TIMEOUT_MS);
+
+    Future<PromoResult> starter = client.getPromo("SUMMER25");
+    vertx.setTimer(150, id -> {
+      long joinedAt = System.nanoTime();
+      Future<PromoResult> joiner = client.getPromo("SUMMER25");
+      joiner.onComplete(ctx.succeeding(result -> ctx.verify(() -> {
+        assertThat(starter.failed()).isTrue();
+        assertThat(starter.cause()).isInstanceOf(UpstreamTimeoutException.class);
+        assertThat(result.bonusPercent).isEqualTo(25);
+        assertThat(elapsedMs(joinedAt)).isLessThan(TIMEOUT_MS);
+        assertThat(calls).hasValue(2);
+        ctx.completeNow();
+      })));
+    });
+  }
+
+  @Test
+  void lateJoiner_timesOutOnItsOwnDeadline(Vertx vertx, VertxTestContext ctx) {
+    PromoClient client = new CoalescingPromoClient(upstream(vertx, 10_000, 10_000), new SingleFlight<>(), vertx,
+        () -> TIMEOUT_MS);
+
+    client.getPromo("SUMMER25");
+    vertx.setTimer(150, id -> {
+      long joinedAt = System.nanoTime();
+      client.getPromo("SUMMER25").onComplete(ctx.failing(err -> ctx.verify(() -> {
+        assertThat(err).isInstanceOf(UpstreamTimeoutException.class);
+        // Not at the starter's deadline, 50ms after joining.
+        assertThat(elapsedMs(joinedAt)).isGreaterThanOrEqualTo(TIMEOUT_MS - 5);
+        ctx.completeNow();
+      })));
+    });
+  }
+
+  @Test
+  void withoutVertx_joinerSharesTheStartersOutcome(Vertx vertx, VertxTestContext ctx) {
+    PromoClient client = new CoalescingPromoClient(upstream(vertx, 10_000), new SingleFlight<>());
+
+    Future<PromoResult> starter = client.getPromo("SUMMER25");
+    Future<PromoResult> joiner = client.getPromo("SUMMER25");
+    joiner.onComplete(ctx.failing(err -> ctx.verify(() -> {
+      assertThat(starter.failed()).isTrue();
+      assertThat(err).isInstanceOf(UpstreamTimeoutException.class);
+      assertThat(calls).hasValue(1);
+      ctx.completeNow();
+    })));
+  }
+
+  // Call i answers after answerAfterMs[i], or fails like HttpPromoClient once TIMEOUT_MS has passed.
+  private PromoClient upstream(Vertx vertx, long... answerAfterMs) {
+    return code -> {
+      long answerAfter = answerAfterMs[calls.getAndIncrement()];
+      Promise<PromoResult> promise = Promise.promise();
+      vertx.setTimer(TIMEOUT_MS, id -> promise.tryFail(new UpstreamTimeoutException("promo-service",
+          "Promo lookup timed out after " + TIMEOUT_MS + "ms")));
+      vertx.setTimer(answerAfter, id -> promise.tryComplete(new PromoResult(25, true)));
+      return promise.future();
+    };
+  }
+
+  private static long elapsedMs(long startNanos) {
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+  }
+}
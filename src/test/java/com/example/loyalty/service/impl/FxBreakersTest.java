@@ -0,0 +1,69 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.limit.Bulkhead;
+import com.example.loyalty.metrics.Metrics;
+import io.vertx.circuitbreaker.CircuitBreaker;
+import io.vertx.circuitbreaker.CircuitBreakerState;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class FxBreakersTest {
+
+  private final Metrics metrics = new Metrics();
+
+  @Test
+  void failuresForOneCurrency_openOnlyThatCurrencysBreaker(Vertx vertx, VertxTestContext ctx) {
+    var breakers = new FxBreakers(vertx, config("cb.maxFailures", "2"), metrics);
+    CircuitBreaker inr = breakers.breaker("INR");
+
+    inr.<Double>execute(p -> p.fail("INR route down"))
+        .transform(ar -> inr.<Double>execute(p -> p.fail("INR route down")))
+        .onComplete(ctx.failing(err -> ctx.verify(() -> {
+          assertThat(breakers.breaker("INR").state()).isEqualTo(CircuitBreakerState.OPEN);
+          assertThat(breakers.breaker("USD").state()).isEqualTo(CircuitBreakerState.CLOSED);
+          assertThat(metrics.scrape())
+              .contains("loyalty_circuit_breaker_state{breaker=\"fx-cb\",currency=\"INR\"} 2\n")
+              .contains("loyalty_circuit_breaker_state{breaker=\"fx-cb\",currency=\"USD\"} 0\n");
+          ctx.completeNow();
+        })));
+  }
+
+  @Test
+  void bulkheadCapsConcurrentCalls_andReloadResizesItAndReplacesBreakers(Vertx vertx) {
+    var breakers = new FxBreakers(vertx, config("fx.bulkhead.maxConcurrent", "1"), metrics);
+    Bulkhead usd = breakers.bulkhead("USD");
+    CircuitBreaker before = breakers.breaker("USD");
+
+    assertThat(usd.tryAcquire()).isTrue();
+    assertThat(usd.tryAcquire()).isFalse();
+    assertThat(breakers.bulkhead("EUR").tryAcquire()).isTrue();
+
+    Properties reloaded = new Properties();
+    reloaded.setProperty("fx.bulkhead.maxConcurrent", "2");
+    reloaded.setProperty("cb.maxFailures", "5");
+    breakers.reconfigure(ServiceConfig.fromSystemProperties(reloaded));
+
+    assertThat(breakers.bulkhead("USD")).isSameAs(usd);
+    assertThat(usd.tryAcquire()).isTrue();
+    assertThat(breakers.breaker("USD")).isNotSameAs(before);
+    assertThat(metrics.scrape())
+        .contains("loyalty_fx_calls_in_flight{currency=\"USD\"} 2\n")
+        .contains("loyalty_fx_bulkhead_rejected_total{currency=\"USD\"} 1\n")
+        .contains("loyalty_fx_bulkhead_rejected_total{currency=\"EUR\"} 0\n");
+  }
+
+  private static ServiceConfig config(String key, String value) {
+    Properties overrides = new Properties();
+    overrides.setProperty(key, value);
+    return ServiceConfig.fromSystemProperties(overrides);
+  }
+}
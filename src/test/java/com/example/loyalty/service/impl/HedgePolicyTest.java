@@ -0,0 +1,79 @@
+package com.example.loyalty.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HedgePolicyTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+
+  @Test
+  void budget_allowsSmallBurstThenOneHedgePerTwentyCalls() {
+    HedgePolicy policy = new HedgePolicy(0.95, 10, 100, 5, nanos::get);
+
+    int burst = 0;
+    while (policy.tryHedge()) burst++;
+    assertThat(burst).isEqualTo(10);
+
+    for (int i = 0; i < 19; i++) policy.onCall();
+    assertThat(policy.tryHedge()).isFalse();
+    policy.onCall();
+    assertThat(policy.tryHedge()).isTrue();
+    assertThat(policy.hedged()).isEqualTo(11);
+  }
+
+  @Test
+  void zeroBudget_neverHedges() {
+    HedgePolicy policy = new HedgePolicy(0.95, 10, 100, 0, nanos::get);
+
+    for (int i = 0; i < 1_000; i++) policy.onCall();
+    assertThat(policy.tryHedge()).isFalse();
+  }
+
+  @Test
+  void delay_followsObservedPercentileOnceEnoughSamples() {
+    HedgePolicy policy = new HedgePolicy(0.95, 10, 100, 5, nanos::get);
+    assertThat(policy.delayMs()).isEqualTo(100);
+
+    for (int i = 0; i < 95; i++) policy.recordPrimary(ms(20));
+    for (int i = 0; i < 5; i++) policy.recordPrimary(ms(700));
+    assertThat(policy.delayMs()).isEqualTo(100); // not refreshed yet
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(policy.delayMs()).isBetween(20L, 22L);
+  }
+
+  @Test
+  void delay_flooredAtMinimum() {
+    HedgePolicy policy = new HedgePolicy(0.95, 10, 100, 5, nanos::get);
+    for (int i = 0; i < 200; i++) policy.recordPrimary(TimeUnit.MICROSECONDS.toNanos(500));
+
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(policy.delayMs()).isEqualTo(10);
+  }
+
+  @Test
+  void delay_followsRecentWindowNotLifetime() {
+    HedgePolicy policy = new HedgePolicy(0.95, 10, 100, 5, nanos::get);
+    for (int i = 0; i < 10_000; i++) policy.recordPrimary(ms(300));
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(policy.delayMs()).isBetween(300L, 320L);
+
+    // Too few samples yet: the delay holds and the window keeps filling.
+    for (int i = 0; i < 50; i++) policy.recordPrimary(ms(20));
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(policy.delayMs()).isBetween(300L, 320L);
+
+    for (int i = 0; i < 50; i++) policy.recordPrimary(ms(20));
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    assertThat(policy.delayMs()).isBetween(20L, 22L);
+  }
+
+  private static long ms(long millis) {
+    return TimeUnit.MILLISECONDS.toNanos(millis);
+  }
+}
@@ -0,0 +1,124 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.config.ServiceConfig;
+import com.example.loyalty.metrics.Metrics;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class HttpFxClientTest {
+
+  @Test
+  void stalledUpstream_keepsRequestsInFlightWithinBulkhead(Vertx vertx, VertxTestContext ctx) {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    AtomicInteger received = new AtomicInteger();
+    // Never answers; a request counts as in flight until the client gives up and closes its connection.
+    vertx.createHttpServer()
+        .requestHandler(req -> {
+          received.incrementAndGet();
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          req.connection().closeHandler(v -> inFlight.decrementAndGet());
+        })
+        .listen(0)
+        .onComplete(ctx.succeeding(server -> vertx.runOnContext(v -> {
+          Properties overrides = new Properties();
+          overrides.setProperty("fx.port", String.valueOf(server.actualPort()));
+          overrides.setProperty("fx.bulkhead.maxConcurrent", "2");
+          overrides.setProperty("cb.timeoutMs", "100");
+          overrides.setProperty("cb.maxFailures", "1000");
+          overrides.setProperty("fx.retryDelayMs", "10");
+          Metrics metrics = new Metrics();
+          var breakers = new FxBreakers(vertx, ServiceConfig.fromSystemProperties(overrides), metrics);
+          var client = new HttpFxClient(vertx, ServiceConfig.fromSystemProperties(overrides), breakers, metrics, null);
+
+          // One call first, so class loading on the event loop does not bunch the waves together.
+          Future<Double> warmUp = client.getRate("USD");
+          awaitCondition(vertx, () -> warmUp.isComplete() && breakers.bulkhead("USD").inFlight() == 0)
+              .onComplete(w -> {
+                // Waves of calls, each arriving after the previous wave's breaker timeouts fired.
+                List<Future<Double>> calls = new ArrayList<>();
+                for (int wave = 0; wave < 5; wave++) {
+                  vertx.setTimer(1 + wave * 150L, t -> {
+                    for (int i = 0; i < 4; i++) calls.add(client.getRate("USD"));
+                  });
+                }
+                awaitCondition(vertx, () -> calls.size() == 20 && calls.stream().allMatch(Future::isComplete)
+                    && breakers.bulkhead("USD").inFlight() == 0)
+                    .onComplete(ctx.succeeding(d -> ctx.verify(() -> {
+                      assertThat(calls).allMatch(Future::failed);
+                      assertThat(received.get()).isGreaterThan(2);
+                      assertThat(maxInFlight.get()).isLessThanOrEqualTo(2);
+                      assertThat(breakers.bulkhead("USD").rejected()).isPositive();
+                      ctx.completeNow();
+                    })));
+              });
+        })));
+  }
+
+  @Test
+  void hedge_needsABulkheadSlotOfItsOwn(Vertx vertx, VertxTestContext ctx) {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    AtomicInteger received = new AtomicInteger();
+    vertx.createHttpServer()
+        .requestHandler(req -> {
+          received.incrementAndGet();
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          req.connection().closeHandler(v -> inFlight.decrementAndGet());
+        })
+        .listen(0)
+        .onComplete(ctx.succeeding(server -> vertx.runOnContext(v -> {
+          Properties overrides = new Properties();
+          overrides.setProperty("fx.port", String.valueOf(server.actualPort()));
+          overrides.setProperty("fx.bulkhead.maxConcurrent", "1");
+          overrides.setProperty("cb.timeoutMs", "150");
+          overrides.setProperty("cb.maxFailures", "1000");
+          overrides.setProperty("fx.retryDelayMs", "10");
+          overrides.setProperty("fx.hedge.enabled", "true");
+          overrides.setProperty("fx.hedge.initialDelayMs", "20");
+          overrides.setProperty("fx.hedge.budgetPercent", "100");
+          ServiceConfig config = ServiceConfig.fromSystemProperties(overrides);
+          Metrics metrics = new Metrics();
+          var breakers = new FxBreakers(vertx, config, metrics);
+          var hedge = new HedgePolicy(config);
+          var client = new HttpFxClient(vertx, config, breakers, metrics, hedge);
+
+          // The primary request holds the only slot, so neither attempt is hedged.
+          Future<Double> call = client.getRate("USD");
+          awaitCondition(vertx, () -> call.isComplete() && breakers.bulkhead("USD").inFlight() == 0)
+              .onComplete(ctx.succeeding(d -> ctx.verify(() -> {
+                assertThat(call.failed()).isTrue();
+                assertThat(hedge.hedged()).isZero();
+                assertThat(received.get()).isEqualTo(2);
+                assertThat(maxInFlight.get()).isEqualTo(1);
+                assertThat(breakers.bulkhead("USD").rejected()).isZero();
+                ctx.completeNow();
+              })));
+        })));
+  }
+
+  private static Future<Void> awaitCondition(Vertx vertx, BooleanSupplier condition) {
+    Promise<Void> done = Promise.promise();
+    vertx.setPeriodic(10, id -> {
+      if (condition.getAsBoolean()) {
+        vertx.cancelTimer(id);
+        done.complete();
+      }
+    });
+    return done.future();
+  }
+}
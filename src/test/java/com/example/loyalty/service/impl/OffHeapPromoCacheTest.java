@@ -0,0 +1,159 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.PromoResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapPromoCacheTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final OffHeapPromoCache cache = new OffHeapPromoCache(100, 60_000, 10_000, nanos::get);
+
+  @Test
+  void knownAndUnknownCodes_expireAfterTheirTtl() {
+    cache.put("SUMMER25", new PromoResult(25, true));
+    cache.put("JUNK", PromoResult.NONE);
+
+    advanceMs(9_000);
+    assertThat(cache.getIfPresent("SUMMER25").bonusPercent).isEqualTo(25);
+    assertThat(cache.getIfPresent("JUNK")).isSameAs(PromoResult.NONE);
+
+    advanceMs(2_000);
+    assertThat(cache.getIfPresent("JUNK")).isNull();
+    advanceMs(50_000);
+    assertThat(cache.getIfPresent("SUMMER25")).isNull();
+    assertThat(cache.estimatedSize()).isZero();
+    assertThat(cache.stats().hitCount()).isEqualTo(2);
+    assertThat(cache.stats().missCount()).isEqualTo(2);
+  }
+
+  @Test
+  void randomCodes_keepCacheBoundedAndHotCodesResident() {
+    cache.put("SUMMER25", new PromoResult(25, false));
+    for (int i = 0; i < 10_000; i++) {
+      cache.getIfPresent("SUMMER25");
+      cache.put("RND" + i, PromoResult.NONE);
+    }
+
+    assertThat(cache.estimatedSize()).isLessThanOrEqualTo(100);
+    assertThat(cache.stats().evictionCount()).isGreaterThan(0);
+    assertThat(cache.getIfPresent("SUMMER25")).isNotNull();
+  }
+
+  @Test
+  void codesItCannotHold_areIgnored() {
+    cache.put("X".repeat(OffHeapPromoCache.MAX_KEY_LENGTH + 1), new PromoResult(10, false));
+    cache.put("\u00C9T\u00C925", new PromoResult(25, false));
+
+    assertThat(cache.getIfPresent("X".repeat(OffHeapPromoCache.MAX_KEY_LENGTH + 1))).isNull();
+    assertThat(cache.getIfPresent("\u00C9T\u00C925")).isNull();
+    assertThat(cache.estimatedSize()).isZero();
+  }
+
+  @Test
+  void hottest_keepsTheMostUsedEntriesAcrossSegments() {
+    OffHeapPromoCache large = new OffHeapPromoCache(64 * 1024, 60_000, 10_000, nanos::get);
+    for (int i = 0; i < 5_000; i++) {
+      large.put("CODE" + i, new PromoResult(i % 100, false));
+      for (int hit = 0; hit < i % 16; hit++) large.getIfPresent("CODE" + i);
+    }
+
+    List<Integer> frequencies = new ArrayList<>();
+    large.forEachHottest(100, (code, result, remainingMs) -> {
+      int i = Integer.parseInt(code.substring(4));
+      assertThat(result.bonusPercent).isEqualTo(i % 100);
+      assertThat(remainingMs).isEqualTo(60_000L);
+      frequencies.add(i % 16);
+    });
+    assertThat(frequencies).hasSize(100).allMatch(f -> f == 15);
+    assertThat(large.segments()).isGreaterThan(1);
+  }
+
+  @Test
+  void segmentCount_scalesWithCoresAndStaysAPowerOfTwo() {
+    assertThat(OffHeapPromoCache.segmentCount(100, 8)).isEqualTo(1);
+    assertThat(OffHeapPromoCache.segmentCount(10_000, 1)).isEqualTo(4);
+    assertThat(OffHeapPromoCache.segmentCount(10_000, 8)).isEqualTo(32);
+    assertThat(OffHeapPromoCache.segmentCount(10_000, 6)).isEqualTo(32);
+    assertThat(OffHeapPromoCache.segmentCount(1_000_000, 128)).isEqualTo(256);
+  }
+
+  @Test
+  void peek_leavesStatsAndFrequencyAlone() {
+    cache.put("SUMMER25", new PromoResult(25, true));
+    cache.put("WINTER10", new PromoResult(10, false));
+    cache.getIfPresent("WINTER10");
+    for (int i = 0; i < 5; i++) assertThat(cache.peek("SUMMER25").bonusPercent).isEqualTo(25);
+    assertThat(cache.peek("SPRING5")).isNull();
+
+    List<String> order = new ArrayList<>();
+    cache.forEachHottest(10, (code, result, remainingMs) -> order.add(code));
+    assertThat(order).containsExactly("WINTER10", "SUMMER25");
+    assertThat(cache.stats().hitCount()).isEqualTo(1);
+    assertThat(cache.stats().missCount()).isZero();
+  }
+
+  @Test
+  void putIfAbsent_keepsLiveEntries_andHottestComeFirst() {
+    cache.put("SUMMER25", new PromoResult(25, true));
+    cache.put("WINTER10", new PromoResult(10, false));
+    cache.getIfPresent("SUMMER25");
+
+    assertThat(cache.putIfAbsent("SUMMER25", new PromoResult(5, false), 1_000)).isFalse();
+    assertThat(cache.putIfAbsent("SPRING5", new PromoResult(5, false), 1_000)).isTrue();
+
+    List<String> order = new ArrayList<>();
+    Map<String, Long> remaining = new HashMap<>();
+    cache.forEachHottest(10, (code, result, remainingMs) -> {
+      order.add(code);
+      remaining.put(code, remainingMs);
+    });
+    assertThat(order).hasSize(3).first().isEqualTo("SUMMER25");
+    assertThat(remaining).containsEntry("SPRING5", 1_000L).containsEntry("SUMMER25", 60_000L);
+  }
+
+  @Test
+  void randomOperations_matchAMapModel() {
+    OffHeapPromoCache small = new OffHeapPromoCache(64, 1_000, 300, nanos::get);
+    Map<String, PromoResult> values = new HashMap<>();
+    Map<String, Long> expiresAt = new HashMap<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 100_000; i++) {
+      String code = "C" + random.nextInt(48);
+      switch (random.nextInt(4)) {
+        case 0 -> {
+          PromoResult result = random.nextBoolean() ? PromoResult.NONE : new PromoResult(random.nextInt(50) + 1, false);
+          small.put(code, result);
+          values.put(code, result);
+          expiresAt.put(code, nanos.get() + TimeUnit.MILLISECONDS.toNanos(result == PromoResult.NONE ? 300 : 1_000));
+        }
+        case 1 -> advanceMs(random.nextInt(20));
+        default -> {
+          PromoResult cached = small.getIfPresent(code);
+          boolean live = expiresAt.containsKey(code) && nanos.get() < expiresAt.get(code);
+          if (live) {
+            assertThat(cached).as("op %d, %s", i, code).isNotNull();
+            assertThat(cached.bonusPercent).isEqualTo(values.get(code).bonusPercent);
+          } else {
+            assertThat(cached).as("op %d, %s", i, code).isNull();
+          }
+        }
+      }
+    }
+    assertThat(small.stats().evictionCount()).isZero();
+  }
+
+  private void advanceMs(long ms) {
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+  }
+}
@@ -0,0 +1,100 @@
+package com.example.loyalty.service.impl;
+
+import com.example.loyalty.service.PromoClient;
+import com.example.loyalty.service.PromoResult;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.junit5.VertxExtension;
+import io.vertx.junit5.VertxTestContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(VertxExtension.class)
+class PromoPrefetcherTest {
+
+  private final AtomicLong nanos = new AtomicLong();
+  private final PromoCache cache = CachingPromoClient.newCache(100, 60_000, 10_000, nanos::get);
+  private final List<Collection<String>> bulkCalls = new ArrayList<>();
+
+  @Test
+  void hotCodesAboutToExpire_areRefreshedWithOneBulkCall(Vertx vertx, VertxTestContext ctx) {
+    cache.put("SUMMER25", new PromoResult(25, true));
+    cache.put("WINTER10", new PromoResult(10, false));
+    advanceMs(45_000);
+    cache.put("SPRING5", new PromoResult(5, false));
+    for (int i = 0; i < 5; i++) cache.getIfPresent("SUMMER25");
+    PromoPrefetcher prefetcher = new PromoPrefetcher(vertx, cache, 10, 20_000);
+
+    prefetcher.prefetch(upstream(Map.of("SUMMER25", new PromoResult(30, true))))
+        .onComplete(ctx.succeeding(stored -> ctx.verify(() -> {
+          // SPRING5 still has 60s to live; WINTER10 could not be looked up and keeps its entry.
+          assertThat(bulkCalls).hasSize(1);
+          assertThat(bulkCalls.get(0)).containsExactlyInAnyOrder("SUMMER25", "WINTER10");
+          assertThat(stored).isEqualTo(1);
+          assertThat(prefetcher.prefetched()).isEqualTo(1);
+          advanceMs(30_000);
+          assertThat(cache.getIfPresent("SUMMER25").bonusPercent).isEqualTo(30);
+          assertThat(cache.getIfPresent("WINTER10")).isNull();
+          ctx.completeNow();
+        })));
+  }
+
+  @Test
+  void nothingDue_makesNoUpstreamCall_andOnlyOneInstanceClaims(Vertx vertx, VertxTestContext ctx) {
+    cache.put("SUMMER25", new PromoResult(25, true));
+    PromoPrefetcher prefetcher = new PromoPrefetcher(vertx, cache, 10, 20_000);
+
+    prefetcher.prefetch(upstream(Map.of())).onComplete(ctx.succeeding(stored -> ctx.verify(() -> {
+      assertThat(stored).isZero();
+      assertThat(bulkCalls).isEmpty();
+      Object first = new Object();
+      assertThat(prefetcher.claim(first)).isTrue();
+      assertThat(prefetcher.claim(new Object())).isFalse();
+      assertThat(prefetcher.claim(first)).isTrue();
+      ctx.completeNow();
+    })));
+  }
+
+  @Test
+  void releasedClaim_isTakenOverByAnotherInstance(Vertx vertx) {
+    PromoPrefetcher prefetcher = new PromoPrefetcher(vertx, cache, 10, 20_000);
+    Object owner = new Object();
+    Object other = new Object();
+    assertThat(prefetcher.claim(owner)).isTrue();
+
+    prefetcher.release(other);
+    assertThat(prefetcher.claim(other)).isFalse();
+    prefetcher.release(owner);
+
+    assertThat(prefetcher.claim(other)).isTrue();
+    assertThat(prefetcher.claim(owner)).isFalse();
+  }
+
+  private PromoClient upstream(Map<String, PromoResult> answers) {
+    return new PromoClient() {
+      @Override
+      public Future<PromoResult> getPromo(String code) {
+        throw new AssertionError("single lookup for " + code);
+      }
+
+      @Override
+      public Future<Map<String, PromoResult>> getPromos(Collection<String> codes) {
+        bulkCalls.add(codes);
+        return Future.succeededFuture(answers);
+      }
+    };
+  }
+
+  private void advanceMs(long ms) {
+    nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+  }
+}
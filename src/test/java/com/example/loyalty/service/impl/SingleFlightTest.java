@@ -0,0 +1,97 @@
+package com.example.loyalty.service.impl;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SingleFlightTest {
+
+  private final SingleFlight<String, String> flights = new SingleFlight<>();
+  private final AtomicInteger calls = new AtomicInteger();
+  private final List<Promise<String>> upstream = new ArrayList<>();
+
+  private Future<String> call(String key) {
+    calls.incrementAndGet();
+    Promise<String> promise = Promise.promise();
+    upstream.add(promise);
+    return promise.future();
+  }
+
+  @Test
+  void concurrentCallsForSameKey_shareOneCall() {
+    Future<String> first = flights.execute("SUMMER25", this::call);
+    Future<String> second = flights.execute("SUMMER25", this::call);
+    Future<String> other = flights.execute("WINTER10", this::call);
+
+    upstream.get(0).complete("25%");
+    upstream.get(1).complete("10%");
+
+    assertThat(calls).hasValue(2);
+    assertThat(first.result()).isEqualTo("25%");
+    assertThat(second.result()).isEqualTo("25%");
+    assertThat(other.result()).isEqualTo("10%");
+    assertThat(flights.joined()).isEqualTo(1);
+    assertThat(flights.isInFlight("SUMMER25")).isFalse();
+  }
+
+  @Test
+  void failure_isSharedByOverlappingCallersButNotPinned() {
+    Future<String> first = flights.execute("USD", this::call);
+    Future<String> joined = flights.execute("USD", this::call);
+    upstream.get(0).fail(new RuntimeException("boom"));
+
+    assertThat(first.failed()).isTrue();
+    assertThat(joined.failed()).isTrue();
+
+    Future<String> retry = flights.execute("USD", this::call);
+    upstream.get(1).complete("3.67");
+
+    assertThat(calls).hasValue(2);
+    assertThat(retry.result()).isEqualTo("3.67");
+  }
+
+  @Test
+  void callThatThrows_failsItsFlightAndIsNotPinned() {
+    Future<String> thrown = flights.execute("USD", key -> {
+      throw new IllegalStateException("no client");
+    });
+
+    assertThat(thrown.cause()).hasMessage("no client");
+    assertThat(flights.isInFlight("USD")).isFalse();
+  }
+
+  @Test
+  void executeAll_joinsKeysInFlight_andFetchesTheRestInOneCall() {
+    Future<String> inFlight = flights.execute("SUMMER25", this::call);
+    List<List<String>> bulkCalls = new ArrayList<>();
+    Promise<Map<String, String>> bulk = Promise.promise();
+
+    Map<String, Future<String>> results = flights.executeAll(List.of("SUMMER25", "WINTER10", "JUNK", "WINTER10"),
+        keys -> {
+          bulkCalls.add(keys);
+          return bulk.future();
+        });
+    assertThat(flights.isInFlight("WINTER10")).isTrue();
+
+    upstream.get(0).complete("25%");
+    bulk.complete(Map.of("WINTER10", "10%"));
+
+    assertThat(bulkCalls).containsExactly(List.of("WINTER10", "JUNK"));
+    assertThat(results).containsOnlyKeys("SUMMER25", "WINTER10", "JUNK");
+    assertThat(results.get("SUMMER25").result()).isEqualTo("25%");
+    assertThat(results.get("WINTER10").result()).isEqualTo("10%");
+    assertThat(results.get("JUNK").cause()).isInstanceOf(NoSuchElementException.class);
+    assertThat(inFlight.result()).isEqualTo("25%");
+    assertThat(flights.joined()).isEqualTo(1);
+    assertThat(flights.isInFlight("WINTER10")).isFalse();
+    assertThat(flights.isInFlight("JUNK")).isFalse();
+  }
+}